@@ -0,0 +1,126 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.alerts.index.AlertRuleIndex;
+import com.stockanalytics.alerts.index.SymbolRuleSet;
+import com.stockanalytics.alerts.index.SymbolRuleState;
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import com.stockanalytics.shared.price.PriceScales;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick rule work for N enabled PRICE_THRESHOLD rules of one symbol: a linear scan comparing
+ * every rule (the baseline the index replaced), the AlertRuleIndex level lookup and the
+ * edge-triggered SymbolRuleState. windowedRules runs N MA_CROSS and PCT_CHANGE_WINDOW rules spread over a few
+ * windows. One op is one tick.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AlertRuleBenchmark {
+
+    private static final String[] OPERATORS = {">=", "<=", ">", "<", "=="};
+    private static final int[] WINDOWS = {5, 10, 20, 50, 100};
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    private List<AlertRule> rules;
+    private SymbolRuleSet ruleSet;
+    private SymbolRuleState ruleState;
+    private SymbolRuleState windowedRuleState;
+    private StockTick[] ticks;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(11);
+        rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            AlertRule rule = new AlertRule("acct-" + i, "PRICE_THRESHOLD", "INFY",
+                    OPERATORS[i % OPERATORS.length], 1700 + random.nextDouble() * 200, null, 60);
+            rule.setId("rule-" + i);
+            rules.add(rule);
+        }
+        AlertRuleIndex index = new AlertRuleIndex(null, PriceScales.defaults());
+        index.load(rules);
+        ruleSet = index.rulesFor("INFY");
+        ruleState = new SymbolRuleState(ruleSet, null);
+
+        List<AlertRule> windowedRules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            AlertRule rule = i % 2 == 0
+                    ? new AlertRule("acct-" + i, "MA_CROSS", "INFY", i % 4 == 0 ? ">" : "<",
+                            null, WINDOWS[i % WINDOWS.length], 60)
+                    : new AlertRule("acct-" + i, "PCT_CHANGE_WINDOW", "INFY", i % 4 == 1 ? ">=" : "<=",
+                            (random.nextDouble() - 0.5) * 4, WINDOWS[i % WINDOWS.length], 60);
+            rule.setId("windowed-" + i);
+            windowedRules.add(rule);
+        }
+        AlertRuleIndex windowedIndex = new AlertRuleIndex(null, PriceScales.defaults());
+        windowedIndex.load(windowedRules);
+        windowedRuleState = new SymbolRuleState(windowedIndex.rulesFor("INFY"), null);
+
+        StockTick[] all = TickFixtures.randomWalk(1 << 14, 3);
+        ticks = new StockTick[all.length / TickFixtures.SYMBOLS.length];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = all[i * TickFixtures.SYMBOLS.length]; // INFY only
+        }
+    }
+
+    @Benchmark
+    public void evaluateRules(Blackhole blackhole) {
+        StockTick tick = ticks[index++ % ticks.length];
+        long priceTicks = FixedPoint.toTicks(tick.getLastPrice(), PriceScales.DEFAULT_SCALE);
+        for (int i = 0; i < rules.size(); i++) {
+            blackhole.consume(matches(rules.get(i), priceTicks, PriceScales.DEFAULT_SCALE));
+        }
+    }
+
+    // One rule per call, converting its threshold every time, with the index's equality width
+    private static boolean matches(AlertRule rule, long priceTicks, int scale) {
+        long threshold = FixedPoint.toTicks(rule.getThreshold(), scale);
+        return switch (rule.getOperator()) {
+            case ">=" -> priceTicks >= threshold;
+            case "<=" -> priceTicks <= threshold;
+            case ">" -> priceTicks > threshold;
+            case "<" -> priceTicks < threshold;
+            case "==" -> Math.abs(priceTicks - threshold) <= SymbolRuleSet.equalityWidth(scale);
+            default -> false;
+        };
+    }
+
+    @Benchmark
+    public void indexedThresholdMatch(Blackhole blackhole) {
+        StockTick tick = ticks[index++ % ticks.length];
+        long priceTicks = FixedPoint.toTicks(tick.getLastPrice(), ruleSet.getScale());
+        ruleSet.forEachMatchingThreshold(priceTicks, blackhole::consume);
+    }
+
+    @Benchmark
+    public void crossingThresholdMatch(Blackhole blackhole) {
+        int i = index++;
+        StockTick tick = ticks[i % ticks.length];
+        long priceTicks = FixedPoint.toTicks(tick.getLastPrice(), ruleSet.getScale());
+        // Dedup intervals are measured on a synthetic one-second clock
+        ruleState.onPrice(priceTicks, i * 1000L, blackhole::consume);
+    }
+
+    @Benchmark
+    public void windowedRules(Blackhole blackhole) {
+        int i = index++;
+        StockTick tick = ticks[i % ticks.length];
+        long priceTicks = FixedPoint.toTicks(tick.getLastPrice(), PriceScales.DEFAULT_SCALE);
+        windowedRuleState.onPrice(priceTicks, i * 1000L, blackhole::consume);
+    }
+}
@@ -0,0 +1,57 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.shared.model.AnalyticsMetric;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Reference SMA20/EMA12/VWAP-5m implementation on BigDecimal, i.e. what the indicator engine
+ * would cost without the fixed-point representation. Only used as a benchmark baseline.
+ */
+class BigDecimalIndicators {
+
+    private static final int SMA_PERIOD = 20;
+    private static final long VWAP_WINDOW_MS = 5 * 60 * 1000L;
+    private static final BigDecimal EMA_ALPHA = BigDecimal.valueOf(2.0 / 13);
+
+    private final BigDecimal[] smaWindow = new BigDecimal[SMA_PERIOD];
+    private int smaHead;
+    private int smaCount;
+    private BigDecimal smaSum = BigDecimal.ZERO;
+    private BigDecimal ema;
+    private long vwapBucket = Long.MIN_VALUE;
+    private BigDecimal vwapPriceVolume = BigDecimal.ZERO;
+    private long vwapVolume;
+
+    AnalyticsMetric update(String symbol, BigDecimal price, long volume, long timestampMillis) {
+        if (smaCount == SMA_PERIOD) {
+            smaSum = smaSum.subtract(smaWindow[smaHead]);
+        } else {
+            smaCount++;
+        }
+        smaWindow[smaHead] = price;
+        smaSum = smaSum.add(price);
+        smaHead = (smaHead + 1) % SMA_PERIOD;
+
+        ema = ema == null ? price : ema.add(EMA_ALPHA.multiply(price.subtract(ema), MathContext.DECIMAL64));
+
+        long bucket = Math.floorDiv(timestampMillis, VWAP_WINDOW_MS);
+        if (bucket != vwapBucket) {
+            vwapBucket = bucket;
+            vwapPriceVolume = BigDecimal.ZERO;
+            vwapVolume = 0;
+        }
+        vwapPriceVolume = vwapPriceVolume.add(price.multiply(BigDecimal.valueOf(volume)));
+        vwapVolume += volume;
+
+        return new AnalyticsMetric(
+                Instant.ofEpochMilli(timestampMillis),
+                symbol,
+                smaSum.divide(BigDecimal.valueOf(smaCount), 4, RoundingMode.HALF_UP),
+                ema.setScale(4, RoundingMode.HALF_UP),
+                vwapVolume == 0 ? price : vwapPriceVolume.divide(BigDecimal.valueOf(vwapVolume), 4, RoundingMode.HALF_UP));
+    }
+}
@@ -0,0 +1,95 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.PortfolioUpdate;
+import com.stockanalytics.portfolio.model.Position;
+import com.stockanalytics.portfolio.repository.AccountRepository;
+import com.stockanalytics.portfolio.repository.PositionRepository;
+import com.stockanalytics.portfolio.service.PortfolioService;
+import com.stockanalytics.portfolio.valuation.ValuationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The portfolio valuation engine with in-memory repositories: {@code calculatePortfolioUpdate}
+ * (the valuation of one account with {@code positionCount} positions) and {@code markTick} (one
+ * price change marked into the {@code holderCount} accounts holding the symbol).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PortfolioValuationBenchmark {
+
+    private static final String ACCOUNT_ID = "acct-1";
+
+    @Param({"10", "100"})
+    public int positionCount;
+
+    @Param({"1000"})
+    public int holderCount;
+
+    private PortfolioService portfolioService;
+    private ValuationEngine valuationEngine;
+    private BigDecimal[] prices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Account account = new Account(ACCOUNT_ID, BigDecimal.valueOf(100000), "INR");
+        List<Position> positions = new ArrayList<>(positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            positions.add(new Position(ACCOUNT_ID, "SYM" + i, 10 + i, BigDecimal.valueOf(1000 + i * 3.25)));
+        }
+
+        AccountRepository accountRepository = stub(AccountRepository.class, "findByUserId", Optional.of(account));
+        PositionRepository positionRepository = stub(PositionRepository.class, "findByAccountId", positions);
+        valuationEngine = new ValuationEngine(accountRepository, positionRepository, null, null, new SimpleMeterRegistry());
+        portfolioService = new PortfolioService(null, null, valuationEngine,
+                stub(ObjectProvider.class, "getIfAvailable", null));
+        // Held as if booked by this instance; snapshots of accounts it does not own are read from Mongo
+        for (Position position : positions) {
+            valuationEngine.apply(account, position);
+        }
+
+        for (int i = 0; i < holderCount; i++) {
+            Account holder = new Account("holder-" + i, BigDecimal.valueOf(100000), "INR");
+            valuationEngine.apply(holder, new Position(holder.getUserId(), "SYM0", 5 + i % 50, BigDecimal.valueOf(1000)));
+        }
+
+        prices = new BigDecimal[1024];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = BigDecimal.valueOf(100000 + i * 5L, 2);
+        }
+    }
+
+    @Benchmark
+    public PortfolioUpdate calculatePortfolioUpdate() {
+        return portfolioService.calculatePortfolioUpdate(ACCOUNT_ID);
+    }
+
+    @Benchmark
+    public void markTick() {
+        valuationEngine.mark("SYM0", prices[next++ & (prices.length - 1)]);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, String method, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            if (m.getName().equals(method)) {
+                return result;
+            }
+            throw new UnsupportedOperationException(m.getName());
+        });
+    }
+}
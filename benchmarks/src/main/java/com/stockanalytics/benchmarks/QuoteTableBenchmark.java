@@ -0,0 +1,63 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latest-quote lookups as served by market-data's /ticks/latest and the gateway's /quotes, with
+ * pollers reading while a feed thread keeps updating. Sample mode, so the report carries p99.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class QuoteTableBenchmark {
+
+    @Param({"5", "5000"})
+    public int symbolCount;
+
+    private LatestQuoteTable table;
+    private String[] symbols;
+    private StockTick[] ticks;
+
+    @Setup
+    public void setup() {
+        table = new LatestQuoteTable();
+        symbols = new String[symbolCount];
+        ticks = TickFixtures.randomWalk(4096, 42);
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = i < TickFixtures.SYMBOLS.length ? TickFixtures.SYMBOLS[i] : String.format("SYM%05d", i);
+            StockTick tick = ticks[i & (ticks.length - 1)];
+            table.update(new StockTick(Instant.EPOCH, symbols[i], tick.getLastPrice(), tick.getOpenPrice(),
+                    tick.getHighPrice(), tick.getLowPrice(), tick.getVolume(), tick.getBidPrice(),
+                    tick.getAskPrice(), tick.getSource()));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Benchmark
+    @Group("polling")
+    @GroupThreads(3)
+    public StockTick get(Cursor cursor) {
+        cursor.index = cursor.index + 1 == symbolCount ? 0 : cursor.index + 1;
+        return table.get(symbols[cursor.index]);
+    }
+
+    @Benchmark
+    @Group("polling")
+    @GroupThreads(1)
+    public void update(Cursor cursor) {
+        cursor.index = (cursor.index + 1) & (ticks.length - 1);
+        table.update(ticks[cursor.index]);
+    }
+}
@@ -0,0 +1,77 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.serde.StockTickDeserializer;
+import com.stockanalytics.shared.serde.StockTickSerdeConfig;
+import com.stockanalytics.shared.serde.StockTickSerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stocks.ticks (de)serialization: Spring's JsonSerializer/JsonDeserializer against the binary
+ * StockTick codec and its JSON mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StockTickSerdeBenchmark {
+
+    private static final String TOPIC = "stocks.ticks";
+
+    @Param({"spring-json", "binary", "json"})
+    public String format;
+
+    private Serializer<StockTick> serializer;
+    private Deserializer<StockTick> deserializer;
+    private StockTick[] ticks;
+    private byte[][] encoded;
+    private int index;
+
+    @Setup
+    public void setup() {
+        if ("spring-json".equals(format)) {
+            JsonSerializer<StockTick> jsonSerializer = new JsonSerializer<>();
+            jsonSerializer.setAddTypeInfo(false);
+            serializer = jsonSerializer;
+            deserializer = new JsonDeserializer<>(StockTick.class, false);
+        } else {
+            Map<String, String> configs = Map.of(
+                    StockTickSerdeConfig.FORMAT, format,
+                    StockTickSerdeConfig.SYMBOLS, String.join(",", TickFixtures.SYMBOLS));
+            serializer = new StockTickSerializer();
+            serializer.configure(configs, false);
+            deserializer = new StockTickDeserializer();
+            deserializer.configure(configs, false);
+        }
+
+        ticks = TickFixtures.randomWalk(4096, 42);
+        encoded = new byte[ticks.length][];
+        for (int i = 0; i < ticks.length; i++) {
+            encoded[i] = serializer.serialize(TOPIC, ticks[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, ticks[next()]);
+    }
+
+    @Benchmark
+    public StockTick deserialize() {
+        return deserializer.deserialize(TOPIC, encoded[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) & (ticks.length - 1);
+        return index;
+    }
+}
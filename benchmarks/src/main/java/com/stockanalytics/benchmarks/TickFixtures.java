@@ -0,0 +1,44 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Deterministic random-walk ticks shared by the benchmarks.
+ */
+public final class TickFixtures {
+
+    public static final String[] SYMBOLS = {"INFY", "TCS", "RELIANCE", "HDFC", "ICICIBANK"};
+
+    private TickFixtures() {}
+
+    public static StockTick[] randomWalk(int count, long seed) {
+        Random random = new Random(seed);
+        double[] prices = {1800, 4000, 2500, 1600, 950};
+        long timestamp = Instant.parse("2024-01-02T03:45:00Z").toEpochMilli();
+        StockTick[] ticks = new StockTick[count];
+        for (int i = 0; i < count; i++) {
+            int s = i % SYMBOLS.length;
+            prices[s] = Math.max(1, prices[s] * (1 + random.nextGaussian() * 0.001));
+            BigDecimal last = BigDecimal.valueOf(prices[s]).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal spread = BigDecimal.valueOf(0.05);
+            timestamp += random.nextInt(5);
+            ticks[i] = new StockTick(
+                    Instant.ofEpochMilli(timestamp),
+                    SYMBOLS[s],
+                    last,
+                    last,
+                    last.add(spread),
+                    last.subtract(spread),
+                    (long) random.nextInt(100000) + 50000,
+                    last.subtract(spread),
+                    last.add(spread),
+                    "MOCK");
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,114 @@
+package com.stockanalytics.benchmarks;
+
+import com.stockanalytics.marketdata.journal.JournalRecord;
+import com.stockanalytics.marketdata.journal.TickJournal;
+import com.stockanalytics.marketdata.journal.TickJournalReader;
+import com.stockanalytics.shared.model.StockTick;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sustained append and sequential replay rate of the memory-mapped tick journal. Scores are
+ * records per second; multiply by {@link JournalRecord#SIZE} (128 bytes) for bytes per second,
+ * e.g. 10M records/s is 1.28 GB/s.
+ *
+ * <p>Appends write into fresh 256 MB segments under the temp directory, deleted after every
+ * iteration; expect a few GB of short-lived disk use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class TickJournalBenchmark {
+
+    private static final long SEGMENT_BYTES = 256L * 1024 * 1024;
+    private static final int INDEX_INTERVAL = 4096;
+    private static final int APPEND_BATCH = 1024;
+    private static final int REPLAY_RECORDS = 1 << 20;
+
+    @State(Scope.Thread)
+    public static class AppendState {
+
+        Path dir;
+        TickJournal journal;
+        StockTick[] ticks;
+
+        @Setup(Level.Trial)
+        public void fixtures() {
+            ticks = TickFixtures.randomWalk(APPEND_BATCH, 42);
+        }
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory("tick-journal-append");
+            journal = new TickJournal(dir, SEGMENT_BYTES, INDEX_INTERVAL, 0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void delete() throws IOException {
+            journal.close();
+            deleteRecursively(dir);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+
+        Path dir;
+        TickJournalReader reader;
+
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            dir = Files.createTempDirectory("tick-journal-replay");
+            StockTick[] ticks = TickFixtures.randomWalk(REPLAY_RECORDS, 42);
+            try (TickJournal journal = new TickJournal(dir, SEGMENT_BYTES, INDEX_INTERVAL, 0)) {
+                for (StockTick tick : ticks) {
+                    journal.append(tick);
+                }
+            }
+            reader = new TickJournalReader(dir, INDEX_INTERVAL);
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(APPEND_BATCH)
+    public boolean append(AppendState state) {
+        boolean ok = true;
+        for (StockTick tick : state.ticks) {
+            ok &= state.journal.append(tick);
+        }
+        return ok;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPLAY_RECORDS)
+    public long replay(ReplayState state) {
+        long checksum = 0;
+        TickJournalReader.Cursor cursor = state.reader.cursor(null, null, null);
+        while (cursor.next()) {
+            JournalRecord record = cursor.record();
+            checksum += record.timestampMillis() + record.priceTicks(JournalRecord.LAST);
+        }
+        return checksum;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.stockanalytics.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockanalytics.alerts.index.AlertRuleIndex;
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.alerts.service.AlertService;
+import com.stockanalytics.gateway.service.StreamingService;
+import com.stockanalytics.gateway.websocket.TickConflator;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.PriceScales;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import com.stockanalytics.shared.serde.StockTickDeserializer;
+import com.stockanalytics.shared.serde.StockTickSerdeConfig;
+import com.stockanalytics.shared.serde.StockTickSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consuming stocks.ticks from an embedded broker with the record listeners against the batch
+ * listeners (kafka.listener.batch) of AlertService and StreamingService. One op drains the whole
+ * topic with a fresh consumer group; the group join is included but small next to the drain.
+ * Alert rules sit far from the prices, so the alert runs measure evaluation without firing.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickListenerBenchmark {
+
+    private static final String TOPIC = "stocks.ticks";
+    private static final int TICK_COUNT = 200_000;
+    private static final int RULES_PER_SYMBOL = 100;
+
+    @Param({"alerts", "gateway"})
+    public String service;
+
+    @Param({"record", "batch"})
+    public String mode;
+
+    private EmbeddedKafkaBroker broker;
+    private DefaultKafkaConsumerFactory<String, StockTick> consumerFactory;
+    private AlertService alertService;
+    private StreamingService streamingService;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1, TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, String> serdeConfigs = Map.of(StockTickSerdeConfig.SYMBOLS, String.join(",", TickFixtures.SYMBOLS));
+        StockTickSerializer serializer = new StockTickSerializer();
+        serializer.configure(serdeConfigs, false);
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        try (KafkaProducer<String, StockTick> producer =
+                     new KafkaProducer<>(producerProps, new StringSerializer(), serializer)) {
+            for (StockTick tick : TickFixtures.randomWalk(TICK_COUNT, 5)) {
+                producer.send(new ProducerRecord<>(TOPIC, tick.getSymbol(), tick));
+            }
+            producer.flush();
+        }
+
+        StockTickDeserializer deserializer = new StockTickDeserializer();
+        deserializer.configure(serdeConfigs, false);
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), deserializer);
+
+        // Thresholds far below the prices: evaluated on every tick, never crossed
+        List<AlertRule> rules = new ArrayList<>();
+        for (String symbol : TickFixtures.SYMBOLS) {
+            for (int i = 0; i < RULES_PER_SYMBOL; i++) {
+                AlertRule rule = new AlertRule("acct-" + i, "PRICE_THRESHOLD", symbol,
+                        i % 2 == 0 ? "<=" : "<", 0.5 + i * 0.001, null, 60);
+                rule.setId(symbol + "-" + i);
+                rules.add(rule);
+            }
+        }
+        AlertRuleIndex index = new AlertRuleIndex(null, PriceScales.defaults());
+        index.load(rules);
+        alertService = new AlertService(null, null, PriceScales.defaults(), index);
+
+        // Messages are converted to JSON as the STOMP broker would, then discarded
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper().findAndRegisterModules());
+        template.setMessageConverter(converter);
+        // Outside Spring the conflator is disabled, so every tick the listener hands over is broadcast
+        streamingService = new StreamingService(template, new TickConflator(template, new SimpleMeterRegistry()),
+                new LatestQuoteTable());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        broker.destroy();
+    }
+
+    @Benchmark
+    public void drainTopic() throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(TICK_COUNT);
+        CountDownLatch done = new CountDownLatch(1);
+
+        ContainerProperties properties = new ContainerProperties(TOPIC);
+        properties.setGroupId("tick-listener-bench-" + run++);
+        if ("batch".equals(mode)) {
+            properties.setMessageListener((BatchMessageListener<String, StockTick>) records -> {
+                List<StockTick> ticks = new ArrayList<>(records.size());
+                for (ConsumerRecord<String, StockTick> record : records) {
+                    ticks.add(record.value());
+                }
+                if ("alerts".equals(service)) {
+                    alertService.processTicks(ticks);
+                } else {
+                    streamingService.handleStockTicks(ticks);
+                }
+                if (remaining.addAndGet(-records.size()) <= 0) {
+                    done.countDown();
+                }
+            });
+        } else {
+            properties.setMessageListener((MessageListener<String, StockTick>) record -> {
+                if ("alerts".equals(service)) {
+                    alertService.processTick(record.value());
+                } else {
+                    streamingService.handleStockTick(record.value());
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            });
+        }
+
+        KafkaMessageListenerContainer<String, StockTick> container =
+                new KafkaMessageListenerContainer<>(consumerFactory, properties);
+        container.start();
+        try {
+            if (!done.await(2, TimeUnit.MINUTES)) {
+                throw new IllegalStateException(remaining.get() + " ticks not consumed");
+            }
+        } finally {
+            container.stop();
+        }
+    }
+}
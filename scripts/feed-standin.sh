@@ -0,0 +1,34 @@
+#!/bin/bash
+
+# Local stand-in for an exchange feed: streams random-walk ticks in the feed CSV layout
+# (ts,symbol,last,open,high,low,volume,bid,ask) to market-data's socket feed handler.
+#
+# Usage: ./scripts/feed-standin.sh [host] [port] [ticks-per-second]
+# Start the handler first: curl -X POST http://localhost:8081/api/v1/feeds/socket/start
+
+HOST=${1:-127.0.0.1}
+PORT=${2:-30002}
+RATE=${3:-1000}
+
+echo "Streaming ~${RATE} ticks/s to ${HOST}:${PORT} (Ctrl-C to stop)..."
+
+awk -v rate="$RATE" 'BEGIN {
+    srand();
+    n = split("INFY,TCS,RELIANCE,HDFC,ICICIBANK", symbols, ",");
+    split("1800,4000,2500,1600,950", base, ",");
+    for (i = 1; i <= n; i++) { last[i] = base[i]; open[i] = high[i] = low[i] = base[i]; }
+    while (1) {
+        "date +%s%3N" | getline ts; close("date +%s%3N");
+        for (k = 0; k < rate / 10; k++) {
+            i = int(rand() * n) + 1;
+            last[i] = last[i] * (1 + (rand() - 0.5) / 500);
+            if (last[i] > high[i]) high[i] = last[i];
+            if (last[i] < low[i]) low[i] = last[i];
+            spread = last[i] / 1000;
+            printf "%s,%s,%.2f,%.2f,%.2f,%.2f,%d,%.2f,%.2f\n", ts, symbols[i], last[i], open[i], high[i], low[i],
+                50000 + int(rand() * 100000), last[i] - spread, last[i] + spread;
+        }
+        fflush();
+        system("sleep 0.1");
+    }
+}' | nc "$HOST" "$PORT"
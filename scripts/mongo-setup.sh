@@ -13,6 +13,7 @@ db.users.createIndex({ "email": 1 }, { unique: true });
 // Accounts collection
 db.createCollection("accounts");
 db.accounts.createIndex({ "userId": 1 });
+db.accounts.createIndex({ "lastPartition": 1 });
 
 // Positions collection
 db.createCollection("positions");
@@ -31,6 +32,7 @@ db.createCollection("ticks_hist", {
   }
 });
 db.ticks_hist.createIndex({ "symbol": 1, "ts": -1 });
+db.ticks_hist.createIndex({ "ts": 1 });
 
 // Analytics snapshots collection
 db.createCollection("analytics_snap");
@@ -47,7 +49,7 @@ db.alerts_history.createIndex({ "alertId": 1, "firedTs": -1 });
 print("MongoDB setup completed successfully!");
 print("Collections and indexes created:");
 print("- users (email unique index)");
-print("- accounts (userId index)");
+print("- accounts (userId and lastPartition indexes)");
 print("- positions (accountId + symbol compound index)");
 print("- orders_executed (accountId + execTs compound index)");
 print("- ticks_hist (time series with symbol + ts index)");
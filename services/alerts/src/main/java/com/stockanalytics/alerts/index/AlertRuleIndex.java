@@ -0,0 +1,102 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.alerts.repository.AlertRuleRepository;
+import com.stockanalytics.shared.price.PriceScales;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of enabled alert rules by symbol, so evaluating a tick needs no I/O. Readers
+ * get immutable per-symbol snapshots; writers (rule create/toggle/delete) rebuild the snapshot of
+ * the affected symbol.
+ */
+@Component
+public class AlertRuleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleIndex.class);
+
+    private final AlertRuleRepository alertRuleRepository;
+    private final PriceScales priceScales;
+
+    private final Map<String, SymbolRuleSet> bySymbol = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Map<String, AlertRule> byId = new HashMap<>();
+    private final Map<String, Map<String, AlertRule>> rulesBySymbol = new HashMap<>();
+
+    @Autowired
+    public AlertRuleIndex(AlertRuleRepository alertRuleRepository, PriceScales priceScales) {
+        this.alertRuleRepository = alertRuleRepository;
+        this.priceScales = priceScales;
+    }
+
+    @PostConstruct
+    public void loadRules() {
+        List<AlertRule> rules = alertRuleRepository.findByEnabledTrue();
+        load(rules);
+        logger.info("Loaded {} enabled alert rules into the rule index", rules.size());
+    }
+
+    public synchronized void load(Collection<AlertRule> rules) {
+        byId.clear();
+        rulesBySymbol.clear();
+        for (AlertRule rule : rules) {
+            if (isIndexable(rule)) {
+                byId.put(rule.getId(), rule);
+                rulesBySymbol.computeIfAbsent(rule.getSymbol(), s -> new HashMap<>()).put(rule.getId(), rule);
+            }
+        }
+        bySymbol.keySet().retainAll(rulesBySymbol.keySet());
+        rulesBySymbol.keySet().forEach(this::rebuild);
+    }
+
+    public SymbolRuleSet rulesFor(String symbol) {
+        return bySymbol.get(symbol);
+    }
+
+    /** Adds, replaces or (when disabled) removes a rule. */
+    public synchronized void upsert(AlertRule rule) {
+        remove(rule.getId());
+        if (isIndexable(rule)) {
+            byId.put(rule.getId(), rule);
+            rulesBySymbol.computeIfAbsent(rule.getSymbol(), s -> new HashMap<>()).put(rule.getId(), rule);
+            rebuild(rule.getSymbol());
+        }
+    }
+
+    public synchronized void remove(String ruleId) {
+        AlertRule previous = byId.remove(ruleId);
+        if (previous != null) {
+            Map<String, AlertRule> symbolRules = rulesBySymbol.get(previous.getSymbol());
+            symbolRules.remove(ruleId);
+            if (symbolRules.isEmpty()) {
+                rulesBySymbol.remove(previous.getSymbol());
+            }
+            rebuild(previous.getSymbol());
+        }
+    }
+
+    // Only the affected symbol's snapshot is rebuilt
+    private void rebuild(String symbol) {
+        Map<String, AlertRule> symbolRules = rulesBySymbol.get(symbol);
+        if (symbolRules == null) {
+            bySymbol.remove(symbol);
+        } else {
+            bySymbol.put(symbol, new SymbolRuleSet(new ArrayList<>(symbolRules.values()), priceScales.scaleOf(symbol)));
+        }
+    }
+
+    private static boolean isIndexable(AlertRule rule) {
+        return rule.getId() != null && rule.getSymbol() != null && Boolean.TRUE.equals(rule.getEnabled());
+    }
+}
@@ -0,0 +1,141 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+
+import java.util.function.Consumer;
+
+/**
+ * Edge-triggered evaluation of a {@link ThresholdBook}. A rule fires when the value crosses into
+ * its condition and is then disarmed until the value moves back past its re-arm level. Only the
+ * levels between the previous and the current value are visited, so a value sitting beyond a
+ * level costs nothing.
+ *
+ * <p>State is kept per slot in primitive arrays. Not thread-safe.
+ */
+class CrossingState {
+
+    private static final int[] NONE = new int[0];
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final ThresholdBook book;
+    private final boolean[] armed;
+    private final long[] lastFiredMillis;
+
+    // Slots that have not seen a value yet and are checked against the level once
+    private int[] pending;
+    private long lastValue;
+    private boolean hasValue;
+
+    /**
+     * Creates the state for {@code book}, carrying over the armed flags and fire times of rules
+     * that are unchanged since {@code previous} (which may be null).
+     */
+    CrossingState(ThresholdBook book, CrossingState previous) {
+        int count = book.slotCount();
+        this.book = book;
+        this.armed = new boolean[count];
+        this.lastFiredMillis = new long[count];
+
+        boolean[] carried = new boolean[count];
+        int carriedCount = 0;
+        if (previous != null) {
+            for (int previousSlot = 0; previousSlot < previous.armed.length; previousSlot++) {
+                int slot = book.matchingSlot(previous.book, previousSlot);
+                if (slot >= 0) {
+                    armed[slot] = previous.armed[previousSlot];
+                    lastFiredMillis[slot] = previous.lastFiredMillis[previousSlot];
+                    carried[slot] = true;
+                    carriedCount++;
+                }
+            }
+            this.lastValue = previous.lastValue;
+            this.hasValue = previous.hasValue;
+        }
+
+        this.pending = carriedCount == count ? NONE : new int[count - carriedCount];
+        for (int slot = 0, next = 0; slot < count; slot++) {
+            if (!carried[slot]) {
+                armed[slot] = true;
+                lastFiredMillis[slot] = NEVER;
+                pending[next++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Moves the series to {@code value} and calls {@code fire} for every rule it triggers.
+     * {@code timeMillis} is the tick time and drives the per-rule dedup interval.
+     */
+    void onValue(long value, long timeMillis, Consumer<AlertRule> fire) {
+        if (hasValue && value != lastValue) {
+            cross(lastValue, value, timeMillis, fire);
+        }
+        if (pending.length > 0) {
+            for (int slot : pending) {
+                if (!book.isSatisfied(slot, value)) {
+                    continue;
+                }
+                if (book.firesOnLevel) {
+                    if (armed[slot]) {
+                        trigger(slot, timeMillis, fire);
+                    }
+                } else {
+                    // Already beyond the level: wait for the value to come back and cross again
+                    armed[slot] = false;
+                }
+            }
+            pending = NONE;
+        }
+        lastValue = value;
+        hasValue = true;
+    }
+
+    private void cross(long from, long to, long timeMillis, Consumer<AlertRule> fire) {
+        long width = book.equalityWidth;
+        if (to > from) {
+            // Levels in (from, to] are crossed upwards
+            fire(book.above, book.above.upperBound(from), book.above.upperBound(to), timeMillis, fire);
+            // Re-arm levels in [from, to) are left behind by below rules
+            rearm(book.belowRearm, book.belowRearm.lowerBound(from), book.belowRearm.lowerBound(to));
+            // Equality bands newly containing the value: [max(from + w + 1, to - w), to + w]
+            fire(book.equal, book.equal.lowerBound(Math.max(from + width + 1, to - width)),
+                    book.equal.upperBound(to + width), timeMillis, fire);
+            rearm(book.equalRearmHigh, book.equalRearmHigh.lowerBound(from), book.equalRearmHigh.lowerBound(to));
+        } else {
+            // Levels in [to, from) are crossed downwards
+            fire(book.below, book.below.lowerBound(to), book.below.lowerBound(from), timeMillis, fire);
+            // Re-arm levels in (to, from] are left behind by above rules
+            rearm(book.aboveRearm, book.aboveRearm.upperBound(to), book.aboveRearm.upperBound(from));
+            // Equality bands newly containing the value: [to - w, min(to + w, from - w - 1)]
+            fire(book.equal, book.equal.lowerBound(to - width),
+                    book.equal.upperBound(Math.min(to + width, from - width - 1)), timeMillis, fire);
+            rearm(book.equalRearmLow, book.equalRearmLow.upperBound(to), book.equalRearmLow.upperBound(from));
+        }
+    }
+
+    private void fire(ThresholdLadder ladder, int start, int end, long timeMillis, Consumer<AlertRule> fire) {
+        for (int i = start; i < end; i++) {
+            int slot = ladder.slot(i);
+            if (armed[slot]) {
+                trigger(slot, timeMillis, fire);
+            }
+        }
+    }
+
+    private void rearm(ThresholdLadder ladder, int start, int end) {
+        for (int i = start; i < end; i++) {
+            armed[ladder.slot(i)] = true;
+        }
+    }
+
+    private void trigger(int slot, long timeMillis, Consumer<AlertRule> fire) {
+        // The crossing is consumed even when the dedup interval suppresses the alert
+        armed[slot] = false;
+        long last = lastFiredMillis[slot];
+        if (last != NEVER && timeMillis - last < book.dedupMillis(slot)) {
+            return;
+        }
+        lastFiredMillis[slot] = timeMillis;
+        fire.accept(book.rule(slot));
+    }
+}
@@ -0,0 +1,65 @@
+package com.stockanalytics.alerts.index;
+
+/**
+ * Ring buffer of the latest prices of one symbol, shared by every windowed rule on the symbol.
+ * It holds as many prices as the longest window needs and keeps one running sum per distinct
+ * window, so memory and per-tick cost depend on the distinct windows only.
+ */
+class PriceHistory {
+
+    private final int[] windows;
+    private final long[] sums;
+    private final long[] prices;
+    private int head = -1;
+    private long count;
+
+    PriceHistory(int[] windows, int capacity) {
+        this.windows = windows;
+        this.sums = new long[windows.length];
+        this.prices = new long[capacity];
+    }
+
+    /**
+     * A history for {@code windows} seeded with the prices already seen by {@code previous}.
+     */
+    static PriceHistory of(int[] windows, int capacity, PriceHistory previous) {
+        PriceHistory history = new PriceHistory(windows, capacity);
+        if (previous != null && capacity > 0) {
+            int available = (int) Math.min(previous.count, Math.min(previous.prices.length, capacity));
+            for (int ago = available - 1; ago >= 0; ago--) {
+                history.add(previous.ago(ago));
+            }
+        }
+        return history;
+    }
+
+    void add(long price) {
+        if (prices.length == 0) {
+            return;
+        }
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            // The price leaving the window is the one window - 1 ticks back before this one is added
+            sums[i] += count >= window ? price - ago(window - 1) : price;
+        }
+        head = head + 1 == prices.length ? 0 : head + 1;
+        prices[head] = price;
+        count++;
+    }
+
+    /** Whether at least {@code ticks} prices have been seen. */
+    boolean has(long ticks) {
+        return count >= ticks;
+    }
+
+    /** The price {@code ticks} back from the latest one, which is 0 back. */
+    long ago(int ticks) {
+        int index = head - ticks;
+        return prices[index < 0 ? index + prices.length : index];
+    }
+
+    /** Sum of the latest {@code windows[windowIndex]} prices. */
+    long sum(int windowIndex) {
+        return sums[windowIndex];
+    }
+}
@@ -0,0 +1,187 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.shared.price.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of the enabled rules of one symbol, grouped by the series they watch:
+ * <ul>
+ *   <li>PRICE_THRESHOLD: the price, in ticks;</li>
+ *   <li>MA_CROSS: the distance of the price from its simple moving average over {@code window}
+ *       ticks, scaled by the window; the optional threshold is an offset from the average;</li>
+ *   <li>PCT_CHANGE_WINDOW: the change from the price {@code window} ticks back, in basis points.</li>
+ * </ul>
+ * Windowed rules are grouped by window, so rules sharing a window are evaluated as one batch.
+ */
+public class SymbolRuleSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolRuleSet.class);
+
+    static final double EQUALITY_TOLERANCE = 0.01;
+    static final int MAX_WINDOW = 10_000;
+
+    /** Windowed rules sharing one window; {@code windowIndex} points into {@link #windows()}. */
+    record WindowGroup(int window, int windowIndex, ThresholdBook book) {}
+
+    private final int scale;
+    private final ThresholdBook priceBook;
+    private final int[] windows;
+    private final int historyCapacity;
+    private final WindowGroup[] maGroups;
+    private final WindowGroup[] pctGroups;
+    private final int size;
+
+    SymbolRuleSet(List<AlertRule> rules, int scale) {
+        this.scale = scale;
+        long equalityWidth = equalityWidth(scale);
+
+        List<ThresholdBook.Spec> priceSpecs = new ArrayList<>();
+        Map<Integer, List<ThresholdBook.Spec>> maSpecs = new TreeMap<>();
+        Map<Integer, List<ThresholdBook.Spec>> pctSpecs = new TreeMap<>();
+        int count = 0;
+
+        for (AlertRule rule : rules) {
+            ThresholdBook.Spec spec = null;
+            String ruleType = rule.getRuleType() != null ? rule.getRuleType() : "";
+            Integer window = rule.getWindow();
+            switch (ruleType) {
+                case "PRICE_THRESHOLD" -> {
+                    if (rule.getThreshold() != null) {
+                        spec = ThresholdBook.Spec.of(rule, exactTicks(rule.getThreshold()),
+                                ticksOf(rule.getHysteresis()), true);
+                    }
+                    if (spec != null) {
+                        priceSpecs.add(spec);
+                    }
+                }
+                case "MA_CROSS" -> {
+                    if (isValidWindow(window)) {
+                        // price - (sma + offset), multiplied by the window to stay integral
+                        BigDecimal offset = rule.getThreshold() != null ? exactTicks(rule.getThreshold()) : BigDecimal.ZERO;
+                        spec = ThresholdBook.Spec.of(rule, offset.multiply(BigDecimal.valueOf(window)),
+                                ticksOf(rule.getHysteresis()) * window, false);
+                    }
+                    if (spec != null) {
+                        maSpecs.computeIfAbsent(window, w -> new ArrayList<>()).add(spec);
+                    }
+                }
+                case "PCT_CHANGE_WINDOW" -> {
+                    if (isValidWindow(window) && rule.getThreshold() != null) {
+                        spec = ThresholdBook.Spec.of(rule, BigDecimal.valueOf(rule.getThreshold()).movePointRight(2),
+                                basisPoints(rule.getHysteresis()), false);
+                    }
+                    if (spec != null) {
+                        pctSpecs.computeIfAbsent(window, w -> new ArrayList<>()).add(spec);
+                    }
+                }
+                default -> { }
+            }
+            if (spec == null) {
+                logger.warn("Ignoring alert rule that cannot be evaluated: {}", rule);
+            } else {
+                count++;
+            }
+        }
+
+        this.priceBook = priceSpecs.isEmpty() ? ThresholdBook.EMPTY : new ThresholdBook(priceSpecs, equalityWidth, true);
+        this.windows = distinctWindows(maSpecs, pctSpecs);
+        // A cross needs the price on both sides of the average; a percent change is a level
+        this.maGroups = groups(maSpecs, windows, false);
+        this.pctGroups = groups(pctSpecs, windows, true);
+        // A percent change over w ticks needs w + 1 prices
+        int capacity = 0;
+        for (WindowGroup group : maGroups) {
+            capacity = Math.max(capacity, group.window());
+        }
+        for (WindowGroup group : pctGroups) {
+            capacity = Math.max(capacity, group.window() + 1);
+        }
+        this.historyCapacity = capacity;
+        this.size = count;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /** Largest distance in ticks at which an "==" rule still counts the price as equal. */
+    public static long equalityWidth(int scale) {
+        return Math.max(1, FixedPoint.toTicks(EQUALITY_TOLERANCE, scale)) - 1;
+    }
+
+    /**
+     * Calls {@code action} for every PRICE_THRESHOLD rule satisfied at {@code priceTicks},
+     * regardless of where the price came from.
+     */
+    public void forEachMatchingThreshold(long priceTicks, Consumer<AlertRule> action) {
+        priceBook.forEachSatisfied(priceTicks, action);
+    }
+
+    /** Number of rules that are evaluated; rules with an unknown type or missing fields are not. */
+    public int size() {
+        return size;
+    }
+
+    ThresholdBook priceBook() {
+        return priceBook;
+    }
+
+    /** Distinct windows of all windowed rules, ascending. */
+    int[] windows() {
+        return windows;
+    }
+
+    int historyCapacity() {
+        return historyCapacity;
+    }
+
+    WindowGroup[] maGroups() {
+        return maGroups;
+    }
+
+    WindowGroup[] pctGroups() {
+        return pctGroups;
+    }
+
+    private static boolean isValidWindow(Integer window) {
+        return window != null && window > 0 && window <= MAX_WINDOW;
+    }
+
+    // The threshold in ticks, unrounded; valueOf reads the double as its shortest decimal form
+    private BigDecimal exactTicks(Double value) {
+        return BigDecimal.valueOf(value).movePointRight(scale);
+    }
+
+    private long ticksOf(Double value) {
+        return value != null ? FixedPoint.toTicks(value, scale) : 0;
+    }
+
+    private static long basisPoints(Double percent) {
+        return percent != null ? Math.round(percent * 100) : 0;
+    }
+
+    private static int[] distinctWindows(Map<Integer, ?> first, Map<Integer, ?> second) {
+        TreeSet<Integer> all = new TreeSet<>(first.keySet());
+        all.addAll(second.keySet());
+        return all.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static WindowGroup[] groups(Map<Integer, List<ThresholdBook.Spec>> specsByWindow, int[] windows,
+                                        boolean firesOnLevel) {
+        List<WindowGroup> groups = new ArrayList<>();
+        specsByWindow.forEach((window, specs) -> groups.add(new WindowGroup(window,
+                Arrays.binarySearch(windows, window), new ThresholdBook(specs, 0, firesOnLevel))));
+        return groups.toArray(new WindowGroup[0]);
+    }
+}
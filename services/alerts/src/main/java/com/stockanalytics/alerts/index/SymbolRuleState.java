@@ -0,0 +1,93 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+
+import java.util.function.Consumer;
+
+/**
+ * Evaluation state of the rules of one symbol: the crossing state of every series in its
+ * {@link SymbolRuleSet} and the price history the windowed series are computed from. Rules fire
+ * when their series crosses into the condition and re-arm once it moves back past the hysteresis.
+ *
+ * <p>An instance belongs to one {@link SymbolRuleSet} snapshot and must only be used by the
+ * thread consuming the symbol.
+ */
+public class SymbolRuleState {
+
+    private final SymbolRuleSet rules;
+    private final CrossingState priceState;
+    private final PriceHistory history;
+    private final CrossingState[] maStates;
+    private final CrossingState[] pctStates;
+
+    /**
+     * Creates the state for {@code rules}, carrying over the state of unchanged rules and the
+     * price history from {@code previous} (which may be null).
+     */
+    public SymbolRuleState(SymbolRuleSet rules, SymbolRuleState previous) {
+        this.rules = rules;
+        this.priceState = new CrossingState(rules.priceBook(), previous != null ? previous.priceState : null);
+        this.history = PriceHistory.of(rules.windows(), rules.historyCapacity(),
+                previous != null ? previous.history : null);
+        this.maStates = states(rules.maGroups(), previous != null ? previous.rules.maGroups() : null,
+                previous != null ? previous.maStates : null);
+        this.pctStates = states(rules.pctGroups(), previous != null ? previous.rules.pctGroups() : null,
+                previous != null ? previous.pctStates : null);
+    }
+
+    public boolean isFor(SymbolRuleSet ruleSet) {
+        return rules == ruleSet;
+    }
+
+    /** Fixed-point scale of the prices passed to {@link #onPrice}. */
+    public int getScale() {
+        return rules.getScale();
+    }
+
+    /**
+     * Moves the symbol to {@code priceTicks} and calls {@code fire} for every rule it triggers.
+     * {@code timeMillis} is the tick time and drives the per-rule dedup interval.
+     */
+    public void onPrice(long priceTicks, long timeMillis, Consumer<AlertRule> fire) {
+        priceState.onValue(priceTicks, timeMillis, fire);
+        history.add(priceTicks);
+
+        // One value per distinct window, shared by every rule in the group
+        SymbolRuleSet.WindowGroup[] maGroups = rules.maGroups();
+        for (int i = 0; i < maGroups.length; i++) {
+            SymbolRuleSet.WindowGroup group = maGroups[i];
+            if (history.has(group.window())) {
+                long distance = priceTicks * group.window() - history.sum(group.windowIndex());
+                maStates[i].onValue(distance, timeMillis, fire);
+            }
+        }
+
+        SymbolRuleSet.WindowGroup[] pctGroups = rules.pctGroups();
+        for (int i = 0; i < pctGroups.length; i++) {
+            SymbolRuleSet.WindowGroup group = pctGroups[i];
+            if (history.has(group.window() + 1L)) {
+                long base = history.ago(group.window());
+                if (base > 0) {
+                    pctStates[i].onValue((priceTicks - base) * 10_000 / base, timeMillis, fire);
+                }
+            }
+        }
+    }
+
+    private static CrossingState[] states(SymbolRuleSet.WindowGroup[] groups,
+                                          SymbolRuleSet.WindowGroup[] previousGroups,
+                                          CrossingState[] previousStates) {
+        CrossingState[] states = new CrossingState[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            CrossingState previous = null;
+            for (int j = 0; previousGroups != null && j < previousGroups.length; j++) {
+                if (previousGroups[j].window() == groups[i].window()) {
+                    previous = previousStates[j];
+                    break;
+                }
+            }
+            states[i] = new CrossingState(groups[i].book(), previous);
+        }
+        return states;
+    }
+}
@@ -0,0 +1,179 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Immutable set of rules that compare one series of fixed-point values (a price, a distance from
+ * a moving average, a percent change) against per-rule levels. Each rule gets a slot and is put on
+ * a per-operator ladder; every fire ladder has a matching re-arm ladder offset by the rule's
+ * hysteresis, used by {@link CrossingState}.
+ */
+class ThresholdBook {
+
+    static final byte ABOVE = 0;
+    static final byte BELOW = 1;
+    static final byte EQUAL = 2;
+
+    static final ThresholdBook EMPTY = new ThresholdBook(List.of(), 0, true);
+
+    /** A rule on this series: satisfied when the value is >= level, <= level or within the equality width. */
+    record Spec(AlertRule rule, byte kind, long level, long hysteresis) {
+
+        /**
+         * Turns {@code threshold}, in units of the series but possibly between two of them, into
+         * the inclusive whole-unit level that keeps the rule's meaning: the first value that
+         * satisfies ">=" or ">", the last that satisfies "<=" or "<". "==" takes the nearest
+         * value. Null if the operator is unsupported.
+         */
+        static Spec of(AlertRule rule, BigDecimal threshold, long hysteresis, boolean allowEqual) {
+            String operator = rule.getOperator();
+            if (operator == null) {
+                return null;
+            }
+            return switch (operator) {
+                case ">=" -> new Spec(rule, ABOVE, round(threshold, RoundingMode.CEILING), hysteresis);
+                case ">" -> new Spec(rule, ABOVE, round(threshold, RoundingMode.FLOOR) + 1, hysteresis);
+                case "<=" -> new Spec(rule, BELOW, round(threshold, RoundingMode.FLOOR), hysteresis);
+                case "<" -> new Spec(rule, BELOW, round(threshold, RoundingMode.CEILING) - 1, hysteresis);
+                case "==" -> allowEqual ? new Spec(rule, EQUAL, round(threshold, RoundingMode.HALF_UP), hysteresis) : null;
+                default -> null;
+            };
+        }
+
+        private static long round(BigDecimal threshold, RoundingMode mode) {
+            return threshold.setScale(0, mode).longValueExact();
+        }
+    }
+
+    // Largest distance still counted as equal
+    final long equalityWidth;
+    // Whether a rule that first sees the series already beyond its level fires, or waits for a crossing
+    final boolean firesOnLevel;
+
+    // Per slot
+    private final AlertRule[] rules;
+    private final byte[] kinds;
+    private final long[] levels;
+    private final long[] dedupMillis;
+    private final Map<String, Integer> slotsById;
+
+    final ThresholdLadder above;
+    final ThresholdLadder aboveRearm;
+    final ThresholdLadder below;
+    final ThresholdLadder belowRearm;
+    final ThresholdLadder equal;
+    final ThresholdLadder equalRearmLow;
+    final ThresholdLadder equalRearmHigh;
+
+    ThresholdBook(List<Spec> specs, long equalityWidth, boolean firesOnLevel) {
+        int count = specs.size();
+        this.equalityWidth = equalityWidth;
+        this.firesOnLevel = firesOnLevel;
+        this.rules = new AlertRule[count];
+        this.kinds = new byte[count];
+        this.levels = new long[count];
+        this.dedupMillis = new long[count];
+        this.slotsById = new HashMap<>(count * 2);
+
+        List<ThresholdLadder.Entry> aboveEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> aboveRearmEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> belowEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> belowRearmEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> equalEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> equalRearmLowEntries = new ArrayList<>();
+        List<ThresholdLadder.Entry> equalRearmHighEntries = new ArrayList<>();
+
+        for (int slot = 0; slot < count; slot++) {
+            Spec spec = specs.get(slot);
+            AlertRule rule = spec.rule();
+            long level = spec.level();
+            long hysteresis = Math.max(0, spec.hysteresis());
+            rules[slot] = rule;
+            kinds[slot] = spec.kind();
+            levels[slot] = level;
+            dedupMillis[slot] = rule.getDedupSeconds() != null ? rule.getDedupSeconds() * 1000L : 0;
+            slotsById.put(rule.getId(), slot);
+
+            // Re-armed once the value is strictly beyond the re-arm level
+            switch (spec.kind()) {
+                case ABOVE -> {
+                    aboveEntries.add(new ThresholdLadder.Entry(level, slot));
+                    aboveRearmEntries.add(new ThresholdLadder.Entry(level - hysteresis, slot));
+                }
+                case BELOW -> {
+                    belowEntries.add(new ThresholdLadder.Entry(level, slot));
+                    belowRearmEntries.add(new ThresholdLadder.Entry(level + hysteresis, slot));
+                }
+                default -> {
+                    equalEntries.add(new ThresholdLadder.Entry(level, slot));
+                    equalRearmLowEntries.add(new ThresholdLadder.Entry(level - equalityWidth - hysteresis, slot));
+                    equalRearmHighEntries.add(new ThresholdLadder.Entry(level + equalityWidth + hysteresis, slot));
+                }
+            }
+        }
+
+        this.above = ThresholdLadder.of(aboveEntries);
+        this.aboveRearm = ThresholdLadder.of(aboveRearmEntries);
+        this.below = ThresholdLadder.of(belowEntries);
+        this.belowRearm = ThresholdLadder.of(belowRearmEntries);
+        this.equal = ThresholdLadder.of(equalEntries);
+        this.equalRearmLow = ThresholdLadder.of(equalRearmLowEntries);
+        this.equalRearmHigh = ThresholdLadder.of(equalRearmHighEntries);
+    }
+
+    int slotCount() {
+        return rules.length;
+    }
+
+    AlertRule rule(int slot) {
+        return rules[slot];
+    }
+
+    long dedupMillis(int slot) {
+        return dedupMillis[slot];
+    }
+
+    boolean isSatisfied(int slot, long value) {
+        long level = levels[slot];
+        return switch (kinds[slot]) {
+            case ABOVE -> value >= level;
+            case BELOW -> value <= level;
+            default -> Math.abs(value - level) <= equalityWidth;
+        };
+    }
+
+    /** Calls {@code action} for every rule satisfied at {@code value}. */
+    void forEachSatisfied(long value, Consumer<AlertRule> action) {
+        // value >= t: every threshold up to the value
+        for (int i = 0, end = above.upperBound(value); i < end; i++) {
+            action.accept(rules[above.slot(i)]);
+        }
+        // value <= t: every threshold from the value up
+        for (int i = below.lowerBound(value); i < below.size(); i++) {
+            action.accept(rules[below.slot(i)]);
+        }
+        // |value - t| <= width
+        for (int i = equal.lowerBound(value - equalityWidth), end = equal.upperBound(value + equalityWidth); i < end; i++) {
+            action.accept(rules[equal.slot(i)]);
+        }
+    }
+
+    /**
+     * Slot of the same rule in this book, or -1 when it is new or its condition changed.
+     */
+    int matchingSlot(ThresholdBook previous, int previousSlot) {
+        Integer slot = slotsById.get(previous.rules[previousSlot].getId());
+        if (slot == null || kinds[slot] != previous.kinds[previousSlot] || levels[slot] != previous.levels[previousSlot]) {
+            return -1;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,71 @@
+package com.stockanalytics.alerts.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable list of rule slots sorted by a fixed-point threshold. Range lookups are a binary search
+ * followed by a walk over the matches, i.e. O(log n + k).
+ */
+class ThresholdLadder {
+
+    static final ThresholdLadder EMPTY = new ThresholdLadder(new long[0], new int[0]);
+
+    private final long[] thresholds;
+    private final int[] slots;
+
+    private ThresholdLadder(long[] thresholds, int[] slots) {
+        this.thresholds = thresholds;
+        this.slots = slots;
+    }
+
+    static ThresholdLadder of(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return EMPTY;
+        }
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Entry::threshold));
+        long[] thresholds = new long[sorted.length];
+        int[] slots = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            thresholds[i] = sorted[i].threshold();
+            slots[i] = sorted[i].slot();
+        }
+        return new ThresholdLadder(thresholds, slots);
+    }
+
+    int size() {
+        return slots.length;
+    }
+
+    long threshold(int index) {
+        return thresholds[index];
+    }
+
+    int slot(int index) {
+        return slots[index];
+    }
+
+    /** First index whose threshold is >= value. */
+    int lowerBound(long value) {
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First index whose threshold is > value. */
+    int upperBound(long value) {
+        return value == Long.MAX_VALUE ? thresholds.length : lowerBound(value + 1);
+    }
+
+    record Entry(long threshold, int slot) {}
+}
@@ -31,16 +31,20 @@ public class AlertRule {
 
     @JsonProperty("threshold")
     @Field("threshold")
-    private Double threshold;
+    private Double threshold; // Percent for PCT_CHANGE_WINDOW, optional offset from the average for MA_CROSS
 
     @JsonProperty("window")
     @Field("window")
-    private Integer window; // For moving average crossovers
+    private Integer window; // In ticks, for MA_CROSS and PCT_CHANGE_WINDOW
 
     @JsonProperty("dedupSec")
     @Field("dedupSec")
     private Integer dedupSeconds;
 
+    @JsonProperty("hysteresis")
+    @Field("hysteresis")
+    private Double hysteresis; // Price distance to move back past the threshold before re-arming
+
     @JsonProperty("enabled")
     @Field("enabled")
     private Boolean enabled;
@@ -130,6 +134,14 @@ public class AlertRule {
         this.dedupSeconds = dedupSeconds;
     }
 
+    public Double getHysteresis() {
+        return hysteresis;
+    }
+
+    public void setHysteresis(Double hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
     public Boolean getEnabled() {
         return enabled;
     }
@@ -157,6 +169,7 @@ public class AlertRule {
                 ", threshold=" + threshold +
                 ", window=" + window +
                 ", dedupSeconds=" + dedupSeconds +
+                ", hysteresis=" + hysteresis +
                 ", enabled=" + enabled +
                 ", createdAt=" + createdAt +
                 '}';
@@ -0,0 +1,271 @@
+package com.stockanalytics.alerts.notification;
+
+import com.stockanalytics.alerts.repository.AlertNotificationRepository;
+import com.stockanalytics.shared.model.AlertNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers fired alerts off the Kafka listener thread, in stages:
+ * <ol>
+ *   <li>persist: a single writer drains a bounded queue and inserts notifications in batches;</li>
+ *   <li>mail: a bounded executor sends the emails, retrying failed sends with a backoff;</li>
+ *   <li>publish: notifications are sent to Kafka asynchronously, failures are logged from the
+ *       send callback.</li>
+ * </ol>
+ * When the persist queue is full, {@link #submit} blocks for up to the enqueue timeout, which
+ * slows the listener down instead of buffering without bound; a notification that still does not
+ * fit is dropped and counted. Mail is best effort: sends that do not fit the mail queue are
+ * dropped and counted too.
+ */
+@Component
+public class NotificationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    @Value("${kafka.topic.alerts.notifications:alerts.notifications}")
+    private String alertsNotificationsTopic;
+
+    @Value("${alerts.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${alerts.notifications.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    @Value("${alerts.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${alerts.notifications.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${alerts.notifications.mail.threads:4}")
+    private int mailThreads;
+
+    @Value("${alerts.notifications.mail.max-attempts:3}")
+    private int mailMaxAttempts;
+
+    @Value("${alerts.notifications.mail.retry-backoff-ms:500}")
+    private long mailRetryBackoffMs;
+
+    private final AlertNotificationRepository alertNotificationRepository;
+    private final KafkaTemplate<String, AlertNotification> kafkaTemplate;
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<Delivery> persistQueue;
+    private ThreadPoolExecutor mailExecutor;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer persistTimer;
+    private Timer mailTimer;
+    private Timer publishTimer;
+    private Counter persistDropped;
+    private Counter mailDropped;
+    private Counter persistFailed;
+    private Counter mailFailed;
+    private Counter publishFailed;
+
+    @Autowired
+    public NotificationPipeline(AlertNotificationRepository alertNotificationRepository,
+                                KafkaTemplate<String, AlertNotification> kafkaTemplate,
+                                JavaMailSender mailSender,
+                                MeterRegistry meterRegistry) {
+        this.alertNotificationRepository = alertNotificationRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        persistQueue = new ArrayBlockingQueue<>(queueCapacity);
+        mailExecutor = new ThreadPoolExecutor(mailThreads, mailThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("alert-mail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("alerts.notifications.queue.depth", persistQueue, BlockingQueue::size)
+                .tag("stage", "persist").register(meterRegistry);
+        Gauge.builder("alerts.notifications.queue.depth", mailExecutor, e -> e.getQueue().size())
+                .tag("stage", "mail").register(meterRegistry);
+        persistTimer = stageTimer("persist");
+        mailTimer = stageTimer("mail");
+        publishTimer = stageTimer("publish");
+        persistDropped = stageCounter("alerts.notifications.dropped", "persist");
+        mailDropped = stageCounter("alerts.notifications.dropped", "mail");
+        persistFailed = stageCounter("alerts.notifications.failed", "persist");
+        mailFailed = stageCounter("alerts.notifications.failed", "mail");
+        publishFailed = stageCounter("alerts.notifications.failed", "publish");
+
+        running = true;
+        writer = new Thread(this::runWriter, "alert-notification-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a fired alert for delivery. Returns false when it was dropped because the pipeline
+     * stayed full for the whole enqueue timeout.
+     */
+    public boolean submit(AlertNotification notification, SimpleMailMessage mail) {
+        try {
+            if (persistQueue.offer(new Delivery(notification, mail), enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persistDropped.increment();
+        logger.warn("Notification pipeline full, dropped alert for rule: {}", notification.getRuleId());
+        return false;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        mailExecutor.shutdown();
+        mailExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void runWriter() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !persistQueue.isEmpty()) {
+            try {
+                Delivery first = persistQueue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                persistQueue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Shutting down: flush whatever is left
+                persistQueue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Delivery> batch) {
+        List<AlertNotification> notifications = new ArrayList<>(batch.size());
+        for (Delivery delivery : batch) {
+            notifications.add(delivery.notification());
+        }
+
+        long start = System.nanoTime();
+        try {
+            alertNotificationRepository.insert(notifications);
+        } catch (Exception e) {
+            // History is lost for this batch, the alerts are still delivered
+            persistFailed.increment(notifications.size());
+            logger.error("Failed to persist {} alert notifications", notifications.size(), e);
+        }
+        persistTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        for (Delivery delivery : batch) {
+            publish(delivery.notification());
+            if (delivery.mail() != null) {
+                sendMail(delivery);
+            }
+        }
+    }
+
+    private void publish(AlertNotification notification) {
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(alertsNotificationsTopic, notification.getAccountId(), notification)
+                    .whenComplete((result, e) -> {
+                        publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (e != null) {
+                            publishFailed.increment();
+                            logger.error("Failed to publish alert notification: {}", notification.getId(), e);
+                        }
+                    });
+        } catch (Exception e) {
+            publishFailed.increment();
+            logger.error("Failed to publish alert notification: {}", notification.getId(), e);
+        }
+    }
+
+    private void sendMail(Delivery delivery) {
+        try {
+            mailExecutor.execute(() -> sendWithRetries(delivery));
+        } catch (RejectedExecutionException e) {
+            mailDropped.increment();
+            logger.warn("Mail queue full, dropped alert email for rule: {}", delivery.notification().getRuleId());
+        }
+    }
+
+    private void sendWithRetries(Delivery delivery) {
+        long start = System.nanoTime();
+        for (int attempt = 1; attempt <= mailMaxAttempts; attempt++) {
+            try {
+                mailSender.send(delivery.mail());
+                mailTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.debug("Alert email sent for rule: {}", delivery.notification().getRuleId());
+                return;
+            } catch (Exception e) {
+                if (attempt == mailMaxAttempts) {
+                    mailFailed.increment();
+                    logger.error("Failed to send alert email for rule: {} after {} attempts",
+                            delivery.notification().getRuleId(), attempt, e);
+                    return;
+                }
+                try {
+                    Thread.sleep(mailRetryBackoffMs * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("alerts.notifications.stage.latency")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private Counter stageCounter(String name, String stage) {
+        return Counter.builder(name).tag("stage", stage).register(meterRegistry);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Delivery(AlertNotification notification, SimpleMailMessage mail) {}
+}
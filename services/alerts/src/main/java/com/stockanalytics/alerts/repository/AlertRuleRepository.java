@@ -12,6 +12,8 @@ public interface AlertRuleRepository extends MongoRepository<AlertRule, String>
     List<AlertRule> findByAccountId(String accountId);
     
     List<AlertRule> findBySymbolAndEnabledTrue(String symbol);
+
+    List<AlertRule> findByEnabledTrue();
     
     List<AlertRule> findByAccountIdAndSymbol(String accountId, String symbol);
 }
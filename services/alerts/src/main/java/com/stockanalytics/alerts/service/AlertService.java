@@ -1,21 +1,25 @@
 package com.stockanalytics.alerts.service;
 
 import com.stockanalytics.shared.model.AlertNotification;
+import com.stockanalytics.alerts.index.AlertRuleIndex;
+import com.stockanalytics.alerts.index.SymbolRuleSet;
+import com.stockanalytics.alerts.index.SymbolRuleState;
 import com.stockanalytics.alerts.model.AlertRule;
-import com.stockanalytics.alerts.repository.AlertNotificationRepository;
+import com.stockanalytics.alerts.notification.NotificationPipeline;
 import com.stockanalytics.alerts.repository.AlertRuleRepository;
 import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import com.stockanalytics.shared.price.PriceScales;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,102 +30,106 @@ public class AlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
 
-    @Value("${kafka.topic.alerts.notifications:alerts.notifications}")
-    private String alertsNotificationsTopic;
-
     @Value("${mail.from:alerts@stockanalytics.com}")
     private String mailFrom;
 
     private final AlertRuleRepository alertRuleRepository;
-    private final AlertNotificationRepository alertNotificationRepository;
-    private final KafkaTemplate<String, AlertNotification> kafkaTemplate;
-    private final JavaMailSender mailSender;
+    private final NotificationPipeline notificationPipeline;
+    private final PriceScales priceScales;
+    private final AlertRuleIndex ruleIndex;
 
-    // In-memory deduplication cache
-    private final Map<String, Instant> lastAlertTime = new ConcurrentHashMap<>();
+    // Crossing state and price history of the rules, per symbol
+    private final Map<String, SymbolRuleState> ruleStates = new ConcurrentHashMap<>();
 
     @Autowired
     public AlertService(AlertRuleRepository alertRuleRepository,
-                        AlertNotificationRepository alertNotificationRepository,
-                        KafkaTemplate<String, AlertNotification> kafkaTemplate,
-                        JavaMailSender mailSender) {
+                        NotificationPipeline notificationPipeline,
+                        PriceScales priceScales,
+                        AlertRuleIndex ruleIndex) {
         this.alertRuleRepository = alertRuleRepository;
-        this.alertNotificationRepository = alertNotificationRepository;
-        this.kafkaTemplate = kafkaTemplate;
-        this.mailSender = mailSender;
+        this.notificationPipeline = notificationPipeline;
+        this.priceScales = priceScales;
+        this.ruleIndex = ruleIndex;
     }
 
-    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}")
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}",
+            autoStartup = "#{!${kafka.listener.batch:false}}", properties = {
+            "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+            "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}"
+    })
     public void processTick(StockTick tick) {
         try {
-            // Get all enabled alert rules for this symbol
-            List<AlertRule> rules = alertRuleRepository.findBySymbolAndEnabledTrue(tick.getSymbol());
-            
-            for (AlertRule rule : rules) {
-                if (shouldFireAlert(rule, tick)) {
-                    fireAlert(rule, tick);
-                }
+            // Enabled rules for this symbol come from the in-memory index, no I/O per tick
+            SymbolRuleState state = stateFor(tick.getSymbol());
+            if (state != null) {
+                evaluate(state, tick);
             }
         } catch (Exception e) {
             logger.error("Failed to process tick for alerts: {}", tick.getSymbol(), e);
         }
     }
 
-    private boolean shouldFireAlert(AlertRule rule, StockTick tick) {
-        // Check deduplication
-        String dedupKey = rule.getId() + "_" + rule.getSymbol();
-        Instant lastFired = lastAlertTime.get(dedupKey);
-        if (lastFired != null) {
-            long secondsSinceLastAlert = Instant.now().getEpochSecond() - lastFired.getEpochSecond();
-            if (secondsSinceLastAlert < rule.getDedupSeconds()) {
-                return false;
+    /**
+     * Batch variant of {@link #processTick}, used when {@code kafka.listener.batch} is true. The
+     * poll is grouped by symbol so the rule index and state are looked up once per symbol. Every
+     * tick is still evaluated, in order: crossings and the windowed series need each price.
+     */
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}", batch = "true",
+            autoStartup = "${kafka.listener.batch:false}", properties = {
+            "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+            "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}"
+    })
+    public void processTicks(List<StockTick> ticks) {
+        Map<String, List<StockTick>> bySymbol = new HashMap<>();
+        for (StockTick tick : ticks) {
+            if (tick != null) {
+                bySymbol.computeIfAbsent(tick.getSymbol(), symbol -> new ArrayList<>()).add(tick);
             }
         }
 
-        // Evaluate rule based on type
-        switch (rule.getRuleType()) {
-            case "PRICE_THRESHOLD":
-                return evaluatePriceThreshold(rule, tick);
-            case "MA_CROSS":
-                return evaluateMACross(rule, tick);
-            case "PCT_CHANGE_WINDOW":
-                return evaluatePctChange(rule, tick);
-            default:
-                logger.warn("Unknown rule type: {}", rule.getRuleType());
-                return false;
-        }
+        bySymbol.forEach((symbol, symbolTicks) -> {
+            try {
+                SymbolRuleState state = stateFor(symbol);
+                if (state == null) {
+                    return;
+                }
+                for (StockTick tick : symbolTicks) {
+                    evaluate(state, tick);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to process ticks for alerts: {}", symbol, e);
+            }
+        });
     }
 
-    private boolean evaluatePriceThreshold(AlertRule rule, StockTick tick) {
-        double currentPrice = tick.getLastPrice().doubleValue();
-        double threshold = rule.getThreshold();
-        
-        switch (rule.getOperator()) {
-            case ">=":
-                return currentPrice >= threshold;
-            case "<=":
-                return currentPrice <= threshold;
-            case ">":
-                return currentPrice > threshold;
-            case "<":
-                return currentPrice < threshold;
-            case "==":
-                return Math.abs(currentPrice - threshold) < 0.01;
-            default:
-                return false;
+    /**
+     * Returns the evaluation state of the symbol's current rule snapshot, or null when the symbol
+     * has no enabled rules.
+     */
+    private SymbolRuleState stateFor(String symbol) {
+        SymbolRuleSet rules = ruleIndex.rulesFor(symbol);
+        if (rules == null) {
+            ruleStates.remove(symbol);
+            return null;
         }
-    }
 
-    private boolean evaluateMACross(AlertRule rule, StockTick tick) {
-        // Simplified MA cross evaluation
-        // In a real implementation, you'd get the actual MA values from analytics
-        return false; // Placeholder
+        SymbolRuleState state = ruleStates.get(symbol);
+        if (state == null || !state.isFor(rules)) {
+            state = new SymbolRuleState(rules, state);
+            ruleStates.put(symbol, state);
+        }
+        return state;
     }
 
-    private boolean evaluatePctChange(AlertRule rule, StockTick tick) {
-        // Simplified percentage change evaluation
-        // In a real implementation, you'd calculate actual percentage change
-        return false; // Placeholder
+    private void evaluate(SymbolRuleState state, StockTick tick) {
+        // Convert the price to fixed-point ticks once per tick
+        long priceTicks = FixedPoint.toTicks(tick.getLastPrice(), state.getScale());
+        long timeMillis = tick.getTimestamp() != null
+                ? tick.getTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+
+        // Rules are edge-triggered: only rules whose series crossed since the last tick fire
+        state.onPrice(priceTicks, timeMillis, rule -> fireAlert(rule, tick));
     }
 
     private void fireAlert(AlertRule rule, StockTick tick) {
@@ -141,56 +149,41 @@ public class AlertService {
                     "EMAIL"
             );
             
-            // Save notification
-            alertNotificationRepository.save(notification);
-            
-            // Send email
-            sendAlertEmail(rule, tick);
-            
-            // Publish to Kafka
-            kafkaTemplate.send(alertsNotificationsTopic, rule.getAccountId(), notification);
-            
-            // Update deduplication cache
-            String dedupKey = rule.getId() + "_" + rule.getSymbol();
-            lastAlertTime.put(dedupKey, Instant.now());
-            
-            logger.info("Alert fired for rule: {} symbol: {} price: {}", 
-                       rule.getId(), tick.getSymbol(), tick.getLastPrice());
+            // Persisting, mailing and publishing happen off the listener thread
+            if (notificationPipeline.submit(notification, buildAlertEmail(rule, tick))) {
+                logger.info("Alert fired for rule: {} symbol: {} price: {}", 
+                           rule.getId(), tick.getSymbol(), tick.getLastPrice());
+            }
             
         } catch (Exception e) {
             logger.error("Failed to fire alert for rule: {}", rule.getId(), e);
         }
     }
 
-    private void sendAlertEmail(AlertRule rule, StockTick tick) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(mailFrom);
-            message.setTo("user@example.com"); // In real app, get from user profile
-            message.setSubject("Stock Alert: " + rule.getSymbol());
-            message.setText(String.format(
-                    "Alert triggered for %s\n" +
-                    "Current Price: %s\n" +
-                    "Rule: %s %s %.2f\n" +
-                    "Time: %s",
-                    rule.getSymbol(),
-                    tick.getLastPrice(),
-                    rule.getRuleType(),
-                    rule.getOperator(),
-                    rule.getThreshold(),
-                    tick.getTimestamp()
-            ));
-            
-            mailSender.send(message);
-            logger.debug("Alert email sent for rule: {}", rule.getId());
-            
-        } catch (Exception e) {
-            logger.error("Failed to send alert email for rule: {}", rule.getId(), e);
-        }
+    private SimpleMailMessage buildAlertEmail(AlertRule rule, StockTick tick) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(mailFrom);
+        message.setTo("user@example.com"); // In real app, get from user profile
+        message.setSubject("Stock Alert: " + rule.getSymbol());
+        message.setText(String.format(
+                "Alert triggered for %s\n" +
+                "Current Price: %s\n" +
+                "Rule: %s %s %.2f\n" +
+                "Time: %s",
+                rule.getSymbol(),
+                tick.getLastPrice(),
+                rule.getRuleType(),
+                rule.getOperator(),
+                rule.getThreshold(),
+                tick.getTimestamp()
+        ));
+        return message;
     }
 
     public AlertRule createAlertRule(AlertRule rule) {
-        return alertRuleRepository.save(rule);
+        AlertRule saved = alertRuleRepository.save(rule);
+        ruleIndex.upsert(saved);
+        return saved;
     }
 
     public List<AlertRule> getAlertRules(String accountId) {
@@ -199,12 +192,13 @@ public class AlertService {
 
     public void deleteAlertRule(String ruleId) {
         alertRuleRepository.deleteById(ruleId);
+        ruleIndex.remove(ruleId);
     }
 
     public void toggleAlertRule(String ruleId, boolean enabled) {
         alertRuleRepository.findById(ruleId).ifPresent(rule -> {
             rule.setEnabled(enabled);
-            alertRuleRepository.save(rule);
+            ruleIndex.upsert(alertRuleRepository.save(rule));
         });
     }
 }
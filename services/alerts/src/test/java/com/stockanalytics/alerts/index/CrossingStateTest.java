@@ -0,0 +1,89 @@
+package com.stockanalytics.alerts.index;
+
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.shared.price.FixedPoint;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives PRICE_THRESHOLD rules through {@link CrossingState} price by price. Each row is a scale,
+ * a rule and a price path, with the expected outcome at every price: F when the rule fires, - when
+ * it does not.
+ */
+class CrossingStateTest {
+
+    @ParameterizedTest(name = "{1} {2} (hysteresis {3}) at scale {0}: {4}")
+    @CsvSource(delimiter = '|', value = {
+            // Crossing into the condition fires once; moving back past the level re-arms
+            "2 | >= | 100.00   | 0    | 99.90 100.00 100.10 99.99 100.00        | - F - - F",
+            "2 | >  | 100.00   | 0    | 99.90 100.00 100.01 100.00 100.01       | - - F - F",
+            "2 | <= | 100.00   | 0    | 100.10 100.00 99.90 100.01 100.00       | - F - - F",
+            "2 | <  | 100.00   | 0    | 100.10 100.00 99.99 100.00 99.99        | - - F - F",
+            "2 | == | 100.00   | 0    | 99.90 100.00 100.01 100.00              | - F - F",
+            // A rule already satisfied by the first price fires on it
+            "2 | >= | 100.00   | 0    | 100.50 100.60                           | F -",
+            "2 | <  | 100.00   | 0    | 99.50 99.40                             | F -",
+            // Hysteresis: re-armed only once the price is strictly beyond the level by more than it
+            "2 | >= | 100.00   | 0.50 | 99.00 100.00 99.60 100.00 99.40 100.00  | - F - - - F",
+            "2 | >  | 100.00   | 0.50 | 99.00 100.01 99.51 100.01 99.50 100.01  | - F - - - F",
+            "2 | <= | 100.00   | 0.50 | 101.00 100.00 100.40 100.00 100.60 100.00 | - F - - - F",
+            "2 | <  | 100.00   | 0.50 | 101.00 99.99 100.49 99.99 100.50 99.99  | - F - - - F",
+            "2 | == | 100.00   | 0.50 | 99.00 100.00 100.40 100.00 100.60 100.00 | - F - - - F",
+            // Equality width: at scale 4 "==" accepts up to 0.0099 either side of the level
+            "4 | == | 100.0000 | 0    | 99.9000 100.0099 100.0050 100.0200 100.0000 | - F - - F",
+            "4 | == | 100.0000 | 0    | 99.9000 100.0100 99.9901                | - - F",
+            "4 | == | 100.0000 | 0    | 100.1000 99.9900 99.9901                | - - F",
+            // Thresholds between two ticks keep their meaning
+            "2 | >  | 100.005  | 0    | 100.00 100.01                           | - F",
+            "2 | >= | 100.005  | 0    | 100.00 100.01                           | - F",
+            "2 | <  | 100.004  | 0    | 100.01 100.00                           | - F",
+            "2 | <= | 100.005  | 0    | 100.01 100.00                           | - F",
+            "2 | == | 100.005  | 0    | 100.00 100.01                           | - F",
+    })
+    void firesOnCrossings(int scale, String operator, double threshold, double hysteresis, String path,
+                          String expected) {
+        AlertRule rule = new AlertRule("acct-1", "PRICE_THRESHOLD", "INFY", operator, threshold, null, 0);
+        rule.setId("rule-1");
+        rule.setHysteresis(hysteresis);
+        CrossingState state = new CrossingState(new SymbolRuleSet(List.of(rule), scale).priceBook(), null);
+
+        String[] prices = path.trim().split("\\s+");
+        List<String> outcomes = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            long ticks = FixedPoint.toTicks(new BigDecimal(prices[i]), scale);
+            List<AlertRule> fired = new ArrayList<>();
+            state.onValue(ticks, i * 1000L, fired::add);
+            outcomes.add(fired.isEmpty() ? "-" : "F");
+        }
+        assertEquals(expected.trim(), String.join(" ", outcomes), "outcomes along " + path.trim());
+    }
+
+    @ParameterizedTest(name = "{0} {1} at {2}: {3}")
+    @CsvSource(delimiter = '|', value = {
+            ">  | 100.005 | 100.00 | false",
+            ">  | 100.005 | 100.01 | true",
+            ">= | 100.005 | 100.00 | false",
+            ">= | 100.005 | 100.01 | true",
+            "<  | 100.004 | 100.00 | true",
+            "<  | 100.004 | 100.01 | false",
+            "<= | 100.005 | 100.00 | true",
+            "<= | 100.005 | 100.01 | false",
+            ">  | 100.00  | 100.00 | false",
+            "<  | 100.00  | 100.00 | false",
+    })
+    void subTickThresholdsRoundByDirection(String operator, double threshold, String price, boolean satisfied) {
+        AlertRule rule = new AlertRule("acct-1", "PRICE_THRESHOLD", "INFY", operator, threshold, null, 0);
+        rule.setId("rule-1");
+        SymbolRuleSet ruleSet = new SymbolRuleSet(List.of(rule), 2);
+
+        List<AlertRule> matches = new ArrayList<>();
+        ruleSet.forEachMatchingThreshold(FixedPoint.toTicks(new BigDecimal(price), 2), matches::add);
+        assertEquals(satisfied, !matches.isEmpty());
+    }
+}
@@ -0,0 +1,202 @@
+package com.stockanalytics.alerts.service;
+
+import com.stockanalytics.alerts.index.AlertRuleIndex;
+import com.stockanalytics.alerts.model.AlertRule;
+import com.stockanalytics.alerts.notification.NotificationPipeline;
+import com.stockanalytics.alerts.repository.AlertNotificationRepository;
+import com.stockanalytics.shared.model.AlertNotification;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.PriceScales;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires alerts against a local SMTP server that answers every command slowly and checks that
+ * tick processing on the listener thread never waits for the mail server.
+ */
+class AlertDeliveryLatencyTest {
+
+    private static final String SYMBOL = "INFY";
+    private static final long SMTP_REPLY_DELAY_MS = 200;
+    private static final Instant START = Instant.parse("2024-01-15T03:45:00Z");
+
+    private SlowSmtpServer smtpServer;
+    private NotificationPipeline pipeline;
+    private AlertService alertService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        smtpServer = new SlowSmtpServer(SMTP_REPLY_DELAY_MS);
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.port());
+
+        KafkaTemplate<String, AlertNotification> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        pipeline = new NotificationPipeline(mock(AlertNotificationRepository.class), kafkaTemplate, mailSender,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "alertsNotificationsTopic", "alerts.notifications");
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 10_000);
+        ReflectionTestUtils.setField(pipeline, "enqueueTimeoutMs", 100L);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 500);
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(pipeline, "mailThreads", 4);
+        ReflectionTestUtils.setField(pipeline, "mailMaxAttempts", 1);
+        ReflectionTestUtils.setField(pipeline, "mailRetryBackoffMs", 0L);
+        pipeline.start();
+
+        // Crossed on every other tick, at most one alert per rule every five minutes
+        AlertRule above = new AlertRule("acct-1", "PRICE_THRESHOLD", SYMBOL, ">=", 1500.0, null, 300);
+        above.setId("rule-above");
+        AlertRule below = new AlertRule("acct-2", "PRICE_THRESHOLD", SYMBOL, "<", 1500.0, null, 300);
+        below.setId("rule-below");
+        AlertRuleIndex ruleIndex = new AlertRuleIndex(null, PriceScales.defaults());
+        ruleIndex.load(List.of(above, below));
+
+        alertService = new AlertService(null, pipeline, PriceScales.defaults(), ruleIndex);
+        ReflectionTestUtils.setField(alertService, "mailFrom", "alerts@stockanalytics.com");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pipeline.stop();
+        smtpServer.close();
+    }
+
+    @Test
+    void tickLatencyIsUnaffectedByMailLatency() throws InterruptedException {
+        int warmup = 200;
+        int total = 1_200;
+        long maxNanos = 0;
+        for (int i = 0; i < total; i++) {
+            BigDecimal price = new BigDecimal(i % 2 == 0 ? "1510.00" : "1490.00");
+            StockTick tick = new StockTick(START.plusSeconds(i), SYMBOL, price, price, price, price,
+                    100L, price, price, "test");
+            long start = System.nanoTime();
+            alertService.processTick(tick);
+            long elapsed = System.nanoTime() - start;
+            if (i >= warmup) {
+                maxNanos = Math.max(maxNanos, elapsed);
+            }
+        }
+
+        // Every alert waits at least one reply delay per SMTP command; ticks must not
+        long maxMillis = TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        System.out.printf("Slowest tick: %d ms with %d ms per SMTP reply%n", maxMillis, SMTP_REPLY_DELAY_MS);
+        assertTrue(maxMillis < SMTP_REPLY_DELAY_MS, "slowest tick took " + maxMillis + " ms");
+
+        // The alerts really went through the slow server
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (smtpServer.received() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(smtpServer.received() > 0, "no email reached the SMTP server");
+    }
+
+    /** Minimal SMTP server that sleeps before every reply and counts the messages it accepts. */
+    private static final class SlowSmtpServer implements AutoCloseable {
+
+        private final long replyDelayMs;
+        private final ServerSocket serverSocket;
+        private final AtomicInteger received = new AtomicInteger();
+
+        SlowSmtpServer(long replyDelayMs) throws IOException {
+            this.replyDelayMs = replyDelayMs;
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::accept, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        int received() {
+            return received.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread session = new Thread(() -> serve(socket), "fake-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 localhost fake SMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 end data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // message body
+                            }
+                            received.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // client went away
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void reply(OutputStream out, String line) throws IOException, InterruptedException {
+            Thread.sleep(replyDelayMs);
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+    }
+}
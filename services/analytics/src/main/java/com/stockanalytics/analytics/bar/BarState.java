@@ -0,0 +1,129 @@
+package com.stockanalytics.analytics.bar;
+
+import com.stockanalytics.shared.model.BarResolution;
+
+import java.util.Arrays;
+
+/**
+ * Per-symbol open bars for every {@link BarResolution}, in fixed-point ticks at the symbol's
+ * scale. Ticks only update the 1s bar; when a bar closes it is emitted and merged into the open
+ * bar of the next coarser resolution, so each level is built from the closed bars of the level
+ * below and a tick costs O(1) however many resolutions there are.
+ *
+ * <p>A bar closes when a tick falls into a later bucket, or through {@link #closeBefore} when the
+ * task's tick time passes its end. Every bar is emitted once: a tick whose 1s bucket has already
+ * closed is late and is rejected, since counting it would reopen a closed bucket or distort a
+ * later one.
+ */
+public class BarState {
+
+    public static final BarResolution[] LEVELS = BarResolution.values();
+
+    static final long NONE = Long.MIN_VALUE;
+
+    /** Receives closed bars, finest resolution first. */
+    public interface Sink {
+        void closed(BarResolution resolution, long start, long open, long high, long low, long close,
+                    long volume, long tickCount);
+    }
+
+    private final int scale;
+
+    // Open bar per level, start == NONE when the level has none
+    final long[] start = new long[LEVELS.length];
+    final long[] open = new long[LEVELS.length];
+    final long[] high = new long[LEVELS.length];
+    final long[] low = new long[LEVELS.length];
+    final long[] close = new long[LEVELS.length];
+    final long[] volume = new long[LEVELS.length];
+    final long[] count = new long[LEVELS.length];
+
+    // Ticks before this time fall into buckets that have been emitted
+    long closedBefore = NONE;
+
+    public BarState(int scale) {
+        this.scale = scale;
+        Arrays.fill(start, NONE);
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Adds a tick to the open 1s bar, closing the bars it has moved past. Returns false, without
+     * changing anything, when the tick is late.
+     */
+    public boolean update(long priceTicks, long tickVolume, long timestampMillis, Sink sink) {
+        long ts = timestampMillis;
+        if (ts < closedBefore || (start[0] != NONE && ts < start[0])) {
+            return false;
+        }
+
+        // Close every level the tick has moved past, finest first so closed bars roll up in order
+        for (int k = 0; k < LEVELS.length; k++) {
+            if (start[k] != NONE && LEVELS[k].bucketStart(ts) != start[k]) {
+                closeLevel(k, sink);
+            }
+        }
+
+        if (start[0] == NONE) {
+            start[0] = LEVELS[0].bucketStart(ts);
+            open[0] = high[0] = low[0] = priceTicks;
+            volume[0] = 0;
+            count[0] = 0;
+        } else {
+            high[0] = Math.max(high[0], priceTicks);
+            low[0] = Math.min(low[0], priceTicks);
+        }
+        close[0] = priceTicks;
+        volume[0] += tickVolume;
+        count[0]++;
+        return true;
+    }
+
+    /**
+     * Closes every open bar that ends at or before {@code timestampMillis}; later ticks of the
+     * closed buckets are then late. Returns whether any bar was closed.
+     */
+    public boolean closeBefore(long timestampMillis, Sink sink) {
+        boolean closed = false;
+        for (int k = 0; k < LEVELS.length; k++) {
+            if (start[k] != NONE && start[k] + LEVELS[k].millis() <= timestampMillis) {
+                closeLevel(k, sink);
+                closed = true;
+            }
+        }
+        if (closed) {
+            // The 1s bucket holding timestampMillis ends after it, so every coarser one does too
+            closedBefore = Math.max(closedBefore, LEVELS[0].bucketStart(timestampMillis));
+        }
+        return closed;
+    }
+
+    private void closeLevel(int k, Sink sink) {
+        sink.closed(LEVELS[k], start[k], open[k], high[k], low[k], close[k], volume[k], count[k]);
+        if (k == 0) {
+            closedBefore = Math.max(closedBefore, start[0] + LEVELS[0].millis());
+        }
+
+        int up = k + 1;
+        if (up < LEVELS.length) {
+            if (start[up] == NONE) {
+                start[up] = LEVELS[up].bucketStart(start[k]);
+                open[up] = open[k];
+                high[up] = high[k];
+                low[up] = low[k];
+                volume[up] = 0;
+                count[up] = 0;
+            } else {
+                high[up] = Math.max(high[up], high[k]);
+                low[up] = Math.min(low[up], low[k]);
+            }
+            close[up] = close[k];
+            volume[up] += volume[k];
+            count[up] += count[k];
+        }
+        start[k] = NONE;
+    }
+}
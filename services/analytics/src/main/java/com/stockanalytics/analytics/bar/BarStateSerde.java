@@ -0,0 +1,67 @@
+package com.stockanalytics.analytics.bar;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary serde for {@link BarState}, used by the state store and its changelog.
+ * Records written by another layout deserialize to {@code null}, so the symbol starts with no
+ * open bars instead of failing restoration.
+ */
+public class BarStateSerde implements Serde<BarState> {
+
+    private static final byte VERSION = 2;
+
+    private static final int FIELDS = 7;                                   // start, o, h, l, c, volume, count
+    private static final int SIZE = 1 + 1                                  // version, scale
+            + Long.BYTES                                                   // closedBefore
+            + Long.BYTES * FIELDS * BarState.LEVELS.length;
+
+    @Override
+    public Serializer<BarState> serializer() {
+        return (topic, state) -> {
+            if (state == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+            buffer.put(VERSION);
+            buffer.put((byte) state.getScale());
+            buffer.putLong(state.closedBefore);
+            for (int k = 0; k < BarState.LEVELS.length; k++) {
+                buffer.putLong(state.start[k]);
+                buffer.putLong(state.open[k]);
+                buffer.putLong(state.high[k]);
+                buffer.putLong(state.low[k]);
+                buffer.putLong(state.close[k]);
+                buffer.putLong(state.volume[k]);
+                buffer.putLong(state.count[k]);
+            }
+            return buffer.array();
+        };
+    }
+
+    @Override
+    public Deserializer<BarState> deserializer() {
+        return (topic, data) -> {
+            if (data == null || data.length != SIZE || data[0] != VERSION) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data, 1, SIZE - 1);
+            BarState state = new BarState(buffer.get());
+            state.closedBefore = buffer.getLong();
+            for (int k = 0; k < BarState.LEVELS.length; k++) {
+                state.start[k] = buffer.getLong();
+                state.open[k] = buffer.getLong();
+                state.high[k] = buffer.getLong();
+                state.low[k] = buffer.getLong();
+                state.close[k] = buffer.getLong();
+                state.volume[k] = buffer.getLong();
+                state.count[k] = buffer.getLong();
+            }
+            return state;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.stockanalytics.analytics.config;
+
+import com.stockanalytics.shared.price.PriceScales;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PriceScaleConfig {
+
+    @Bean
+    public PriceScales priceScales(@Value("${price.scale.default:2}") int defaultScale,
+                                   @Value("${price.scale.overrides:}") String overrides) {
+        return PriceScales.parse(defaultScale, overrides);
+    }
+}
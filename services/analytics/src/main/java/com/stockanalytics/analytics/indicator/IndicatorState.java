@@ -0,0 +1,147 @@
+package com.stockanalytics.analytics.indicator;
+
+import com.stockanalytics.shared.model.AnalyticsMetric;
+import com.stockanalytics.shared.price.FixedPoint;
+
+import java.time.Instant;
+
+/**
+ * Per-symbol incremental indicator state: SMA(20) over a ring buffer, EMA(12) via its
+ * recurrence and VWAP over the current 5-minute bucket. Prices are fixed-point ticks at the
+ * symbol's scale, and every update is O(1) and allocation free.
+ */
+public class IndicatorState {
+
+    public static final int SMA_PERIOD = 20;
+    public static final int EMA_PERIOD = 12;
+    public static final long VWAP_WINDOW_MS = 5 * 60 * 1000L;
+
+    private static final double EMA_ALPHA = 2.0 / (EMA_PERIOD + 1);
+
+    private final int scale;
+
+    // SMA ring buffer; the running sum is exact since it is kept in ticks
+    private final long[] smaWindow = new long[SMA_PERIOD];
+    private int smaHead;
+    private int smaCount;
+    private long smaSum;
+
+    // EMA in (fractional) ticks
+    private double ema;
+    private long tickCount;
+
+    // VWAP for the current time bucket. price × volume is summed in double: in ticks it overflows a
+    // long within a bucket for high-priced, heavily traded symbols
+    private long vwapBucket = Long.MIN_VALUE;
+    private double vwapPriceVolume;
+    private long vwapVolume;
+    private long lastPrice;
+
+    public IndicatorState(int scale) {
+        this.scale = scale;
+    }
+
+    public void update(long priceTicks, long volume, long timestampMillis) {
+        // SMA: replace the oldest slot once the window is full
+        if (smaCount == SMA_PERIOD) {
+            smaSum -= smaWindow[smaHead];
+        } else {
+            smaCount++;
+        }
+        smaWindow[smaHead] = priceTicks;
+        smaSum += priceTicks;
+        smaHead = (smaHead + 1) % SMA_PERIOD;
+
+        // EMA: seeded with the first price
+        ema = tickCount == 0 ? priceTicks : ema + EMA_ALPHA * (priceTicks - ema);
+        tickCount++;
+
+        // VWAP: reset when the tick falls into a new bucket
+        long bucket = Math.floorDiv(timestampMillis, VWAP_WINDOW_MS);
+        if (bucket != vwapBucket) {
+            vwapBucket = bucket;
+            vwapPriceVolume = 0;
+            vwapVolume = 0;
+        }
+        vwapPriceVolume += (double) priceTicks * volume;
+        vwapVolume += volume;
+        lastPrice = priceTicks;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public double getSmaTicks() {
+        return smaCount == 0 ? 0 : (double) smaSum / smaCount;
+    }
+
+    public double getEmaTicks() {
+        return ema;
+    }
+
+    public double getVwapTicks() {
+        return vwapVolume == 0 ? lastPrice : vwapPriceVolume / vwapVolume;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // Indicators are averages, so they keep two digits beyond the price scale
+    public AnalyticsMetric toMetric(String symbol, long timestampMillis) {
+        return new AnalyticsMetric(
+                Instant.ofEpochMilli(timestampMillis),
+                symbol,
+                FixedPoint.toBigDecimal(getSmaTicks(), scale, 2),
+                FixedPoint.toBigDecimal(getEmaTicks(), scale, 2),
+                FixedPoint.toBigDecimal(getVwapTicks(), scale, 2)
+        );
+    }
+
+    // Accessors used by IndicatorStateSerde
+    long[] smaWindow() {
+        return smaWindow;
+    }
+
+    int smaHead() {
+        return smaHead;
+    }
+
+    int smaCount() {
+        return smaCount;
+    }
+
+    long smaSum() {
+        return smaSum;
+    }
+
+    long vwapBucket() {
+        return vwapBucket;
+    }
+
+    double vwapPriceVolume() {
+        return vwapPriceVolume;
+    }
+
+    long vwapVolume() {
+        return vwapVolume;
+    }
+
+    long lastPrice() {
+        return lastPrice;
+    }
+
+    void restore(int smaHead, int smaCount, long smaSum, double ema, long tickCount,
+                 long vwapBucket, double vwapPriceVolume, long vwapVolume, long lastPrice) {
+        this.smaHead = smaHead;
+        this.smaCount = smaCount;
+        this.smaSum = smaSum;
+        this.ema = ema;
+        this.tickCount = tickCount;
+        this.vwapBucket = vwapBucket;
+        this.vwapPriceVolume = vwapPriceVolume;
+        this.vwapVolume = vwapVolume;
+        this.lastPrice = lastPrice;
+    }
+}
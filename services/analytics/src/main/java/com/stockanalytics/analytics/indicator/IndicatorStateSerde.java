@@ -0,0 +1,78 @@
+package com.stockanalytics.analytics.indicator;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary serde for {@link IndicatorState}, used by the state store and its changelog.
+ * Records written by an older layout deserialize to {@code null}, so the symbol simply starts
+ * from a fresh state instead of failing restoration.
+ */
+public class IndicatorStateSerde implements Serde<IndicatorState> {
+
+    private static final byte VERSION = 3;
+
+    private static final int SIZE = 1 + 1                          // version, scale
+            + Long.BYTES * IndicatorState.SMA_PERIOD               // sma window
+            + Integer.BYTES * 2                                     // sma head, count
+            + Long.BYTES                                            // sma sum
+            + Double.BYTES                                          // ema
+            + Long.BYTES * 2                                        // tick count, vwap bucket
+            + Double.BYTES                                          // vwap price × volume
+            + Long.BYTES * 2;                                       // vwap volume, last
+
+    @Override
+    public Serializer<IndicatorState> serializer() {
+        return (topic, state) -> {
+            if (state == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+            buffer.put(VERSION);
+            buffer.put((byte) state.getScale());
+            for (long price : state.smaWindow()) {
+                buffer.putLong(price);
+            }
+            buffer.putInt(state.smaHead());
+            buffer.putInt(state.smaCount());
+            buffer.putLong(state.smaSum());
+            buffer.putDouble(state.getEmaTicks());
+            buffer.putLong(state.getTickCount());
+            buffer.putLong(state.vwapBucket());
+            buffer.putDouble(state.vwapPriceVolume());
+            buffer.putLong(state.vwapVolume());
+            buffer.putLong(state.lastPrice());
+            return buffer.array();
+        };
+    }
+
+    @Override
+    public Deserializer<IndicatorState> deserializer() {
+        return (topic, data) -> {
+            if (data == null || data.length != SIZE || data[0] != VERSION) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data, 1, SIZE - 1);
+            IndicatorState state = new IndicatorState(buffer.get());
+            long[] window = state.smaWindow();
+            for (int i = 0; i < window.length; i++) {
+                window[i] = buffer.getLong();
+            }
+            int smaHead = buffer.getInt();
+            int smaCount = buffer.getInt();
+            long smaSum = buffer.getLong();
+            double ema = buffer.getDouble();
+            long tickCount = buffer.getLong();
+            long vwapBucket = buffer.getLong();
+            double vwapPriceVolume = buffer.getDouble();
+            long vwapVolume = buffer.getLong();
+            long lastPrice = buffer.getLong();
+            state.restore(smaHead, smaCount, smaSum, ema, tickCount,
+                    vwapBucket, vwapPriceVolume, vwapVolume, lastPrice);
+            return state;
+        };
+    }
+}
@@ -1,18 +1,28 @@
 package com.stockanalytics.analytics.stream;
 
+import com.stockanalytics.analytics.bar.BarState;
+import com.stockanalytics.analytics.bar.BarStateSerde;
+import com.stockanalytics.analytics.indicator.IndicatorState;
+import com.stockanalytics.analytics.indicator.IndicatorStateSerde;
 import com.stockanalytics.shared.model.AnalyticsMetric;
+import com.stockanalytics.shared.model.OhlcvBar;
 import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.PriceScales;
+import com.stockanalytics.shared.serde.StockTickSerde;
+import com.stockanalytics.shared.serde.StockTickSerdeConfig;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.support.serializer.JsonSerde;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.Map;
 
 @Component
 public class AnalyticsTopology {
@@ -23,36 +33,60 @@ public class AnalyticsTopology {
     @Value("${kafka.topic.analytics.metrics:analytics.metrics}")
     private String outputTopic;
 
+    @Value("${kafka.topic.analytics.bars:analytics.bars}")
+    private String barsTopic;
+
+    @Value("${bars.close-grace-ms:1000}")
+    private long barCloseGraceMs;
+
+    @Value("${kafka.serde.stock-tick.symbols:}")
+    private String tickSymbolDictionary;
+
+    private final PriceScales priceScales;
+
+    @Autowired
+    public AnalyticsTopology(PriceScales priceScales) {
+        this.priceScales = priceScales;
+    }
+
     @Autowired
     public void buildTopology(StreamsBuilder streamsBuilder) {
         // Create Serdes
         Serde<String> stringSerde = Serdes.String();
-        JsonSerde<StockTick> stockTickSerde = new JsonSerde<>(StockTick.class);
+        // Reads both the binary and the JSON tick encoding
+        StockTickSerde stockTickSerde = new StockTickSerde();
+        stockTickSerde.configure(Map.of(StockTickSerdeConfig.SYMBOLS, tickSymbolDictionary), false);
         JsonSerde<AnalyticsMetric> analyticsMetricSerde = new JsonSerde<>(AnalyticsMetric.class);
+        JsonSerde<OhlcvBar> ohlcvBarSerde = new JsonSerde<>(OhlcvBar.class);
+
+        // Per-symbol indicator state, backed by a changelog so it survives rebalances.
+        // stocks.ticks is keyed by symbol, so all ticks of a symbol land in the same task.
+        StoreBuilder<KeyValueStore<String, IndicatorState>> indicatorStore = Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(IndicatorProcessor.STORE_NAME),
+                stringSerde,
+                new IndicatorStateSerde());
+        streamsBuilder.addStateStore(indicatorStore);
+
+        StoreBuilder<KeyValueStore<String, BarState>> barStore = Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(BarProcessor.STORE_NAME),
+                stringSerde,
+                new BarStateSerde());
+        streamsBuilder.addStateStore(barStore);
 
         // Create the main stream from input topic
-        KStream<String, StockTick> tickStream = streamsBuilder.stream(inputTopic, 
+        KStream<String, StockTick> tickStream = streamsBuilder.stream(inputTopic,
             Consumed.with(stringSerde, stockTickSerde));
 
-        // Simple transformation: convert StockTick to AnalyticsMetric
+        // Incrementally compute SMA20, EMA12 and VWAP-5m per symbol
         KStream<String, AnalyticsMetric> metricsStream = tickStream
-            .mapValues(tick -> {
-                // For now, just create a simple metric with basic calculations
-                BigDecimal price = tick.getLastPrice();
-                BigDecimal sma20 = price; // Placeholder - would be calculated in real implementation
-                BigDecimal ema12 = price; // Placeholder - would be calculated in real implementation
-                BigDecimal vwap5m = price; // Placeholder - would be calculated in real implementation
-                
-                return new AnalyticsMetric(
-                    Instant.now(),
-                    tick.getSymbol(),
-                    sma20,
-                    ema12,
-                    vwap5m
-                );
-            });
+            .processValues(() -> new IndicatorProcessor(priceScales), IndicatorProcessor.STORE_NAME);
 
         // Send to output topic
         metricsStream.to(outputTopic, Produced.with(stringSerde, analyticsMetricSerde));
+
+        // Roll ticks up into 1s, 1m, 5m, 1h and 1d bars and publish each bar when it closes
+        tickStream
+            .process(() -> new BarProcessor(priceScales, barCloseGraceMs), BarProcessor.STORE_NAME)
+            .to(barsTopic, Produced.with(stringSerde, ohlcvBarSerde));
     }
 }
@@ -0,0 +1,144 @@
+package com.stockanalytics.analytics.stream;
+
+import com.stockanalytics.analytics.bar.BarState;
+import com.stockanalytics.shared.model.BarResolution;
+import com.stockanalytics.shared.model.OhlcvBar;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import com.stockanalytics.shared.price.PriceScales;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds 1s..1d OHLCV bars per symbol from ticks and emits every bar once, when it closes. Bars
+ * close when a later tick of the symbol falls into the next bucket, or when the newest tick time
+ * seen by the task passes their end plus the grace period, so quiet symbols still publish their
+ * bars. Closing follows tick times rather than stream time, which runs on Kafka record timestamps
+ * and is the wall clock for replays of historical ticks. Ticks whose bucket has closed are dropped
+ * and counted in the {@code late-ticks} task metrics.
+ *
+ * <p>Like {@link IndicatorProcessor}, states are cached per task and written back on every
+ * change. The cache is filled from the store on init so the punctuator also sees symbols that
+ * have not ticked since the last (re)assignment.
+ */
+public class BarProcessor implements Processor<String, StockTick, String, OhlcvBar> {
+
+    public static final String STORE_NAME = "bar-state";
+
+    private static final Duration PUNCTUATE_INTERVAL = Duration.ofSeconds(1);
+
+    private final PriceScales priceScales;
+    private final long graceMillis;
+
+    private ProcessorContext<String, OhlcvBar> context;
+    private KeyValueStore<String, BarState> store;
+    private Sensor lateTicks;
+    private final Map<String, BarState> cache = new HashMap<>();
+
+    // Newest tick time seen by this task
+    private long maxTickMillis = Long.MIN_VALUE;
+
+    public BarProcessor(PriceScales priceScales, long graceMillis) {
+        this.priceScales = priceScales;
+        this.graceMillis = graceMillis;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, OhlcvBar> context) {
+        this.context = context;
+        this.store = context.getStateStore(STORE_NAME);
+        this.lateTicks = context.metrics().addRateTotalSensor("bar-processor", context.taskId().toString(),
+                "late-ticks", Sensor.RecordingLevel.INFO);
+        try (KeyValueIterator<String, BarState> states = store.all()) {
+            while (states.hasNext()) {
+                KeyValue<String, BarState> entry = states.next();
+                if (entry.value != null) {
+                    cache.put(entry.key, entry.value);
+                }
+            }
+        }
+        // Stream time only sets the cadence, the bars close on tick time
+        context.schedule(PUNCTUATE_INTERVAL, PunctuationType.STREAM_TIME, this::closeStaleBars);
+    }
+
+    @Override
+    public void process(Record<String, StockTick> record) {
+        StockTick tick = record.value();
+        if (tick == null || tick.getSymbol() == null || tick.getLastPrice() == null) {
+            return;
+        }
+
+        String symbol = tick.getSymbol();
+        int scale = priceScales.scaleOf(symbol);
+        BarState state = cache.get(symbol);
+        if (state == null) {
+            state = store.get(symbol);
+            if (state == null) {
+                state = new BarState(scale);
+            }
+            cache.put(symbol, state);
+        }
+        if (state.getScale() != scale) {
+            // A changed scale invalidates the open bars: publish them as they are and start over
+            state.closeBefore(Long.MAX_VALUE, sink(symbol, state.getScale()));
+            state = new BarState(scale);
+            cache.put(symbol, state);
+        }
+
+        long timestampMillis = tick.getTimestamp() != null
+                ? tick.getTimestamp().toEpochMilli()
+                : record.timestamp();
+        long volume = tick.getVolume() != null ? tick.getVolume() : 0L;
+        maxTickMillis = Math.max(maxTickMillis, timestampMillis);
+        if (state.update(FixedPoint.toTicks(tick.getLastPrice(), scale), volume, timestampMillis, sink(symbol, scale))) {
+            store.put(symbol, state);
+        } else {
+            lateTicks.record();
+        }
+    }
+
+    private void closeStaleBars(long streamTime) {
+        if (maxTickMillis == Long.MIN_VALUE) {
+            return;
+        }
+        long closeBefore = maxTickMillis - graceMillis;
+        for (Map.Entry<String, BarState> entry : cache.entrySet()) {
+            BarState state = entry.getValue();
+            if (state.closeBefore(closeBefore, sink(entry.getKey(), state.getScale()))) {
+                store.put(entry.getKey(), state);
+            }
+        }
+    }
+
+    private BarState.Sink sink(String symbol, int scale) {
+        return (resolution, start, open, high, low, close, volume, tickCount) -> {
+            OhlcvBar bar = new OhlcvBar(symbol, resolution, Instant.ofEpochMilli(start),
+                    FixedPoint.toBigDecimal(open, scale),
+                    FixedPoint.toBigDecimal(high, scale),
+                    FixedPoint.toBigDecimal(low, scale),
+                    FixedPoint.toBigDecimal(close, scale),
+                    volume, tickCount);
+            context.forward(new Record<>(symbol, bar, barEnd(resolution, start)));
+        };
+    }
+
+    private static long barEnd(BarResolution resolution, long start) {
+        return start + resolution.millis();
+    }
+
+    @Override
+    public void close() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package com.stockanalytics.analytics.stream;
+
+import com.stockanalytics.analytics.indicator.IndicatorState;
+import com.stockanalytics.shared.model.AnalyticsMetric;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import com.stockanalytics.shared.price.PriceScales;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Updates the per-symbol {@link IndicatorState} for every tick and emits the resulting metric.
+ * States are cached per task so the store is only read after a (re)assignment; every update is
+ * written back so the changelog always holds the latest state.
+ */
+public class IndicatorProcessor implements FixedKeyProcessor<String, StockTick, AnalyticsMetric> {
+
+    public static final String STORE_NAME = "indicator-state";
+
+    private final PriceScales priceScales;
+
+    private FixedKeyProcessorContext<String, AnalyticsMetric> context;
+    private KeyValueStore<String, IndicatorState> store;
+    private final Map<String, IndicatorState> cache = new HashMap<>();
+
+    public IndicatorProcessor(PriceScales priceScales) {
+        this.priceScales = priceScales;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, AnalyticsMetric> context) {
+        this.context = context;
+        this.store = context.getStateStore(STORE_NAME);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, StockTick> record) {
+        StockTick tick = record.value();
+        if (tick == null || tick.getSymbol() == null || tick.getLastPrice() == null) {
+            return;
+        }
+
+        String symbol = tick.getSymbol();
+        int scale = priceScales.scaleOf(symbol);
+        IndicatorState state = cache.get(symbol);
+        if (state == null) {
+            state = store.get(symbol);
+            // A changed scale invalidates the stored ticks
+            if (state == null || state.getScale() != scale) {
+                state = new IndicatorState(scale);
+            }
+            cache.put(symbol, state);
+        }
+
+        long timestampMillis = tick.getTimestamp() != null
+                ? tick.getTimestamp().toEpochMilli()
+                : record.timestamp();
+        long volume = tick.getVolume() != null ? tick.getVolume() : 0L;
+        state.update(FixedPoint.toTicks(tick.getLastPrice(), scale), volume, timestampMillis);
+        store.put(symbol, state);
+
+        context.forward(record.withValue(state.toMetric(symbol, timestampMillis)));
+    }
+
+    @Override
+    public void close() {
+        cache.clear();
+    }
+}
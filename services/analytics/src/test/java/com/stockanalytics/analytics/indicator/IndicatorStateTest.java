@@ -0,0 +1,34 @@
+package com.stockanalytics.analytics.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndicatorStateTest {
+
+    @Test
+    void vwapOfHighPricedHeavilyTradedSymbolDoesNotOverflow() {
+        // 150000.00 at scale 2, 10^9 shares a tick: price × volume in ticks passes Long.MAX_VALUE
+        // within the bucket
+        IndicatorState state = new IndicatorState(2);
+        long price = 15_000_000L;
+        for (int i = 0; i < 1_000; i++) {
+            state.update(price + i % 2, 1_000_000_000L, i);
+        }
+
+        assertEquals(price + 0.5, state.getVwapTicks(), 1e-6);
+    }
+
+    @Test
+    void vwapSurvivesTheSerde() {
+        IndicatorState state = new IndicatorState(2);
+        state.update(15_000_000L, 1_000_000_000_000L, 0);
+        state.update(15_000_100L, 3_000_000_000_000L, 1);
+
+        IndicatorStateSerde serde = new IndicatorStateSerde();
+        IndicatorState restored = serde.deserializer().deserialize("t", serde.serializer().serialize("t", state));
+
+        assertEquals(15_000_075.0, restored.getVwapTicks(), 1e-6);
+        assertEquals(state.getVwapTicks(), restored.getVwapTicks());
+    }
+}
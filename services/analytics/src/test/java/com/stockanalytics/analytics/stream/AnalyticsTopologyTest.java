@@ -0,0 +1,227 @@
+package com.stockanalytics.analytics.stream;
+
+import com.stockanalytics.analytics.indicator.IndicatorState;
+import com.stockanalytics.analytics.indicator.IndicatorStateSerde;
+import com.stockanalytics.shared.model.AnalyticsMetric;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.PriceScales;
+import com.stockanalytics.shared.serde.StockTickSerde;
+import com.stockanalytics.shared.serde.StockTickSerdeConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the analytics topology in a {@link TopologyTestDriver}: indicator values against a naive
+ * recomputation, resuming from the indicator store after a reassignment, and replay throughput
+ * ({@code -Danalytics.replay.ticks}, 10M by default).
+ */
+class AnalyticsTopologyTest {
+
+    private static final String TICKS = "stocks.ticks";
+    private static final String METRICS = "analytics.metrics";
+    private static final String BARS = "analytics.bars";
+    private static final String SYMBOL = "INFY";
+    private static final Instant START = Instant.parse("2024-01-15T03:45:00Z");
+
+    @TempDir
+    Path stateDir;
+
+    @Test
+    void indicatorsMatchNaiveComputation() {
+        List<StockTick> series = series(300, 2_000);
+
+        List<AnalyticsMetric> metrics;
+        try (TopologyTestDriver driver = driver(stateDir.resolve("naive"))) {
+            metrics = pipe(driver, series);
+        }
+
+        assertEquals(series.size(), metrics.size());
+        double ema = 0;
+        for (int i = 0; i < series.size(); i++) {
+            StockTick tick = series.get(i);
+            double price = tick.getLastPrice().doubleValue();
+
+            double sum = 0;
+            int from = Math.max(0, i - IndicatorState.SMA_PERIOD + 1);
+            for (int j = from; j <= i; j++) {
+                sum += series.get(j).getLastPrice().doubleValue();
+            }
+            double sma = sum / (i - from + 1);
+
+            ema = i == 0 ? price : ema + 2.0 / (IndicatorState.EMA_PERIOD + 1) * (price - ema);
+
+            long bucket = Math.floorDiv(tick.getTimestamp().toEpochMilli(), IndicatorState.VWAP_WINDOW_MS);
+            double priceVolume = 0;
+            long volume = 0;
+            for (int j = 0; j <= i; j++) {
+                StockTick earlier = series.get(j);
+                if (Math.floorDiv(earlier.getTimestamp().toEpochMilli(), IndicatorState.VWAP_WINDOW_MS) == bucket) {
+                    priceVolume += earlier.getLastPrice().doubleValue() * earlier.getVolume();
+                    volume += earlier.getVolume();
+                }
+            }
+
+            AnalyticsMetric metric = metrics.get(i);
+            assertEquals(SYMBOL, metric.getSymbol());
+            assertEquals(tick.getTimestamp(), metric.getTimestamp());
+            assertEquals(sma, metric.getSma20().doubleValue(), 1e-3, "SMA20 at tick " + i);
+            assertEquals(ema, metric.getEma12().doubleValue(), 1e-3, "EMA12 at tick " + i);
+            assertEquals(priceVolume / volume, metric.getVwap5m().doubleValue(), 1e-3, "VWAP5m at tick " + i);
+        }
+    }
+
+    @Test
+    void resumesFromTheStateStore() {
+        List<StockTick> series = series(200, 3_000);
+        int split = 120;
+
+        List<AnalyticsMetric> uninterrupted;
+        try (TopologyTestDriver driver = driver(stateDir.resolve("uninterrupted"))) {
+            uninterrupted = pipe(driver, series);
+        }
+
+        // The first task's store state, round-tripped through the changelog serde as a restore reads it
+        byte[] changelog;
+        IndicatorStateSerde serde = new IndicatorStateSerde();
+        try (TopologyTestDriver first = driver(stateDir.resolve("first"))) {
+            pipe(first, series.subList(0, split));
+            KeyValueStore<String, IndicatorState> store = first.getKeyValueStore(IndicatorProcessor.STORE_NAME);
+            changelog = serde.serializer().serialize("changelog", store.get(SYMBOL));
+        }
+
+        List<AnalyticsMetric> resumed;
+        try (TopologyTestDriver second = driver(stateDir.resolve("second"))) {
+            KeyValueStore<String, IndicatorState> store = second.getKeyValueStore(IndicatorProcessor.STORE_NAME);
+            IndicatorState restored = serde.deserializer().deserialize("changelog", changelog);
+            assertNotNull(restored);
+            assertEquals(split, restored.getTickCount());
+            store.put(SYMBOL, restored);
+            resumed = pipe(second, series.subList(split, series.size()));
+        }
+
+        assertEquals(series.size() - split, resumed.size());
+        for (int i = 0; i < resumed.size(); i++) {
+            AnalyticsMetric expected = uninterrupted.get(split + i);
+            AnalyticsMetric actual = resumed.get(i);
+            assertEquals(expected.getSma20(), actual.getSma20(), "SMA20 at tick " + (split + i));
+            assertEquals(expected.getEma12(), actual.getEma12(), "EMA12 at tick " + (split + i));
+            assertEquals(expected.getVwap5m(), actual.getVwap5m(), "VWAP5m at tick " + (split + i));
+        }
+    }
+
+    @Test
+    void replayThroughput() {
+        int total = Integer.getInteger("analytics.replay.ticks", 10_000_000);
+        String[] symbols = {"INFY", "TCS", "RELIANCE", "HDFC", "ICICIBANK"};
+
+        long metricCount = 0;
+        long barCount = 0;
+        long elapsedNanos;
+        try (TopologyTestDriver driver = driver(stateDir.resolve("replay"))) {
+            TestInputTopic<String, StockTick> input = driver.createInputTopic(TICKS,
+                    new StringSerializer(), tickSerde().serializer());
+            // Drained as raw bytes so the output queues stay small without timing JSON parsing
+            TestOutputTopic<String, byte[]> metrics = driver.createOutputTopic(METRICS,
+                    new StringDeserializer(), new ByteArrayDeserializer());
+            TestOutputTopic<String, byte[]> bars = driver.createOutputTopic(BARS,
+                    new StringDeserializer(), new ByteArrayDeserializer());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                String symbol = symbols[i % symbols.length];
+                Instant ts = START.plusMillis(i * 10L);
+                BigDecimal price = BigDecimal.valueOf(150_000 + (i % 997), 2);
+                input.pipeInput(symbol, new StockTick(ts, symbol, price, price, price, price,
+                        (long) (1 + i % 500), price, price, "replay"), ts);
+                if (i % 100_000 == 99_999) {
+                    metricCount += metrics.readValuesToList().size();
+                    barCount += bars.readValuesToList().size();
+                }
+            }
+            metricCount += metrics.readValuesToList().size();
+            barCount += bars.readValuesToList().size();
+            elapsedNanos = System.nanoTime() - start;
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Replayed %,d ticks in %.1f s: %,.0f ticks/s (%,d metrics, %,d bars)%n",
+                total, seconds, total / seconds, metricCount, barCount);
+        assertEquals(total, metricCount);
+        assertTrue(barCount > 0);
+    }
+
+    private List<AnalyticsMetric> pipe(TopologyTestDriver driver, List<StockTick> series) {
+        TestInputTopic<String, StockTick> input = driver.createInputTopic(TICKS,
+                new StringSerializer(), tickSerde().serializer());
+        TestOutputTopic<String, AnalyticsMetric> output = driver.createOutputTopic(METRICS,
+                new StringDeserializer(), new JsonDeserializer<>(AnalyticsMetric.class, false));
+        for (StockTick tick : series) {
+            input.pipeInput(tick.getSymbol(), tick, tick.getTimestamp());
+        }
+        return output.readValuesToList();
+    }
+
+    /** Ticks every {@code intervalMillis}, long enough to cross several VWAP buckets. */
+    private static List<StockTick> series(int count, long intervalMillis) {
+        Random random = new Random(42);
+        List<StockTick> ticks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant ts = START.plusMillis(i * intervalMillis);
+            BigDecimal price = BigDecimal.valueOf(150_000 + random.nextInt(10_000), 2);
+            long volume = 1 + random.nextInt(500);
+            ticks.add(new StockTick(ts, SYMBOL, price, price, price, price, volume, price, price, "test"));
+        }
+        return ticks;
+    }
+
+    private static StockTickSerde tickSerde() {
+        StockTickSerde serde = new StockTickSerde();
+        serde.configure(Map.of(StockTickSerdeConfig.SYMBOLS, ""), false);
+        return serde;
+    }
+
+    private static TopologyTestDriver driver(Path dir) {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "analytics-topology-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, dir.toString());
+        return new TopologyTestDriver(topology(), props);
+    }
+
+    private static Topology topology() {
+        AnalyticsTopology analyticsTopology = new AnalyticsTopology(PriceScales.parse(2, ""));
+        ReflectionTestUtils.setField(analyticsTopology, "inputTopic", TICKS);
+        ReflectionTestUtils.setField(analyticsTopology, "outputTopic", METRICS);
+        ReflectionTestUtils.setField(analyticsTopology, "barsTopic", BARS);
+        ReflectionTestUtils.setField(analyticsTopology, "barCloseGraceMs", 1000L);
+        ReflectionTestUtils.setField(analyticsTopology, "tickSymbolDictionary", "");
+        StreamsBuilder builder = new StreamsBuilder();
+        analyticsTopology.buildTopology(builder);
+        return builder.build();
+    }
+}
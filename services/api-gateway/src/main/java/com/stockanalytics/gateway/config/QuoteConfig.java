@@ -0,0 +1,18 @@
+package com.stockanalytics.gateway.config;
+
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QuoteConfig {
+
+    @Bean
+    public LatestQuoteTable latestQuoteTable(MeterRegistry meterRegistry) {
+        LatestQuoteTable table = new LatestQuoteTable();
+        Gauge.builder("quotes.symbols", table, LatestQuoteTable::size).register(meterRegistry);
+        return table;
+    }
+}
@@ -1,6 +1,9 @@
 package com.stockanalytics.gateway.config;
 
+import com.stockanalytics.gateway.websocket.SessionConflationInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,6 +13,13 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SessionConflationInterceptor sessionConflationInterceptor;
+
+    @Autowired
+    public WebSocketConfig(SessionConflationInterceptor sessionConflationInterceptor) {
+        this.sessionConflationInterceptor = sessionConflationInterceptor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -17,6 +27,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Skip superseded tick updates for sessions that fall behind
+        registration.interceptors(sessionConflationInterceptor);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -1,8 +1,11 @@
 package com.stockanalytics.gateway.controller;
 
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
@@ -17,11 +20,16 @@ public class ApiController {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
 
+    @Value("${quotes.local.enabled:true}")
+    private boolean localQuotes;
+
     private final RestTemplate restTemplate;
+    private final LatestQuoteTable latestQuoteTable;
 
     @Autowired
-    public ApiController(RestTemplate restTemplate) {
+    public ApiController(RestTemplate restTemplate, LatestQuoteTable latestQuoteTable) {
         this.restTemplate = restTemplate;
+        this.latestQuoteTable = latestQuoteTable;
     }
 
     @GetMapping("/health")
@@ -48,6 +56,13 @@ public class ApiController {
 
     @GetMapping("/quotes/{symbol}")
     public ResponseEntity<Object> getQuote(@PathVariable String symbol) {
+        if (localQuotes) {
+            // Served from the replica fed by stocks.ticks; symbols not seen yet fall through to market-data
+            StockTick quote = latestQuoteTable.get(symbol);
+            if (quote != null) {
+                return ResponseEntity.ok(quote);
+            }
+        }
         try {
             // Forward to market-data service
             String url = "http://localhost:8080/api/v1/generator/ticks/latest/" + symbol;
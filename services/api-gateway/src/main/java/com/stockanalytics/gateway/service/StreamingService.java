@@ -1,9 +1,11 @@
 package com.stockanalytics.gateway.service;
 
+import com.stockanalytics.gateway.websocket.TickConflator;
 import com.stockanalytics.shared.model.StockTick;
 import com.stockanalytics.shared.model.AnalyticsMetric;
 import com.stockanalytics.shared.model.PortfolioUpdate;
 import com.stockanalytics.shared.model.AlertNotification;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +13,12 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Service
 public class StreamingService {
@@ -20,28 +26,41 @@ public class StreamingService {
     private static final Logger logger = LoggerFactory.getLogger(StreamingService.class);
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final TickConflator tickConflator;
+    private final LatestQuoteTable latestQuoteTable;
     
     // Track active subscriptions
     private final Map<String, String> symbolSubscriptions = new ConcurrentHashMap<>();
     private final Map<String, String> accountSubscriptions = new ConcurrentHashMap<>();
 
     @Autowired
-    public StreamingService(SimpMessagingTemplate messagingTemplate) {
+    public StreamingService(SimpMessagingTemplate messagingTemplate, TickConflator tickConflator,
+                            LatestQuoteTable latestQuoteTable) {
         this.messagingTemplate = messagingTemplate;
+        this.tickConflator = tickConflator;
+        this.latestQuoteTable = latestQuoteTable;
     }
 
-    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}")
+    // Ticks are read in a group of this instance's own, so the quote replica and the sessions
+    // connected here see every symbol whatever the number of gateway instances. The group is named
+    // by kafka.consumer.instance-id, so a restart resumes it; a new one starts from the latest ticks
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}",
+            groupId = "gateway-ticks-${kafka.consumer.instance-id:local}",
+            autoStartup = "#{!${kafka.listener.batch:false}}", properties = {
+            "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+            "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}",
+            "auto.offset.reset=latest"
+    })
     public void handleStockTick(StockTick tick) {
-        try {
-            // Broadcast to all subscribers of this symbol
-            messagingTemplate.convertAndSend("/topic/ticks/" + tick.getSymbol(), tick);
-            logger.debug("Broadcasted tick for symbol: {}", tick.getSymbol());
-        } catch (Exception e) {
-            logger.error("Failed to broadcast tick for symbol: {}", tick.getSymbol(), e);
-        }
+        // Local replica of market-data's latest-quote table, served by /quotes/{symbol}
+        latestQuoteTable.update(tick);
+
+        // Only the latest tick per symbol is broadcast, on the conflation cadence
+        tickConflator.publish(tick);
     }
 
-    @KafkaListener(topics = "${kafka.topic.analytics.metrics:analytics.metrics}")
+    @KafkaListener(topics = "${kafka.topic.analytics.metrics:analytics.metrics}",
+            autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handleAnalyticsMetric(AnalyticsMetric metric) {
         try {
             // Broadcast to all subscribers of this symbol
@@ -52,7 +71,8 @@ public class StreamingService {
         }
     }
 
-    @KafkaListener(topics = "${kafka.topic.portfolio.updates:portfolio.updates}")
+    @KafkaListener(topics = "${kafka.topic.portfolio.updates:portfolio.updates}",
+            autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handlePortfolioUpdate(PortfolioUpdate update) {
         try {
             // Send to specific account
@@ -67,7 +87,8 @@ public class StreamingService {
         }
     }
 
-    @KafkaListener(topics = "${kafka.topic.alerts.notifications:alerts.notifications}")
+    @KafkaListener(topics = "${kafka.topic.alerts.notifications:alerts.notifications}",
+            autoStartup = "#{!${kafka.listener.batch:false}}")
     public void handleAlertNotification(AlertNotification notification) {
         try {
             // Send to specific account
@@ -82,6 +103,63 @@ public class StreamingService {
         }
     }
 
+    // Batch variants, used when kafka.listener.batch is true. Ticks, metrics and portfolio
+    // snapshots supersede each other, so only the latest one per symbol or account in a poll is
+    // sent; alert notifications are all delivered.
+
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}", batch = "true",
+            groupId = "gateway-ticks-${kafka.consumer.instance-id:local}",
+            autoStartup = "${kafka.listener.batch:false}", properties = {
+            "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+            "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}",
+            "auto.offset.reset=latest"
+    })
+    public void handleStockTicks(List<StockTick> ticks) {
+        for (StockTick tick : latestBy(ticks, StockTick::getSymbol)) {
+            handleStockTick(tick);
+        }
+    }
+
+    @KafkaListener(topics = "${kafka.topic.analytics.metrics:analytics.metrics}", batch = "true",
+            autoStartup = "${kafka.listener.batch:false}")
+    public void handleAnalyticsMetrics(List<AnalyticsMetric> metrics) {
+        for (AnalyticsMetric metric : latestBy(metrics, AnalyticsMetric::getSymbol)) {
+            handleAnalyticsMetric(metric);
+        }
+    }
+
+    @KafkaListener(topics = "${kafka.topic.portfolio.updates:portfolio.updates}", batch = "true",
+            autoStartup = "${kafka.listener.batch:false}")
+    public void handlePortfolioUpdates(List<PortfolioUpdate> updates) {
+        for (PortfolioUpdate update : latestBy(updates, PortfolioUpdate::getAccountId)) {
+            handlePortfolioUpdate(update);
+        }
+    }
+
+    @KafkaListener(topics = "${kafka.topic.alerts.notifications:alerts.notifications}", batch = "true",
+            autoStartup = "${kafka.listener.batch:false}")
+    public void handleAlertNotifications(List<AlertNotification> notifications) {
+        for (AlertNotification notification : notifications) {
+            if (notification != null) {
+                handleAlertNotification(notification);
+            }
+        }
+    }
+
+    /**
+     * Keeps the last record per key, in the order the keys were first seen. Records are keyed by
+     * symbol or account on their topics, so poll order is the order they were produced in.
+     */
+    private static <T> Collection<T> latestBy(List<T> records, Function<T, String> key) {
+        Map<String, T> latest = new LinkedHashMap<>();
+        for (T record : records) {
+            if (record != null) {
+                latest.put(key.apply(record), record);
+            }
+        }
+        return latest.values();
+    }
+
     public void subscribeToSymbol(String sessionId, String symbol) {
         symbolSubscriptions.put(sessionId, symbol);
         logger.info("Session {} subscribed to symbol: {}", sessionId, symbol);
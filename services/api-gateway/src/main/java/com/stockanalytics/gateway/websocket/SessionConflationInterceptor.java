@@ -0,0 +1,134 @@
+package com.stockanalytics.gateway.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client outbound channel interceptor that drops superseded updates for sessions that fall
+ * behind. Messages to a conflated destination (by default {@code /topic/ticks/}) are remembered
+ * per session and destination when queued; when the executor picks one up that a newer message
+ * for the same session and destination has replaced, it is skipped. A session that keeps up
+ * therefore sees every update, a slow one only the latest per symbol.
+ *
+ * <p>Exports {@code websocket.session.backlog} (queued messages) and
+ * {@code websocket.session.dropped} (superseded messages skipped) per session. A session is
+ * tracked from its STOMP CONNECTED to its disconnect, when the meters are removed; messages
+ * still queued for a session that already disconnected pass through untracked, so they cannot
+ * register its meters again.
+ */
+@Component
+public class SessionConflationInterceptor implements ExecutorChannelInterceptor,
+        ApplicationListener<AbstractSubProtocolEvent> {
+
+    @Value("${websocket.conflation.destinations:/topic/ticks/}")
+    private List<String> destinationPrefixes;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionConflationInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String destination = conflatedDestination(message);
+        if (destination != null) {
+            SessionBacklog backlog = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            if (backlog != null) {
+                backlog.latest.put(destination, message);
+                backlog.queued.incrementAndGet();
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String destination = conflatedDestination(message);
+        if (destination == null) {
+            return message;
+        }
+        SessionBacklog backlog = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (backlog == null) {
+            return message;
+        }
+        backlog.queued.decrementAndGet();
+        if (backlog.latest.remove(destination, message)) {
+            return message;
+        }
+        // A newer update for this destination is queued behind this one
+        backlog.dropped.increment();
+        return null;
+    }
+
+    @Override
+    public void onApplicationEvent(AbstractSubProtocolEvent event) {
+        if (event instanceof SessionConnectedEvent) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+            if (sessionId != null) {
+                sessions.computeIfAbsent(sessionId, SessionBacklog::new);
+            }
+        } else if (event instanceof SessionDisconnectEvent disconnect) {
+            SessionBacklog backlog = sessions.remove(disconnect.getSessionId());
+            if (backlog != null) {
+                meterRegistry.remove(backlog.backlogGauge);
+                meterRegistry.remove(backlog.dropped);
+            }
+        }
+    }
+
+    private String conflatedDestination(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || SimpMessageHeaderAccessor.getSessionId(message.getHeaders()) == null) {
+            return null;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return null;
+        }
+        for (String prefix : destinationPrefixes) {
+            if (destination.startsWith(prefix)) {
+                return destination;
+            }
+        }
+        return null;
+    }
+
+    private final class SessionBacklog {
+
+        final Map<String, Message<?>> latest = new ConcurrentHashMap<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final Gauge backlogGauge;
+        final Counter dropped;
+
+        SessionBacklog(String sessionId) {
+            this.backlogGauge = Gauge.builder("websocket.session.backlog", queued, AtomicInteger::get)
+                    .tag("session", sessionId)
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("websocket.session.dropped")
+                    .tag("session", sessionId)
+                    .register(meterRegistry);
+        }
+    }
+}
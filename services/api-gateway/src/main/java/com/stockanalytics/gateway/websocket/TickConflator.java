@@ -0,0 +1,72 @@
+package com.stockanalytics.gateway.websocket;
+
+import com.stockanalytics.shared.model.StockTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conflates ticks before they reach the STOMP broker: only the latest tick per symbol is kept and
+ * the pending ticks are broadcast every {@code websocket.conflation.interval-ms}. Each broadcast
+ * is converted to JSON once and the broker shares that payload across all subscribed sessions.
+ * With conflation disabled ticks are broadcast as they arrive.
+ */
+@Component
+public class TickConflator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickConflator.class);
+
+    @Value("${websocket.conflation.enabled:true}")
+    private boolean enabled;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, StockTick> pending = new ConcurrentHashMap<>();
+    private final Counter conflated;
+
+    @Autowired
+    public TickConflator(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.conflated = Counter.builder("websocket.ticks.conflated")
+                .description("Ticks replaced by a newer tick of the same symbol before broadcast")
+                .register(meterRegistry);
+    }
+
+    public void publish(StockTick tick) {
+        if (!enabled) {
+            broadcast(tick);
+            return;
+        }
+        if (pending.put(tick.getSymbol(), tick) != null) {
+            conflated.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.conflation.interval-ms:100}")
+    public void flush() {
+        for (String symbol : pending.keySet()) {
+            StockTick tick = pending.remove(symbol);
+            if (tick != null) {
+                broadcast(tick);
+            }
+        }
+    }
+
+    private void broadcast(StockTick tick) {
+        try {
+            // Broadcast to all subscribers of this symbol
+            messagingTemplate.convertAndSend("/topic/ticks/" + tick.getSymbol(), tick);
+            logger.debug("Broadcasted tick for symbol: {}", tick.getSymbol());
+        } catch (Exception e) {
+            logger.error("Failed to broadcast tick for symbol: {}", tick.getSymbol(), e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.stockanalytics.marketdata.archive;
+
+import com.stockanalytics.shared.model.StockTick;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Columnar archive of aged {@code ticks_hist} data: one file per symbol and UTC day under
+ * {@code <dir>/<yyyyMMdd>/<symbol>.tca} (see {@link TickArchiveWriter}), written by
+ * {@link TickArchiver}.
+ *
+ * <p>The horizon is the end of the newest fully archived day. Every tick before it lives in the
+ * archive and every tick from it on in Mongo, so {@code TickHistoryReader} can split a range
+ * there. The horizon is persisted in {@code <dir>/horizon} and only moves forward once a day's
+ * files are in place, before its ticks are deleted from Mongo.
+ */
+@Component
+public class TickArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickArchive.class);
+
+    static final String EXTENSION = ".tca";
+    private static final String HORIZON_FILE = "horizon";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Value("${tick.archive.dir:data/archive}")
+    private String dir;
+
+    private Path root;
+    private volatile Instant horizon;
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = Path.of(dir);
+        Path file = root.resolve(HORIZON_FILE);
+        if (Files.exists(file)) {
+            horizon = Instant.parse(Files.readString(file, StandardCharsets.UTF_8).trim());
+            logger.info("Tick archive at {} holds ticks before {}", root, horizon);
+        }
+    }
+
+    /** Ticks before this instant are served from the archive; null when nothing is archived. */
+    public Instant horizon() {
+        return horizon;
+    }
+
+    void advanceHorizon(Instant newHorizon) throws IOException {
+        Files.createDirectories(root);
+        Path tmp = root.resolve(HORIZON_FILE + ".tmp");
+        Files.writeString(tmp, newHorizon.toString(), StandardCharsets.UTF_8);
+        Files.move(tmp, root.resolve(HORIZON_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        horizon = newHorizon;
+    }
+
+    Path dayDirectory(LocalDate day) {
+        return root.resolve(DAY.format(day));
+    }
+
+    Path file(LocalDate day, String symbol) {
+        return dayDirectory(day).resolve(fileName(symbol));
+    }
+
+    /**
+     * Streams the archived ticks of {@code symbol} in {@code [from, to]} (both optional), newest
+     * first when {@code descending}. Files are opened as the stream reaches them; the stream must
+     * be closed.
+     */
+    public Stream<StockTick> stream(String symbol, Instant from, Instant to, boolean descending) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        List<Path> files = new ArrayList<>();
+        for (LocalDate day : days(fromMillis, toMillis)) {
+            Path file = file(day, symbol);
+            if (Files.exists(file)) {
+                files.add(file);
+            }
+        }
+        if (descending) {
+            Collections.reverse(files);
+        }
+        FileIterator iterator = new FileIterator(files, fromMillis, toMillis, descending);
+        return toStream(iterator).onClose(iterator::close);
+    }
+
+    /**
+     * Streams the archived ticks of {@code symbols} (all symbols when empty) from {@code from}
+     * (exclusive when {@code fromExclusive}) to {@code to}, oldest first across symbols: each
+     * day's files are merged on timestamp. The stream must be closed.
+     */
+    public Stream<StockTick> streamAll(Collection<String> symbols, Instant from, boolean fromExclusive, Instant to) {
+        long fromMillis = from == null ? Long.MIN_VALUE : fromExclusive ? from.toEpochMilli() + 1 : from.toEpochMilli();
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        List<LocalDate> days = days(fromMillis, toMillis);
+        List<MergeIterator> opened = new ArrayList<>();
+        Stream<StockTick> ticks = days.stream().flatMap(day -> {
+            List<Path> files = files(day, symbols);
+            MergeIterator merge = new MergeIterator(files, fromMillis, toMillis);
+            opened.add(merge);
+            return toStream(merge).onClose(merge::close);
+        });
+        return ticks.onClose(() -> opened.forEach(MergeIterator::close));
+    }
+
+    /** Archived days overlapping {@code [fromMillis, toMillis]}, oldest first. */
+    private List<LocalDate> days(long fromMillis, long toMillis) {
+        List<LocalDate> days = new ArrayList<>();
+        Instant archivedBefore = horizon;
+        if (archivedBefore == null || !Files.isDirectory(root)) {
+            return days;
+        }
+        // A day past the horizon may be half written by an interrupted run; Mongo still has it
+        long upper = Math.min(toMillis, archivedBefore.toEpochMilli() - 1);
+        try (Stream<Path> entries = Files.list(root)) {
+            entries.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.length() == 8 && name.chars().allMatch(Character::isDigit))
+                    .map(name -> LocalDate.parse(name, DAY))
+                    .filter(day -> {
+                        long start = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                        return start <= upper && start + 86_400_000L > fromMillis;
+                    })
+                    .sorted()
+                    .forEach(days::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return days;
+    }
+
+    private List<Path> files(LocalDate day, Collection<String> symbols) {
+        List<Path> files = new ArrayList<>();
+        if (symbols != null && !symbols.isEmpty()) {
+            for (String symbol : symbols) {
+                Path file = file(day, symbol);
+                if (Files.exists(file)) {
+                    files.add(file);
+                }
+            }
+            return files;
+        }
+        try (Stream<Path> entries = Files.list(dayDirectory(day))) {
+            entries.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return files;
+    }
+
+    static String fileName(String symbol) {
+        // Symbols are upper-case tickers; anything unusual is escaped so it cannot leave the directory
+        StringBuilder name = new StringBuilder(symbol.length() + EXTENSION.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-' || c == '.' && i > 0) {
+                name.append(c);
+            } else {
+                name.append('_').append(Integer.toHexString(c)).append('_');
+            }
+        }
+        return name.append(EXTENSION).toString();
+    }
+
+    private static Stream<StockTick> toStream(Iterator<StockTick> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Walks the ticks of one symbol's files within a range, one decoded block at a time, in either
+     * direction.
+     */
+    private static final class FileIterator implements Iterator<StockTick> {
+
+        private final Iterator<Path> files;
+        private final long fromMillis;
+        private final long toMillis;
+        private final boolean descending;
+
+        private TickArchiveReader reader;
+        private Iterator<TickArchiveReader.Block> blocks;
+        private StockTick[] ticks;
+        private int position;
+        private StockTick next;
+
+        FileIterator(List<Path> files, long fromMillis, long toMillis, boolean descending) {
+            this.files = files.iterator();
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (ticks != null && position < ticks.length) {
+                    StockTick tick = ticks[descending ? ticks.length - 1 - position : position];
+                    position++;
+                    long ts = tick.getTimestamp().toEpochMilli();
+                    if (ts >= fromMillis && ts <= toMillis) {
+                        next = tick;
+                    }
+                } else if (!advanceBlock()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public StockTick next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StockTick tick = next;
+            next = null;
+            return tick;
+        }
+
+        private boolean advanceBlock() {
+            try {
+                while (true) {
+                    while (blocks != null && blocks.hasNext()) {
+                        TickArchiveReader.Block block = blocks.next();
+                        if (block.maxTs() >= fromMillis && block.minTs() <= toMillis) {
+                            ticks = reader.read(block);
+                            position = 0;
+                            return true;
+                        }
+                    }
+                    close();
+                    if (!files.hasNext()) {
+                        return false;
+                    }
+                    reader = new TickArchiveReader(files.next());
+                    List<TickArchiveReader.Block> order = reader.blocks();
+                    if (descending) {
+                        order = new ArrayList<>(order);
+                        Collections.reverse(order);
+                    }
+                    blocks = order.iterator();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            ticks = null;
+            blocks = null;
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close tick archive file", e);
+                }
+                reader = null;
+            }
+        }
+    }
+
+    /** Merges the ascending ticks of several symbols' files of one day on timestamp. */
+    private static final class MergeIterator implements Iterator<StockTick> {
+
+        private final List<Path> files;
+        private final long fromMillis;
+        private final long toMillis;
+        private final List<FileIterator> sources = new ArrayList<>();
+        private PriorityQueue<Head> heads;
+
+        MergeIterator(List<Path> files, long fromMillis, long toMillis) {
+            this.files = files;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (heads == null) {
+                heads = new PriorityQueue<>(Math.max(1, files.size()),
+                        Comparator.comparing((Head head) -> head.tick.getTimestamp()).thenComparingInt(Head::order));
+                for (Path file : files) {
+                    FileIterator source = new FileIterator(List.of(file), fromMillis, toMillis, false);
+                    sources.add(source);
+                    if (source.hasNext()) {
+                        heads.add(new Head(source.next(), source, sources.size()));
+                    }
+                }
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public StockTick next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head head = heads.poll();
+            if (head.source.hasNext()) {
+                heads.add(new Head(head.source.next(), head.source, head.order));
+            }
+            return head.tick;
+        }
+
+        void close() {
+            sources.forEach(FileIterator::close);
+        }
+
+        private record Head(StockTick tick, FileIterator source, int order) {}
+    }
+}
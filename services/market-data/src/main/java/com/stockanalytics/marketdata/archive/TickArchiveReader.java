@@ -0,0 +1,115 @@
+package com.stockanalytics.marketdata.archive;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Random access to the blocks of one archive file written by {@link TickArchiveWriter}. The
+ * footer is read on open; each block is read and inflated only when asked for.
+ */
+final class TickArchiveReader implements Closeable {
+
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES * 3 + Integer.BYTES * 2;
+
+    private final FileChannel channel;
+    private final String symbol;
+    private final List<Block> blocks;
+    private final Inflater inflater = new Inflater();
+
+    TickArchiveReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            DataInputStream header = new DataInputStream(Channels.newInputStream(channel));
+            if (header.readInt() != TickArchiveWriter.MAGIC || header.readByte() != TickArchiveWriter.VERSION) {
+                throw new IOException("Not a tick archive: " + file);
+            }
+            this.symbol = header.readUTF();
+
+            ByteBuffer trailer = ByteBuffer.allocate(TickArchiveWriter.TRAILER_BYTES);
+            readFully(trailer, channel.size() - TickArchiveWriter.TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            int blockCount = trailer.getInt();
+            if (trailer.getInt() != TickArchiveWriter.MAGIC) {
+                throw new IOException("Truncated tick archive: " + file);
+            }
+
+            ByteBuffer footer = ByteBuffer.allocate(blockCount * INDEX_ENTRY_BYTES);
+            readFully(footer, footerOffset);
+            List<Block> index = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                index.add(new Block(footer.getLong(), footer.getInt(), footer.getInt(), footer.getLong(), footer.getLong()));
+            }
+            this.blocks = Collections.unmodifiableList(index);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    String symbol() {
+        return symbol;
+    }
+
+    /** The blocks of the file, oldest first. */
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    /** Reads and decodes one block, oldest tick first. */
+    StockTick[] read(Block block) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.length());
+        readFully(compressed, block.offset());
+        inflater.reset();
+        inflater.setInput(compressed.array());
+        // Encoded ticks rarely exceed a few dozen bytes; grow if they do
+        byte[] payload = new byte[Math.max(block.count() * 32, 1024)];
+        int size = 0;
+        try {
+            while (!inflater.finished()) {
+                if (size == payload.length) {
+                    payload = Arrays.copyOf(payload, payload.length * 2);
+                }
+                int n = inflater.inflate(payload, size, payload.length - size);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated block at offset " + block.offset());
+                }
+                size += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block at offset " + block.offset(), e);
+        }
+        return TickBlockCodec.decode(ByteBuffer.wrap(payload, 0, size), symbol);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of tick archive");
+            }
+        }
+        buffer.flip();
+    }
+
+    /** One block of the footer index. */
+    record Block(long offset, int length, int count, long minTs, long maxTs) {}
+}
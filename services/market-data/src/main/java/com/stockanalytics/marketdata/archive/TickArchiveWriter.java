@@ -0,0 +1,115 @@
+package com.stockanalytics.marketdata.archive;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the ticks of one symbol-day, in timestamp order, to an archive file: a header, blocks of
+ * up to {@link #BLOCK_SIZE} ticks encoded by {@link TickBlockCodec} and deflated one by one, and a
+ * footer indexing every block by offset and time range, so readers can skip blocks outside a
+ * range and walk them in either direction.
+ *
+ * <pre>
+ * header  magic:int version:byte symbol:utf dayStart:long
+ * blocks  deflated block payloads
+ * footer  (offset:long length:int count:int minTs:long maxTs:long) per block
+ * trailer footerOffset:long blockCount:int magic:int
+ * </pre>
+ */
+final class TickArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x54434131;   // "TCA1"
+    static final byte VERSION = 1;
+    static final int BLOCK_SIZE = 8192;
+    static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+    private final List<StockTick> block = new ArrayList<>(BLOCK_SIZE);
+    private final List<long[]> index = new ArrayList<>();
+    private long offset;
+    private long count;
+    private boolean closed;
+
+    TickArchiveWriter(Path file, String symbol, long dayStartMillis) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(symbol);
+        out.writeLong(dayStartMillis);
+        offset = out.size();
+    }
+
+    void write(StockTick tick) throws IOException {
+        block.add(tick);
+        count++;
+        if (block.size() == BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    /** Bytes written so far; the file size once closed. */
+    long bytes() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBlock();
+            long footerOffset = offset;
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+                out.writeLong(entry[3]);
+                out.writeLong(entry[4]);
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(index.size());
+            out.writeInt(MAGIC);
+            offset += (long) index.size() * (Long.BYTES * 3 + Integer.BYTES * 2) + TRAILER_BYTES;
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        byte[] payload = TickBlockCodec.encode(block);
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+        long start = offset;
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            out.write(deflateBuffer, 0, n);
+            offset += n;
+        }
+        index.add(new long[]{start, offset - start, block.size(),
+                block.get(0).getTimestamp().toEpochMilli(),
+                block.get(block.size() - 1).getTimestamp().toEpochMilli()});
+        block.clear();
+    }
+}
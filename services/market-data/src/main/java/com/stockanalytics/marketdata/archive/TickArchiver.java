@@ -0,0 +1,162 @@
+package com.stockanalytics.marketdata.archive;
+
+import com.stockanalytics.marketdata.history.TickHistoryReader;
+import com.stockanalytics.marketdata.history.TickHistoryWriter;
+import com.stockanalytics.shared.model.StockTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compacts {@code ticks_hist} days older than {@code tick.archive.after-days} into the
+ * {@link TickArchive}, oldest day first and one UTC day at a time. The day is first sealed in the
+ * {@link TickHistoryWriter}, so no tick is written to it once it is read; every symbol's ticks are
+ * then written to a temporary file and moved into place, the horizon is advanced past the day,
+ * and only then are the day's ticks deleted from Mongo.
+ *
+ * <p>A run interrupted before the horizon moves leaves the day in Mongo, which keeps serving it,
+ * and the next run rewrites its files. One interrupted between the horizon and the delete leaves
+ * ticks below the horizon, which reads no longer see; every run deletes those first.
+ */
+@Component
+public class TickArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickArchiver.class);
+
+    @Value("${tick.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tick.archive.after-days:7}")
+    private int afterDays;
+
+    private final TickArchive tickArchive;
+    private final TickHistoryReader tickHistoryReader;
+    private final TickHistoryWriter tickHistoryWriter;
+    private final Counter archivedTicks;
+    private final Counter archivedBytes;
+
+    private volatile ArchiveRun lastRun;
+
+    @Autowired
+    public TickArchiver(TickArchive tickArchive, TickHistoryReader tickHistoryReader,
+                        TickHistoryWriter tickHistoryWriter, MeterRegistry meterRegistry) {
+        this.tickArchive = tickArchive;
+        this.tickHistoryReader = tickHistoryReader;
+        this.tickHistoryWriter = tickHistoryWriter;
+        this.archivedTicks = Counter.builder("ticks.archive.ticks").register(meterRegistry);
+        this.archivedBytes = Counter.builder("ticks.archive.bytes").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${tick.archive.cron:0 15 0 * * *}", zone = "UTC")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (Exception e) {
+            logger.error("Tick archive run failed", e);
+        }
+    }
+
+    /**
+     * Archives every day before today minus {@code after-days} that is still in Mongo.
+     */
+    public synchronized ArchiveRun archive() throws IOException {
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(afterDays);
+        Instant horizon = tickArchive.horizon();
+        long deleted = 0;
+        if (horizon != null) {
+            // Left by a run stopped between advancing the horizon and deleting the day
+            deleted = tickHistoryWriter.delete(null, horizon);
+            if (deleted > 0) {
+                logger.info("Deleted {} already archived ticks before {} from Mongo", deleted, horizon);
+            }
+        }
+        Instant oldest = tickHistoryReader.oldestStored();
+        if (oldest != null && (horizon == null || oldest.isAfter(horizon))) {
+            horizon = oldest;
+        }
+
+        List<String> days = new ArrayList<>();
+        long ticks = 0;
+        long bytes = 0;
+        if (horizon != null) {
+            for (LocalDate day = LocalDate.ofInstant(horizon, ZoneOffset.UTC); day.isBefore(cutoff); day = day.plusDays(1)) {
+                long[] result = archiveDay(day);
+                days.add(day.toString());
+                ticks += result[0];
+                bytes += result[1];
+                deleted += result[2];
+            }
+        }
+
+        lastRun = new ArchiveRun(Instant.now(), days, ticks, bytes, deleted, tickArchive.horizon());
+        return lastRun;
+    }
+
+    public ArchiveRun getLastRun() {
+        return lastRun;
+    }
+
+    /** Returns ticks archived, bytes written and ticks deleted from Mongo. */
+    private long[] archiveDay(LocalDate day) throws IOException {
+        Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = start.plusSeconds(86_400);
+        // No tick may land in the day between reading and deleting it
+        tickHistoryWriter.seal(end);
+        List<String> symbols = tickHistoryReader.storedSymbols(start, end);
+
+        long ticks = 0;
+        long bytes = 0;
+        if (!symbols.isEmpty()) {
+            Files.createDirectories(tickArchive.dayDirectory(day));
+        }
+        for (String symbol : symbols) {
+            Path file = tickArchive.file(day, symbol);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Stream<StockTick> stored = tickHistoryReader.streamAscending(symbol, start, end.minusMillis(1));
+                 TickArchiveWriter writer = new TickArchiveWriter(tmp, symbol, start.toEpochMilli())) {
+                Iterator<StockTick> iterator = stored.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+                ticks += writer.count();
+                writer.close();
+                bytes += writer.bytes();
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        tickArchive.advanceHorizon(end);
+        long deleted = symbols.isEmpty() ? 0 : tickHistoryWriter.delete(start, end);
+        archivedTicks.increment(ticks);
+        archivedBytes.increment(bytes);
+        if (ticks > 0) {
+            logger.info("Archived {} ticks of {} symbols for {} into {} bytes ({} bytes/tick), deleted {} from Mongo",
+                    ticks, symbols.size(), day, bytes, String.format("%.1f", (double) bytes / ticks), deleted);
+        }
+        return new long[]{ticks, bytes, deleted};
+    }
+
+    /** The outcome of one archive run. */
+    public record ArchiveRun(Instant finishedAt, List<String> days, long ticks, long bytes, long deleted,
+                             Instant horizon) {}
+}
@@ -0,0 +1,251 @@
+package com.stockanalytics.marketdata.archive;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column encoding of one block of a symbol's ticks, in timestamp order:
+ *
+ * <ul>
+ *   <li>timestamps: first value, first delta, then delta-of-deltas, which are 0 for evenly
+ *       spaced ticks;</li>
+ *   <li>last/open/high/low/bid/ask and volume: fixed-point at the block's scale, first value then
+ *       deltas, so a random walk costs a byte or two per price;</li>
+ *   <li>source: a dictionary and one index per tick, omitted when the block has a single
+ *       source.</li>
+ * </ul>
+ *
+ * Every integer is zig-zag encoded and written as a varint. Nullable columns carry a presence
+ * flag: all absent, all present, or a bitmap.
+ */
+final class TickBlockCodec {
+
+    private static final int COLUMNS = 7;          // six prices and volume
+    private static final int VOLUME = 6;
+
+    private static final byte NONE_PRESENT = 0;
+    private static final byte ALL_PRESENT = 1;
+    private static final byte BITMAP = 2;
+
+    private TickBlockCodec() {}
+
+    static byte[] encode(List<StockTick> ticks) {
+        int n = ticks.size();
+        int scale = 0;
+        for (StockTick tick : ticks) {
+            for (BigDecimal price : prices(tick)) {
+                if (price != null) {
+                    scale = Math.max(scale, price.scale());
+                }
+            }
+        }
+        scale = Math.min(scale, FixedPoint.MAX_SCALE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(n * 16);
+        writeVarint(out, n);
+        out.write(scale);
+
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < n; i++) {
+            long ts = ticks.get(i).getTimestamp().toEpochMilli();
+            if (i == 0) {
+                writeSigned(out, ts);
+            } else {
+                long delta = ts - previous;
+                writeSigned(out, i == 1 ? delta : delta - previousDelta);
+                previousDelta = delta;
+            }
+            previous = ts;
+        }
+
+        long[] values = new long[n];
+        boolean[] present = new boolean[n];
+        for (int column = 0; column < COLUMNS; column++) {
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                StockTick tick = ticks.get(i);
+                if (column == VOLUME) {
+                    present[i] = tick.getVolume() != null;
+                    values[i] = present[i] ? tick.getVolume() : 0;
+                } else {
+                    BigDecimal price = prices(tick)[column];
+                    present[i] = price != null;
+                    values[i] = present[i] ? FixedPoint.toTicks(price, scale) : 0;
+                }
+                if (present[i]) {
+                    count++;
+                }
+            }
+            writePresence(out, present, n, count);
+            long last = 0;
+            for (int i = 0; i < n; i++) {
+                if (present[i]) {
+                    writeSigned(out, values[i] - last);
+                    last = values[i];
+                }
+            }
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> sources = new ArrayList<>();
+        int[] sourceIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            String source = ticks.get(i).getSource() != null ? ticks.get(i).getSource() : "";
+            Integer index = dictionary.get(source);
+            if (index == null) {
+                index = sources.size();
+                dictionary.put(source, index);
+                sources.add(source);
+            }
+            sourceIndex[i] = index;
+        }
+        writeVarint(out, sources.size());
+        for (String source : sources) {
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        if (sources.size() > 1) {
+            for (int index : sourceIndex) {
+                writeVarint(out, index);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static StockTick[] decode(ByteBuffer in, String symbol) {
+        int n = (int) readVarint(in);
+        int scale = in.get();
+
+        long[] timestamps = new long[n];
+        long delta = 0;
+        for (int i = 0; i < n; i++) {
+            long value = readSigned(in);
+            if (i == 0) {
+                timestamps[i] = value;
+            } else {
+                delta = i == 1 ? value : delta + value;
+                timestamps[i] = timestamps[i - 1] + delta;
+            }
+        }
+
+        long[][] columns = new long[COLUMNS][n];
+        boolean[][] presence = new boolean[COLUMNS][n];
+        for (int column = 0; column < COLUMNS; column++) {
+            readPresence(in, presence[column], n);
+            long last = 0;
+            for (int i = 0; i < n; i++) {
+                if (presence[column][i]) {
+                    last += readSigned(in);
+                    columns[column][i] = last;
+                }
+            }
+        }
+
+        String[] sources = new String[(int) readVarint(in)];
+        for (int i = 0; i < sources.length; i++) {
+            byte[] bytes = new byte[(int) readVarint(in)];
+            in.get(bytes);
+            sources[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        StockTick[] ticks = new StockTick[n];
+        for (int i = 0; i < n; i++) {
+            String source = sources.length > 1 ? sources[(int) readVarint(in)] : sources.length == 1 ? sources[0] : null;
+            ticks[i] = new StockTick(
+                    Instant.ofEpochMilli(timestamps[i]),
+                    symbol,
+                    price(columns, presence, 0, i, scale),
+                    price(columns, presence, 1, i, scale),
+                    price(columns, presence, 2, i, scale),
+                    price(columns, presence, 3, i, scale),
+                    presence[VOLUME][i] ? columns[VOLUME][i] : null,
+                    price(columns, presence, 4, i, scale),
+                    price(columns, presence, 5, i, scale),
+                    source == null || source.isEmpty() ? null : source);
+        }
+        return ticks;
+    }
+
+    private static BigDecimal[] prices(StockTick tick) {
+        return new BigDecimal[]{tick.getLastPrice(), tick.getOpenPrice(), tick.getHighPrice(),
+                tick.getLowPrice(), tick.getBidPrice(), tick.getAskPrice()};
+    }
+
+    private static BigDecimal price(long[][] columns, boolean[][] presence, int column, int i, int scale) {
+        return presence[column][i] ? FixedPoint.toBigDecimal(columns[column][i], scale) : null;
+    }
+
+    private static void writePresence(ByteArrayOutputStream out, boolean[] present, int n, int count) {
+        if (count == 0) {
+            out.write(NONE_PRESENT);
+        } else if (count == n) {
+            out.write(ALL_PRESENT);
+        } else {
+            out.write(BITMAP);
+            for (int i = 0; i < n; i += 8) {
+                int bits = 0;
+                for (int b = 0; b < 8 && i + b < n; b++) {
+                    if (present[i + b]) {
+                        bits |= 1 << b;
+                    }
+                }
+                out.write(bits);
+            }
+        }
+    }
+
+    private static void readPresence(ByteBuffer in, boolean[] present, int n) {
+        byte flag = in.get();
+        if (flag == BITMAP) {
+            for (int i = 0; i < n; i += 8) {
+                int bits = in.get();
+                for (int b = 0; b < 8 && i + b < n; b++) {
+                    present[i + b] = (bits & (1 << b)) != 0;
+                }
+            }
+        } else {
+            Arrays.fill(present, flag == ALL_PRESENT);
+        }
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSigned(ByteBuffer in) {
+        long zigzag = readVarint(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.stockanalytics.marketdata.config;
+
+import com.stockanalytics.marketdata.journal.TickJournal;
+import com.stockanalytics.marketdata.journal.TickJournalReader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "tick.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class JournalConfig {
+
+    @Value("${tick.journal.dir:data/journal}")
+    private String dir;
+
+    @Value("${tick.journal.index-interval:4096}")
+    private int indexInterval;
+
+    @Bean(destroyMethod = "close")
+    public TickJournal tickJournal(@Value("${tick.journal.segment-size:1GB}") DataSize segmentSize,
+                                   @Value("${tick.journal.flush-interval-ms:1000}") long flushIntervalMs,
+                                   MeterRegistry meterRegistry) {
+        TickJournal journal = new TickJournal(Path.of(dir), segmentSize.toBytes(), indexInterval, flushIntervalMs);
+        FunctionCounter.builder("ticks.journal.appended", journal, TickJournal::getAppended).register(meterRegistry);
+        FunctionCounter.builder("ticks.journal.rejected", journal, TickJournal::getRejected).register(meterRegistry);
+        return journal;
+    }
+
+    @Bean
+    public TickJournalReader tickJournalReader() {
+        return new TickJournalReader(Path.of(dir), indexInterval);
+    }
+}
@@ -0,0 +1,66 @@
+package com.stockanalytics.marketdata.controller;
+
+import com.stockanalytics.marketdata.archive.TickArchive;
+import com.stockanalytics.marketdata.archive.TickArchiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/archive")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class ArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveController.class);
+
+    private final TickArchive tickArchive;
+    private final TickArchiver tickArchiver;
+
+    @Autowired
+    public ArchiveController(TickArchive tickArchive, TickArchiver tickArchiver) {
+        this.tickArchive = tickArchive;
+        this.tickArchiver = tickArchiver;
+    }
+
+    /**
+     * Runs the compaction now instead of waiting for the schedule.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Object> runArchive() {
+        logger.info("Received request to archive aged tick history");
+        try {
+            return ResponseEntity.ok(tickArchiver.archive());
+        } catch (Exception e) {
+            logger.error("Failed to archive tick history", e);
+            return ResponseEntity.internalServerError().body("Failed to archive tick history: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<ArchiveStatus> getStatus() {
+        return ResponseEntity.ok(new ArchiveStatus(tickArchive.horizon(), tickArchiver.getLastRun()));
+    }
+
+    // Status response class
+    public static class ArchiveStatus {
+        private final Instant horizon;
+        private final TickArchiver.ArchiveRun lastRun;
+
+        public ArchiveStatus(Instant horizon, TickArchiver.ArchiveRun lastRun) {
+            this.horizon = horizon;
+            this.lastRun = lastRun;
+        }
+
+        public Instant getHorizon() {
+            return horizon;
+        }
+
+        public TickArchiver.ArchiveRun getLastRun() {
+            return lastRun;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.stockanalytics.marketdata.controller;
+
+import com.stockanalytics.marketdata.history.BarReader;
+import com.stockanalytics.shared.model.BarResolution;
+import com.stockanalytics.shared.model.OhlcvBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/bars")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class BarController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarController.class);
+
+    @Value("${bars.max-limit:5000}")
+    private int maxLimit;
+
+    private final BarReader barReader;
+
+    @Autowired
+    public BarController(BarReader barReader) {
+        this.barReader = barReader;
+    }
+
+    /**
+     * Closed OHLCV bars of a symbol at {@code resolution} (1s, 1m, 5m, 1h or 1d), oldest first:
+     * the newest {@code limit} bars starting in {@code [from, to]}.
+     */
+    @GetMapping("/{symbol}")
+    public ResponseEntity<List<OhlcvBar>> getBars(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        BarResolution barResolution;
+        try {
+            barResolution = BarResolution.parse(resolution);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit <= 0 || limit > maxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(barReader.find(symbol, barResolution, from, to, limit));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve {} bars for symbol: {}", resolution, symbol, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.stockanalytics.marketdata.controller;
+
+import com.stockanalytics.marketdata.feed.FeedHandler;
+import com.stockanalytics.marketdata.feed.FeedManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/feeds")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class FeedController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedController.class);
+
+    private final FeedManager feedManager;
+
+    @Autowired
+    public FeedController(FeedManager feedManager) {
+        this.feedManager = feedManager;
+    }
+
+    /** Every registered feed handler and whether it is running. */
+    @GetMapping
+    public ResponseEntity<Map<String, Boolean>> getFeeds() {
+        Map<String, Boolean> feeds = new LinkedHashMap<>();
+        for (FeedHandler handler : feedManager.getHandlers().values()) {
+            feeds.put(handler.name(), handler.isRunning());
+        }
+        return ResponseEntity.ok(feeds);
+    }
+
+    @PostMapping("/{name}/start")
+    public ResponseEntity<String> startFeed(@PathVariable String name) {
+        try {
+            feedManager.start(name);
+            return ResponseEntity.ok("Feed " + name + " started");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to start feed {}", name, e);
+            return ResponseEntity.internalServerError().body("Failed to start feed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{name}/stop")
+    public ResponseEntity<String> stopFeed(@PathVariable String name) {
+        try {
+            feedManager.stop(name);
+            return ResponseEntity.ok("Feed " + name + " stopped");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.stockanalytics.marketdata.controller;
+
+import com.stockanalytics.marketdata.model.ReplayCheckpoint;
+import com.stockanalytics.marketdata.repository.ReplayCheckpointRepository;
+import com.stockanalytics.marketdata.service.TickReplayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/replay")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class ReplayController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayController.class);
+
+    private final TickReplayService tickReplayService;
+    private final ReplayCheckpointRepository checkpointRepository;
+
+    @Autowired
+    public ReplayController(TickReplayService tickReplayService,
+                            ReplayCheckpointRepository checkpointRepository) {
+        this.tickReplayService = tickReplayService;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    /**
+     * Replays {@code ticks_hist} into {@code stocks.ticks}. {@code speed} is a multiple of recorded
+     * time (1, 10, 100, ...) or {@code max}; {@code resume=true} continues the checkpoint saved
+     * under {@code name}.
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Object> startReplay(
+            @RequestParam(defaultValue = "default") String name,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) List<String> symbols,
+            @RequestParam(defaultValue = "1") String speed,
+            @RequestParam(defaultValue = "false") boolean retime,
+            @RequestParam(defaultValue = "false") boolean resume) {
+
+        logger.info("Received request to start replay {} of {}..{} at speed {}", name, from, to, speed);
+
+        try {
+            double replaySpeed = "max".equals(speed.trim().toLowerCase(Locale.ROOT)) ? 0 : Double.parseDouble(speed);
+            List<String> universe = symbols != null
+                    ? symbols.stream().map(s -> s.trim().toUpperCase(Locale.ROOT)).filter(s -> !s.isEmpty()).toList()
+                    : null;
+            return ResponseEntity.ok(tickReplayService.startReplay(name, from, to, universe, replaySpeed, retime, resume));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to start replay {}", name, e);
+            return ResponseEntity.internalServerError().body("Failed to start replay: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<String> stopReplay() {
+        logger.info("Received request to stop replay");
+        tickReplayService.stopReplay();
+        return ResponseEntity.ok("Replay stopped");
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<ReplayStatus> getStatus() {
+        return ResponseEntity.ok(new ReplayStatus(tickReplayService.isRunning(),
+                tickReplayService.getLagMillis(), tickReplayService.getCurrentReplay()));
+    }
+
+    @GetMapping("/checkpoints/{name}")
+    public ResponseEntity<ReplayCheckpoint> getCheckpoint(@PathVariable String name) {
+        return checkpointRepository.findById(name)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Status response class
+    public static class ReplayStatus {
+        private final boolean running;
+        private final long lagMillis;
+        private final ReplayCheckpoint replay;
+
+        public ReplayStatus(boolean running, long lagMillis, ReplayCheckpoint replay) {
+            this.running = running;
+            this.lagMillis = lagMillis;
+            this.replay = replay;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        public ReplayCheckpoint getReplay() {
+            return replay;
+        }
+    }
+}
@@ -1,42 +1,72 @@
 package com.stockanalytics.marketdata.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockanalytics.shared.model.StockTick;
-import com.stockanalytics.marketdata.repository.StockTickRepository;
+import com.stockanalytics.marketdata.history.TickExporter;
+import com.stockanalytics.marketdata.history.TickHistoryReader;
 import com.stockanalytics.marketdata.service.TickGeneratorService;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/generator")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"}, exposedHeaders = "X-Next-Cursor")
 public class TickGeneratorController {
 
     private static final Logger logger = LoggerFactory.getLogger(TickGeneratorController.class);
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Value("${tick.history.max-page-size:10000}")
+    private int maxPageSize;
+
     private final TickGeneratorService tickGeneratorService;
-    private final StockTickRepository stockTickRepository;
+    private final LatestQuoteTable latestQuoteTable;
+    private final TickHistoryReader tickHistoryReader;
+    private final TickExporter tickExporter;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public TickGeneratorController(TickGeneratorService tickGeneratorService,
-                                 StockTickRepository stockTickRepository) {
+                                 LatestQuoteTable latestQuoteTable,
+                                 TickHistoryReader tickHistoryReader,
+                                 TickExporter tickExporter,
+                                 ObjectMapper objectMapper) {
         this.tickGeneratorService = tickGeneratorService;
-        this.stockTickRepository = stockTickRepository;
+        this.latestQuoteTable = latestQuoteTable;
+        this.tickHistoryReader = tickHistoryReader;
+        this.tickExporter = tickExporter;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/start")
     public ResponseEntity<String> startTickGeneration(
             @RequestParam(defaultValue = "INFY,TCS,RELIANCE") String symbols,
-            @RequestParam(defaultValue = "50") int rate) {
+            @RequestParam(defaultValue = "50") int rate,
+            @RequestParam(defaultValue = "0") int syntheticSymbols) {
         
-        logger.info("Received request to start tick generation for symbols: {} at rate: {}/s", symbols, rate);
+        logger.info("Received request to start tick generation for symbols: {} (+{} synthetic) at rate: {}/s",
+                symbols, syntheticSymbols, rate);
         
         try {
-            tickGeneratorService.startTickGeneration(symbols, rate);
+            tickGeneratorService.startTickGeneration(symbols, rate, syntheticSymbols);
             return ResponseEntity.ok("Tick generation started successfully");
         } catch (Exception e) {
             logger.error("Failed to start tick generation", e);
@@ -64,36 +94,115 @@ public class TickGeneratorController {
         boolean isRunning = tickGeneratorService.isRunning();
         List<String> availableSymbols = tickGeneratorService.getAvailableSymbols();
         
-        TickGeneratorStatus status = new TickGeneratorStatus(isRunning, availableSymbols);
+        TickGeneratorStatus status = new TickGeneratorStatus(isRunning, availableSymbols,
+                tickGeneratorService.getTargetRate(), tickGeneratorService.getAchievedRate());
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Ticks of a symbol, newest first, optionally limited to {@code [from, to]} and to some fields.
+     * Up to {@code tick.history.max-page-size} ticks come back as a page, with the cursor of the
+     * next page (pass it as {@code after}) in the {@code X-Next-Cursor} header. Larger limits are
+     * streamed from a Mongo cursor as one JSON array.
+     */
     @GetMapping("/ticks/{symbol}")
-    public ResponseEntity<List<StockTick>> getTicksBySymbol(
+    public ResponseEntity<?> getTicksBySymbol(
             @PathVariable String symbol,
-            @RequestParam(defaultValue = "100") int limit) {
-        
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) List<String> fields) {
+
+        if (limit <= 0 || (fields != null && !TickHistoryReader.FIELDS.containsAll(fields))) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant afterTs = after != null ? Instant.ofEpochMilli(after) : null;
+
+        if (limit > maxPageSize) {
+            StreamingResponseBody body = out -> {
+                try (Stream<StockTick> ticks = tickHistoryReader.stream(symbol, from, to, afterTs, limit, fields);
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.writeStartArray();
+                    Iterator<StockTick> iterator = ticks.iterator();
+                    while (iterator.hasNext()) {
+                        generator.writeObject(iterator.next());
+                    }
+                    generator.writeEndArray();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+
         try {
-            List<StockTick> ticks = stockTickRepository.findBySymbolOrderByTimestampDesc(symbol);
-            if (ticks.size() > limit) {
-                ticks = ticks.subList(0, limit);
+            TickHistoryReader.TickPage page = tickHistoryReader.page(symbol, from, to, afterTs, limit, fields);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor().toEpochMilli()));
             }
-            return ResponseEntity.ok(ticks);
+            return response.body(page.ticks());
         } catch (Exception e) {
             logger.error("Failed to retrieve ticks for symbol: {}", symbol, e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Exports a symbol's ticks in {@code [from, to]}, oldest first, as NDJSON or CSV, optionally
+     * gzipped. Rows are written as they come off the Mongo cursor, so memory use does not depend
+     * on the size of the range.
+     */
+    @GetMapping("/export/ticks/{symbol}")
+    public ResponseEntity<StreamingResponseBody> exportTicks(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        TickExporter.Format exportFormat;
+        try {
+            exportFormat = TickExporter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            try (Stream<StockTick> ticks = tickHistoryReader.streamAscending(symbol, from, to)) {
+                long count = tickExporter.export(ticks, exportFormat, target);
+                logger.info("Exported {} ticks for symbol: {} as {}", count, symbol, exportFormat);
+            }
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+
+        String filename = symbol + "-ticks." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * The latest tick of a symbol, from the in-memory quote table. Only a symbol that has not
+     * ticked since startup is looked up in {@code ticks_hist}, and the result seeds the table.
+     */
     @GetMapping("/ticks/latest/{symbol}")
     public ResponseEntity<StockTick> getLatestTick(@PathVariable String symbol) {
+        StockTick latestTick = latestQuoteTable.get(symbol);
+        if (latestTick != null) {
+            return ResponseEntity.ok(latestTick);
+        }
+
         try {
-            StockTick latestTick = stockTickRepository.findLatestBySymbol(symbol);
-            if (latestTick != null) {
-                return ResponseEntity.ok(latestTick);
-            } else {
+            List<StockTick> ticks = tickHistoryReader.page(symbol, null, null, null, 1, null).ticks();
+            if (ticks.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
+            latestQuoteTable.update(ticks.get(0));
+            return ResponseEntity.ok(latestQuoteTable.get(symbol));
         } catch (Exception e) {
             logger.error("Failed to retrieve latest tick for symbol: {}", symbol, e);
             return ResponseEntity.internalServerError().build();
@@ -104,10 +213,15 @@ public class TickGeneratorController {
     public static class TickGeneratorStatus {
         private final boolean running;
         private final List<String> availableSymbols;
+        private final int targetRate;
+        private final double achievedRate;
 
-        public TickGeneratorStatus(boolean running, List<String> availableSymbols) {
+        public TickGeneratorStatus(boolean running, List<String> availableSymbols,
+                                   int targetRate, double achievedRate) {
             this.running = running;
             this.availableSymbols = availableSymbols;
+            this.targetRate = targetRate;
+            this.achievedRate = achievedRate;
         }
 
         public boolean isRunning() {
@@ -117,5 +231,13 @@ public class TickGeneratorController {
         public List<String> getAvailableSymbols() {
             return availableSymbols;
         }
+
+        public int getTargetRate() {
+            return targetRate;
+        }
+
+        public double getAchievedRate() {
+            return achievedRate;
+        }
     }
 }
@@ -0,0 +1,136 @@
+package com.stockanalytics.marketdata.feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a handler's receive loop on a dedicated thread, with a {@link FeedTick} and a
+ * {@link FeedRecordParser} owned by that thread, and splits received bytes into newline-terminated
+ * records. Ticks are published with the handler's name, upper-cased, as their source.
+ */
+public abstract class AbstractFeedHandler implements FeedHandler {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String source = name().toUpperCase(Locale.ROOT).replace('-', '_');
+
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start(FeedPublisher publisher) {
+        if (isRunning()) {
+            logger.warn("Feed {} is already running", name());
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                receive(publisher, new FeedTick(), new FeedRecordParser());
+            } catch (Exception e) {
+                if (running) {
+                    logger.error("Feed {} stopped on error", name(), e);
+                }
+            } finally {
+                running = false;
+                closeResources();
+            }
+        }, "feed-" + name());
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Started feed {}", name());
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread current = thread;
+        if (current == null || !current.isAlive()) {
+            return;
+        }
+        running = false;
+        // Unblocks receive loops waiting on a channel
+        closeResources();
+        current.interrupt();
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Stopped feed {}", name());
+    }
+
+    @Override
+    public boolean isRunning() {
+        Thread current = thread;
+        return running && current != null && current.isAlive();
+    }
+
+    protected boolean running() {
+        return running;
+    }
+
+    /**
+     * Receives and publishes records until {@link #running()} turns false or the source ends.
+     */
+    protected abstract void receive(FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) throws Exception;
+
+    /**
+     * Decodes and publishes every complete record between the buffer's position and limit (the
+     * buffer is in read mode), then compacts it so a trailing partial record is completed by the
+     * next read. With {@code endOfInput} a trailing record without a terminator is taken as is.
+     */
+    protected void drainRecords(ByteBuffer buffer, boolean endOfInput, long receivedNanos,
+                                FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = start; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                record(buffer, start, i, receivedNanos, publisher, tick, parser);
+                start = i + 1;
+            }
+        }
+        if (endOfInput && start < limit) {
+            record(buffer, start, limit, receivedNanos, publisher, tick, parser);
+            start = limit;
+        }
+        buffer.position(start);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            // A record longer than the whole buffer: discard it
+            buffer.clear();
+            publisher.reject();
+        }
+    }
+
+    private void record(ByteBuffer buffer, int start, int end, long receivedNanos,
+                        FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) {
+        if (start == end) {
+            return;
+        }
+        if (!parser.parse(buffer, start, end, tick)) {
+            if (buffer.get(start) >= '0' && buffer.get(start) <= '9') {
+                publisher.reject();
+            }
+            return;
+        }
+        tick.setReceivedNanos(receivedNanos);
+        onRecord(tick, publisher);
+    }
+
+    /** Called for every decoded record; publishes it by default. */
+    protected void onRecord(FeedTick tick, FeedPublisher publisher) {
+        publisher.publish(tick, source);
+    }
+
+    protected String source() {
+        return source;
+    }
+
+    /** Closes the handler's channels; called from {@link #stop} and when the loop exits. */
+    protected void closeResources() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.stockanalytics.marketdata.feed;
+
+/**
+ * A source of market data. A handler receives records in its own format, decodes each one into a
+ * reused {@link FeedTick} and hands it to the {@link FeedPublisher}, which owns everything
+ * downstream (Kafka, the quote table, tick history). New feeds are added by declaring another
+ * handler bean; {@link FeedManager} starts the ones listed in {@code feed.handlers}.
+ */
+public interface FeedHandler {
+
+    /** Name used in configuration, on the REST API and as the ticks' {@code source}. */
+    String name();
+
+    void start(FeedPublisher publisher);
+
+    void stop();
+
+    boolean isRunning();
+}
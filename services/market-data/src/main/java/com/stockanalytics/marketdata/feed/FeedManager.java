@@ -0,0 +1,74 @@
+package com.stockanalytics.marketdata.feed;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the {@link FeedHandler} beans. Starts the handlers named in {@code feed.handlers}
+ * once the application is ready and stops every running handler on shutdown.
+ */
+@Component
+public class FeedManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedManager.class);
+
+    @Value("${feed.handlers:}")
+    private List<String> enabledHandlers;
+
+    private final Map<String, FeedHandler> handlers = new LinkedHashMap<>();
+    private final FeedPublisher publisher;
+
+    @Autowired
+    public FeedManager(List<FeedHandler> handlers, FeedPublisher publisher) {
+        for (FeedHandler handler : handlers) {
+            this.handlers.put(handler.name(), handler);
+        }
+        this.publisher = publisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startEnabled() {
+        for (String name : enabledHandlers) {
+            if (!name.isBlank()) {
+                start(name.trim());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stopAll() {
+        handlers.values().forEach(FeedHandler::stop);
+    }
+
+    public Map<String, FeedHandler> getHandlers() {
+        return handlers;
+    }
+
+    public void start(String name) {
+        FeedHandler handler = handler(name);
+        logger.info("Starting feed {}", name);
+        handler.start(publisher);
+    }
+
+    public void stop(String name) {
+        handler(name).stop();
+    }
+
+    private FeedHandler handler(String name) {
+        FeedHandler handler = handlers.get(name);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown feed: " + name + ", available: " + handlers.keySet());
+        }
+        return handler;
+    }
+}
@@ -0,0 +1,185 @@
+package com.stockanalytics.marketdata.feed;
+
+import com.stockanalytics.marketdata.history.TickHistoryWriter;
+import com.stockanalytics.marketdata.journal.TickJournal;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single path from every feed handler to the rest of the system. Handler threads only turn
+ * their decoded {@link FeedTick} into a {@link StockTick} and queue it; one publisher thread
+ * drains the queue in batches and, per tick, updates the quote table, produces to
+ * {@code stocks.ticks} and submits to the tick history writer.
+ *
+ * <p>When the queue is full, {@link #publish} blocks for up to the enqueue timeout and then drops
+ * the tick. Ingest latency (receive to hand-off to the producer) is exported as
+ * {@code feed.ingest.latency}.
+ */
+@Component
+public class FeedPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedPublisher.class);
+
+    @Value("${kafka.topic.stocks.ticks:stocks.ticks}")
+    private String ticksTopic;
+
+    @Value("${feed.publisher.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${feed.publisher.enqueue-timeout-ms:10}")
+    private long enqueueTimeoutMs;
+
+    @Value("${feed.publisher.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${feed.publisher.persist:true}")
+    private boolean persist;
+
+    private final KafkaTemplate<String, StockTick> kafkaTemplate;
+    private final LatestQuoteTable latestQuoteTable;
+    private final TickHistoryWriter tickHistoryWriter;
+    private final TickJournal tickJournal;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<Pending> queue;
+    private Thread publisher;
+    private volatile boolean running;
+
+    private Counter published;
+    private Counter dropped;
+    private Counter rejected;
+    private Counter failed;
+    private Timer ingestLatency;
+
+    @Autowired
+    public FeedPublisher(KafkaTemplate<String, StockTick> kafkaTemplate,
+                         LatestQuoteTable latestQuoteTable,
+                         TickHistoryWriter tickHistoryWriter,
+                         ObjectProvider<TickJournal> tickJournal,
+                         MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.latestQuoteTable = latestQuoteTable;
+        this.tickHistoryWriter = tickHistoryWriter;
+        this.tickJournal = tickJournal.getIfAvailable();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("feed.publisher.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        published = Counter.builder("feed.published").register(meterRegistry);
+        dropped = Counter.builder("feed.dropped").register(meterRegistry);
+        rejected = Counter.builder("feed.rejected")
+                .description("Feed records that could not be decoded into a tick")
+                .register(meterRegistry);
+        failed = Counter.builder("feed.failed").register(meterRegistry);
+        ingestLatency = Timer.builder("feed.ingest.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+
+        running = true;
+        publisher = new Thread(this::runPublisher, "feed-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    /**
+     * Queues the decoded tick for publishing under {@code source}. {@code tick} can be reused as
+     * soon as this returns. Returns false when the tick was dropped.
+     */
+    public boolean publish(FeedTick tick, String source) {
+        Pending pending = new Pending(tick.toStockTick(source), tick.getReceivedNanos());
+        try {
+            if (queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /** Counts a record a handler could not decode. */
+    public void reject() {
+        rejected.increment();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        publisher.interrupt();
+        publisher.join(TimeUnit.SECONDS.toMillis(10));
+        kafkaTemplate.flush();
+    }
+
+    private void runPublisher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Shutting down: publish whatever is left
+                queue.drainTo(batch, batchSize);
+            }
+            for (Pending pending : batch) {
+                send(pending);
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(Pending pending) {
+        StockTick tick = pending.tick();
+        latestQuoteTable.update(tick);
+        if (tickJournal != null) {
+            tickJournal.append(tick);
+        }
+        try {
+            kafkaTemplate.send(ticksTopic, tick.getSymbol(), tick).whenComplete((result, e) -> {
+                if (e != null) {
+                    failed.increment();
+                    logger.debug("Failed to publish feed tick for symbol: {}", tick.getSymbol(), e);
+                } else {
+                    published.increment();
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Failed to publish feed tick for symbol: {}", tick.getSymbol(), e);
+        }
+        if (pending.receivedNanos() != 0) {
+            ingestLatency.record(System.nanoTime() - pending.receivedNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (persist) {
+            tickHistoryWriter.submit(tick);
+        }
+    }
+
+    private record Pending(StockTick tick, long receivedNanos) {}
+}
@@ -0,0 +1,189 @@
+package com.stockanalytics.marketdata.feed;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes one text record into a {@link FeedTick} straight from the receive buffer, without
+ * intermediate strings. Records use the tick CSV layout of the export endpoint,
+ * {@code ts,symbol,last,open,high,low,volume,bid,ask[,source]}, with {@code ts} in epoch millis
+ * and empty fields for absent values; a trailing source column is ignored, since the handler
+ * names the source. Symbols are interned, so a known symbol costs no allocation either.
+ *
+ * <p>Not thread safe: one parser per handler thread.
+ */
+public final class FeedRecordParser {
+
+    private static final int MAX_DIGITS = 18;
+
+    private final SymbolTable symbols = new SymbolTable();
+
+    /**
+     * Decodes the record in {@code [start, end)} of {@code buffer} (no line terminator) into
+     * {@code tick}. Returns false for a header, blank or malformed record, leaving {@code tick}
+     * in an unspecified state.
+     */
+    public boolean parse(ByteBuffer buffer, int start, int end, FeedTick tick) {
+        tick.clear();
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (start >= end || !isDigit(buffer.get(start))) {
+            return false;
+        }
+
+        int field = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != ',') {
+                continue;
+            }
+            if (!decodeField(buffer, field, fieldStart, i, tick)) {
+                return false;
+            }
+            field++;
+            fieldStart = i + 1;
+        }
+        return field >= 3 && tick.isValid();
+    }
+
+    private boolean decodeField(ByteBuffer buffer, int field, int start, int end, FeedTick tick) {
+        if (start == end) {
+            return field != 0 && field != 1;
+        }
+        switch (field) {
+            case 0 -> {
+                long ts = parseLong(buffer, start, end);
+                if (ts < 0) {
+                    return false;
+                }
+                tick.setTimestampMillis(ts);
+            }
+            case 1 -> tick.setSymbol(symbols.intern(buffer, start, end));
+            case 2 -> { return parsePrice(buffer, start, end, FeedTick.LAST, tick); }
+            case 3 -> { return parsePrice(buffer, start, end, FeedTick.OPEN, tick); }
+            case 4 -> { return parsePrice(buffer, start, end, FeedTick.HIGH, tick); }
+            case 5 -> { return parsePrice(buffer, start, end, FeedTick.LOW, tick); }
+            case 6 -> {
+                long volume = parseLong(buffer, start, end);
+                if (volume < 0) {
+                    return false;
+                }
+                tick.setVolume(volume);
+            }
+            case 7 -> { return parsePrice(buffer, start, end, FeedTick.BID, tick); }
+            case 8 -> { return parsePrice(buffer, start, end, FeedTick.ASK, tick); }
+            default -> {
+                // Source and any later columns
+            }
+        }
+        return true;
+    }
+
+    /** Non-negative decimal integer, or -1 when malformed. */
+    private static long parseLong(ByteBuffer buffer, int start, int end) {
+        if (end - start > MAX_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean parsePrice(ByteBuffer buffer, int start, int end, int field, FeedTick tick) {
+        boolean negative = buffer.get(start) == '-';
+        long value = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (isDigit(b) && ++digits <= MAX_DIGITS) {
+                value = value * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        tick.setPrice(field, negative ? -value : value, Math.max(scale, 0));
+        return true;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /** Open-addressing table of the symbols seen so far, looked up by their bytes. */
+    private static final class SymbolTable {
+
+        private String[] entries = new String[1024];
+        private int size;
+
+        String intern(ByteBuffer buffer, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = entries.length - 1;
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                String entry = entries[slot];
+                if (entry == null) {
+                    byte[] bytes = new byte[end - start];
+                    buffer.get(start, bytes);
+                    String symbol = new String(bytes, StandardCharsets.US_ASCII);
+                    entries[slot] = symbol;
+                    if (++size * 2 > entries.length) {
+                        resize();
+                    }
+                    return symbol;
+                }
+                if (matches(entry, buffer, start, end)) {
+                    return entry;
+                }
+            }
+        }
+
+        private static boolean matches(String entry, ByteBuffer buffer, int start, int end) {
+            if (entry.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < entry.length(); i++) {
+                if (entry.charAt(i) != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resize() {
+            String[] old = entries;
+            entries = new String[old.length * 2];
+            int mask = entries.length - 1;
+            for (String entry : old) {
+                if (entry != null) {
+                    int slot = spread(entry.hashCode()) & mask;
+                    while (entries[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    entries[slot] = entry;
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
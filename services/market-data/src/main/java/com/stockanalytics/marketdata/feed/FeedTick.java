@@ -0,0 +1,108 @@
+package com.stockanalytics.marketdata.feed;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Mutable, reusable tick a feed handler decodes each record into. Prices are kept unscaled with
+ * their own scale (as written in the record), so decoding allocates nothing; the only allocation
+ * per record is the {@link StockTick} built by {@link #toStockTick} on publish.
+ *
+ * <p>One instance per handler thread, reset by {@link #clear} before each record.
+ */
+public final class FeedTick {
+
+    public static final int LAST = 0;
+    public static final int OPEN = 1;
+    public static final int HIGH = 2;
+    public static final int LOW = 3;
+    public static final int BID = 4;
+    public static final int ASK = 5;
+
+    private static final int PRICES = 6;
+    private static final int ABSENT = -1;
+
+    String symbol;
+    long timestampMillis;
+    long volume;
+    final long[] unscaled = new long[PRICES];
+    final int[] scale = new int[PRICES];
+    long receivedNanos;
+
+    public FeedTick() {
+        clear();
+    }
+
+    public void clear() {
+        symbol = null;
+        timestampMillis = 0;
+        volume = ABSENT;
+        for (int i = 0; i < PRICES; i++) {
+            scale[i] = ABSENT;
+        }
+        receivedNanos = 0;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public void setTimestampMillis(long timestampMillis) {
+        this.timestampMillis = timestampMillis;
+    }
+
+    public void setVolume(long volume) {
+        this.volume = volume;
+    }
+
+    public void setPrice(int field, long unscaledValue, int priceScale) {
+        unscaled[field] = unscaledValue;
+        scale[field] = priceScale;
+    }
+
+    public boolean hasPrice(int field) {
+        return scale[field] != ABSENT;
+    }
+
+    /** {@link System#nanoTime()} when the record was received, for ingest latency. */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    public void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+
+    /** Whether the record carried what a tick needs: a symbol, a timestamp and a last price. */
+    public boolean isValid() {
+        return symbol != null && timestampMillis > 0 && hasPrice(LAST);
+    }
+
+    public StockTick toStockTick(String source) {
+        return new StockTick(
+                Instant.ofEpochMilli(timestampMillis),
+                symbol,
+                price(LAST),
+                price(OPEN),
+                price(HIGH),
+                price(LOW),
+                volume != ABSENT ? volume : null,
+                price(BID),
+                price(ASK),
+                source);
+    }
+
+    private BigDecimal price(int field) {
+        return scale[field] != ABSENT ? BigDecimal.valueOf(unscaled[field], scale[field]) : null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.stockanalytics.marketdata.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays a recorded tick file in the CSV layout of the tick export endpoint (optionally
+ * gzipped), at {@code feed.replay-file.speed} times recorded time or, at 0, as fast as the
+ * publisher takes them. Records must be in timestamp order for pacing to hold.
+ */
+@Component
+public class ReplayFileFeedHandler extends AbstractFeedHandler {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${feed.replay-file.path:}")
+    private String path;
+
+    @Value("${feed.replay-file.speed:1}")
+    private double speed;
+
+    @Value("${feed.replay-file.buffer-size:1048576}")
+    private int bufferSize;
+
+    private long wallStartNanos;
+    private long firstTs;
+
+    @Override
+    public String name() {
+        return "replay-file";
+    }
+
+    @Override
+    protected void receive(FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) throws Exception {
+        if (path == null || path.isBlank()) {
+            throw new IllegalStateException("feed.replay-file.path is not set");
+        }
+        Path file = Path.of(path);
+        wallStartNanos = 0;
+
+        try (ReadableByteChannel channel = open(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            boolean endOfInput = false;
+            while (running() && !endOfInput) {
+                endOfInput = channel.read(buffer) < 0;
+                buffer.flip();
+                drainRecords(buffer, endOfInput, System.nanoTime(), publisher, tick, parser);
+            }
+        }
+        logger.info("Feed {} finished {}", name(), file);
+    }
+
+    @Override
+    protected void onRecord(FeedTick tick, FeedPublisher publisher) {
+        long ts = tick.getTimestampMillis();
+        if (wallStartNanos == 0) {
+            wallStartNanos = System.nanoTime();
+            firstTs = ts;
+        } else if (speed > 0) {
+            long due = wallStartNanos + (long) ((ts - firstTs) * NANOS_PER_MILLI / speed);
+            for (long remaining = due - System.nanoTime(); remaining > 0 && running(); remaining = due - System.nanoTime()) {
+                LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+            }
+        }
+        // Latency is measured from when the record became due, not from when the file was read
+        tick.setReceivedNanos(System.nanoTime());
+        super.onRecord(tick, publisher);
+    }
+
+    private ReadableByteChannel open(Path file) throws Exception {
+        if (file.getFileName().toString().endsWith(".gz")) {
+            InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024);
+            return Channels.newChannel(in);
+        }
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+}
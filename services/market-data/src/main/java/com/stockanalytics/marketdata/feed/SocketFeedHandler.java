@@ -0,0 +1,82 @@
+package com.stockanalytics.marketdata.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Listens on a TCP port and publishes the newline-separated records sent by one connected feed
+ * at a time, for instance a local stand-in such as {@code scripts/feed-standin.sh}. When the
+ * feed disconnects, the next connection is accepted.
+ */
+@Component
+public class SocketFeedHandler extends AbstractFeedHandler {
+
+    @Value("${feed.socket.host:127.0.0.1}")
+    private String host;
+
+    @Value("${feed.socket.port:30002}")
+    private int port;
+
+    @Value("${feed.socket.buffer-size:262144}")
+    private int bufferSize;
+
+    private volatile ServerSocketChannel server;
+    private volatile SocketChannel connection;
+
+    @Override
+    public String name() {
+        return "socket";
+    }
+
+    @Override
+    protected void receive(FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) throws Exception {
+        server = ServerSocketChannel.open()
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(host, port));
+        logger.info("Feed {} listening on {}:{}", name(), host, port);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        while (running()) {
+            try (SocketChannel client = server.accept()) {
+                connection = client;
+                client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                logger.info("Feed {} connected: {}", name(), client.getRemoteAddress());
+
+                buffer.clear();
+                boolean endOfInput = false;
+                while (running() && !endOfInput) {
+                    endOfInput = client.read(buffer) < 0;
+                    long receivedNanos = System.nanoTime();
+                    buffer.flip();
+                    drainRecords(buffer, endOfInput, receivedNanos, publisher, tick, parser);
+                }
+                logger.info("Feed {} disconnected", name());
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    @Override
+    protected void closeResources() {
+        close(connection);
+        close(server);
+    }
+
+    private void close(Channel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (Exception e) {
+                logger.debug("Failed to close feed {} channel", name(), e);
+            }
+        }
+    }
+}
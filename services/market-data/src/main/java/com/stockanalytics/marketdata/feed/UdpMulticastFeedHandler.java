@@ -0,0 +1,82 @@
+package com.stockanalytics.marketdata.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Joins a UDP multicast group and publishes the records of every datagram, one or more
+ * newline-separated records per datagram. UDP gives no redelivery: a lost datagram is lost, which
+ * is how multicast market data feeds behave; the publisher counts malformed records as rejected.
+ */
+@Component
+public class UdpMulticastFeedHandler extends AbstractFeedHandler {
+
+    @Value("${feed.udp.group:239.1.1.1}")
+    private String group;
+
+    @Value("${feed.udp.port:30001}")
+    private int port;
+
+    @Value("${feed.udp.interface:}")
+    private String interfaceName;
+
+    @Value("${feed.udp.receive-buffer-bytes:8388608}")
+    private int receiveBufferBytes;
+
+    private volatile DatagramChannel channel;
+
+    @Override
+    public String name() {
+        return "udp";
+    }
+
+    @Override
+    protected void receive(FeedPublisher publisher, FeedTick tick, FeedRecordParser parser) throws Exception {
+        InetAddress groupAddress = InetAddress.getByName(group);
+        NetworkInterface networkInterface = interfaceName.isBlank()
+                ? NetworkInterface.getByInetAddress(InetAddress.getLocalHost())
+                : NetworkInterface.getByName(interfaceName);
+        if (networkInterface == null) {
+            throw new IllegalStateException("No network interface to join " + group + " on");
+        }
+
+        channel = DatagramChannel.open(groupAddress.getAddress().length == 4
+                        ? StandardProtocolFamily.INET : StandardProtocolFamily.INET6)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferBytes)
+                .bind(new InetSocketAddress(port));
+        channel.join(groupAddress, networkInterface);
+        logger.info("Feed {} joined {}:{} on {}", name(), group, port, networkInterface.getName());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        while (running()) {
+            buffer.clear();
+            if (channel.receive(buffer) == null) {
+                continue;
+            }
+            long receivedNanos = System.nanoTime();
+            buffer.flip();
+            drainRecords(buffer, true, receivedNanos, publisher, tick, parser);
+        }
+    }
+
+    @Override
+    protected void closeResources() {
+        DatagramChannel current = channel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                logger.debug("Failed to close feed {} channel", name(), e);
+            }
+        }
+    }
+}
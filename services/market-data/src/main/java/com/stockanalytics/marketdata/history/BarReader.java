@@ -0,0 +1,54 @@
+package com.stockanalytics.marketdata.history;
+
+import com.stockanalytics.shared.model.BarResolution;
+import com.stockanalytics.shared.model.OhlcvBar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Range reads of a symbol's closed bars at one resolution, served from the {@code {symbol, ts}}
+ * index of the resolution's collection.
+ */
+@Component
+public class BarReader {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BarReader(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * The newest {@code limit} bars starting in {@code [from, to]} (both optional), returned oldest
+     * first as charts draw them.
+     */
+    public List<OhlcvBar> find(String symbol, BarResolution resolution, Instant from, Instant to, int limit) {
+        Criteria criteria = Criteria.where("symbol").is(symbol);
+        if (from != null || to != null) {
+            Criteria ts = criteria.and("ts");
+            if (from != null) {
+                ts.gte(from);
+            }
+            if (to != null) {
+                ts.lte(to);
+            }
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "ts"))
+                .withHint(BarWriter.SYMBOL_TS_INDEX)
+                .limit(limit);
+        List<OhlcvBar> bars = mongoTemplate.find(query, OhlcvBar.class, resolution.collection());
+        Collections.reverse(bars);
+        return bars;
+    }
+}
@@ -0,0 +1,133 @@
+package com.stockanalytics.marketdata.history;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.stockanalytics.shared.model.BarResolution;
+import com.stockanalytics.shared.model.OhlcvBar;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the closed bars published by the analytics service on {@code analytics.bars} into one
+ * collection per resolution ({@code bars_1s} .. {@code bars_1d}), each batch as one unordered bulk
+ * upsert per collection.
+ *
+ * <p>Bar ids are derived from symbol and start, and the analytics service emits each bar once,
+ * in a committed transaction. Every field is set by id, so a batch redelivered after this writer
+ * fails before committing its offsets rewrites the same bars instead of adding to them.
+ *
+ * <p>Prices are written as Decimal128 so range reads and aggregations compare them numerically.
+ */
+@Component
+public class BarWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarWriter.class);
+
+    // Key pattern, also used as the query hint; the index keeps Mongo's default name
+    static final Document SYMBOL_TS_INDEX = new Document("symbol", 1).append("ts", -1);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Counter persisted;
+    private final Counter rewritten;
+    private final Counter failed;
+
+    @Autowired
+    public BarWriter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.persisted = Counter.builder("bars.persisted").register(meterRegistry);
+        this.rewritten = Counter.builder("bars.rewritten")
+                .description("Bars already stored under their id, e.g. from a redelivered batch")
+                .register(meterRegistry);
+        this.failed = Counter.builder("bars.failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void prepareCollections() {
+        // Serves the per-symbol range reads of every resolution
+        for (BarResolution resolution : BarResolution.values()) {
+            mongoTemplate.indexOps(resolution.collection()).ensureIndex(new CompoundIndexDefinition(SYMBOL_TS_INDEX));
+        }
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.analytics.bars:analytics.bars}",
+            groupId = "market-data-bars",
+            batch = "true",
+            properties = {
+                    "spring.json.value.default.type=com.stockanalytics.shared.model.OhlcvBar",
+                    "spring.json.use.type.headers=false",
+                    "isolation.level=read_committed"
+            })
+    public void handleBars(List<OhlcvBar> bars) {
+        Map<BarResolution, List<OhlcvBar>> byResolution = new EnumMap<>(BarResolution.class);
+        for (OhlcvBar bar : bars) {
+            if (bar == null || bar.getResolution() == null) {
+                continue;
+            }
+            try {
+                byResolution.computeIfAbsent(BarResolution.parse(bar.getResolution()), r -> new ArrayList<>())
+                        .add(bar);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping bar with unknown resolution: {}", bar);
+            }
+        }
+        byResolution.forEach(this::upsert);
+    }
+
+    private void upsert(BarResolution resolution, List<OhlcvBar> bars) {
+        String collection = resolution.collection();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OhlcvBar.class, collection);
+            for (OhlcvBar bar : bars) {
+                bulk.upsert(new Query(Criteria.where("_id").is(bar.getId())), fields(bar));
+            }
+            record(bulk.execute());
+        } catch (BulkOperationException e) {
+            record(e.getResult());
+            failed.increment(e.getErrors().size());
+            logger.error("Failed to persist {} of {} bars to {}", e.getErrors().size(), bars.size(), collection, e);
+        } catch (Exception e) {
+            failed.increment(bars.size());
+            logger.error("Failed to persist {} bars to {}", bars.size(), collection, e);
+        }
+    }
+
+    // Idempotent: writing the same bar again leaves the document unchanged
+    private static Update fields(OhlcvBar bar) {
+        return new Update()
+                .set("symbol", bar.getSymbol())
+                .set("res", bar.getResolution())
+                .set("ts", bar.getStart())
+                .set("open", new Decimal128(bar.getOpen()))
+                .set("high", new Decimal128(bar.getHigh()))
+                .set("low", new Decimal128(bar.getLow()))
+                .set("close", new Decimal128(bar.getClose()))
+                .set("volume", bar.getVolume())
+                .set("ticks", bar.getTickCount());
+    }
+
+    private void record(BulkWriteResult result) {
+        persisted.increment(result.getUpserts().size());
+        rewritten.increment(result.getMatchedCount());
+    }
+}
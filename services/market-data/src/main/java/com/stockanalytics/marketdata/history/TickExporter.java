@@ -0,0 +1,134 @@
+package com.stockanalytics.marketdata.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.stockanalytics.shared.model.StockTick;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes ticks to an output stream one at a time, as NDJSON (one JSON document per line) or CSV
+ * with a header row. Nothing is buffered beyond the writer's buffer, so memory stays flat however
+ * many ticks the stream yields.
+ */
+@Component
+public class TickExporter {
+
+    private static final String CSV_HEADER = "ts,symbol,last,open,high,low,volume,bid,ask,source\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TickExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every tick of {@code ticks} to {@code out} and returns how many were written. Does
+     * not close {@code out}.
+     */
+    public long export(Stream<StockTick> ticks, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long count = 0;
+        Iterator<StockTick> iterator = ticks.iterator();
+        if (format == Format.NDJSON) {
+            SequenceWriter lines = objectMapper.writerFor(StockTick.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+            while (iterator.hasNext()) {
+                lines.write(iterator.next());
+                count++;
+            }
+            lines.flush();
+            if (count > 0) {
+                writer.write('\n');
+            }
+        } else {
+            writer.write(CSV_HEADER);
+            while (iterator.hasNext()) {
+                writeCsv(iterator.next(), writer);
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsv(StockTick tick, Writer writer) throws IOException {
+        writer.write(tick.getTimestamp() != null ? Long.toString(tick.getTimestamp().toEpochMilli()) : "");
+        writer.write(',');
+        writeText(tick.getSymbol(), writer);
+        writer.write(',');
+        writeDecimal(tick.getLastPrice(), writer);
+        writer.write(',');
+        writeDecimal(tick.getOpenPrice(), writer);
+        writer.write(',');
+        writeDecimal(tick.getHighPrice(), writer);
+        writer.write(',');
+        writeDecimal(tick.getLowPrice(), writer);
+        writer.write(',');
+        writer.write(tick.getVolume() != null ? Long.toString(tick.getVolume()) : "");
+        writer.write(',');
+        writeDecimal(tick.getBidPrice(), writer);
+        writer.write(',');
+        writeDecimal(tick.getAskPrice(), writer);
+        writer.write(',');
+        writeText(tick.getSource(), writer);
+        writer.write('\n');
+    }
+
+    private static void writeDecimal(BigDecimal value, Writer writer) throws IOException {
+        if (value != null) {
+            writer.write(value.toPlainString());
+        }
+    }
+
+    private static void writeText(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,265 @@
+package com.stockanalytics.marketdata.history;
+
+import com.stockanalytics.marketdata.archive.TickArchive;
+import com.stockanalytics.shared.model.StockTick;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Newest-first reads of {@code ticks_hist} for one symbol, served from the {@code {symbol, ts}}
+ * index with the sort, range and limit pushed down to Mongo.
+ *
+ * <p>Pages are keyset-paginated on {@code ts}: the cursor is the timestamp of the last tick of a
+ * page and the next page holds the ticks strictly older than it. Ticks sharing that timestamp are
+ * never split across pages, so a page can end a few ticks short of (or, when all of it shares
+ * one timestamp, beyond) the limit.
+ *
+ * <p>Ticks older than the {@link TickArchive} horizon have been compacted out of Mongo; every read
+ * splits its range at the horizon and continues into the archive files, so callers see one
+ * history.
+ */
+@Component
+public class TickHistoryReader {
+
+    /** Document fields a caller may project on. {@code ts} is always returned. */
+    public static final Set<String> FIELDS = Set.of(
+            "symbol", "last", "open", "high", "low", "volume", "bid", "ask", "source");
+
+    @Value("${tick.history.stream-batch-size:1000}")
+    private int streamBatchSize;
+
+    private final MongoTemplate mongoTemplate;
+    private final TickArchive tickArchive;
+
+    @Autowired
+    public TickHistoryReader(MongoTemplate mongoTemplate, TickArchive tickArchive) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickArchive = tickArchive;
+    }
+
+    /**
+     * Reads one page of at most about {@code limit} ticks in {@code [from, to]} older than
+     * {@code after} (all three optional). {@code fields} limits the returned fields, null for all.
+     */
+    public TickPage page(String symbol, Instant from, Instant to, Instant after, int limit, List<String> fields) {
+        List<StockTick> ticks = find(symbol, from, to, after, limit + 1, fields);
+        if (ticks.size() <= limit) {
+            return new TickPage(ticks, null);
+        }
+
+        Instant boundary = ticks.get(limit - 1).getTimestamp();
+        if (!boundary.equals(ticks.get(limit).getTimestamp())) {
+            return new TickPage(ticks.subList(0, limit), boundary);
+        }
+
+        // Ticks at the boundary continue past the limit: end the page before them, or, when the
+        // whole page shares the timestamp, return every tick at it
+        List<StockTick> page = new ArrayList<>(limit);
+        for (int i = 0; i < limit && !ticks.get(i).getTimestamp().equals(boundary); i++) {
+            page.add(ticks.get(i));
+        }
+        if (!page.isEmpty()) {
+            return new TickPage(page, page.get(page.size() - 1).getTimestamp());
+        }
+        List<StockTick> tied = find(symbol, boundary, boundary, null, 0, fields);
+        return new TickPage(tied, boundary);
+    }
+
+    /**
+     * Streams up to {@code limit} ticks in {@code [from, to]} older than {@code after} from a Mongo
+     * cursor, then the archive, newest first. The stream holds the cursor open and must be closed.
+     */
+    public Stream<StockTick> stream(String symbol, Instant from, Instant to, Instant after, long limit,
+                                    List<String> fields) {
+        Instant horizon = tickArchive.horizon();
+        if (horizon == null || from != null && !from.isBefore(horizon)) {
+            return stream(query(symbol, from, to, after, fields, Sort.Direction.DESC), limit);
+        }
+        Stream<StockTick> archived = tickArchive.stream(symbol, from, archivedUpTo(horizon, to, after), true)
+                .map(tick -> project(tick, fields));
+        Stream<StockTick> ticks = isBefore(to, after, horizon) ? archived : Stream.concat(
+                stream(query(symbol, horizon, to, after, fields, Sort.Direction.DESC), limit), archived);
+        return limit > 0 ? ticks.limit(limit) : ticks;
+    }
+
+    /**
+     * Streams every tick in {@code [from, to]} (both optional) from the archive, then a Mongo
+     * cursor, oldest first. The stream holds the cursor open and must be closed.
+     */
+    public Stream<StockTick> streamAscending(String symbol, Instant from, Instant to) {
+        Instant horizon = tickArchive.horizon();
+        if (horizon == null || from != null && !from.isBefore(horizon)) {
+            return stream(query(symbol, from, to, null, null, Sort.Direction.ASC), 0);
+        }
+        Stream<StockTick> archived = tickArchive.stream(symbol, from, archivedUpTo(horizon, to, null), false);
+        return isBefore(to, null, horizon) ? archived : Stream.concat(
+                archived, stream(query(symbol, horizon, to, null, null, Sort.Direction.ASC), 0));
+    }
+
+    /**
+     * Streams the ticks of {@code symbols} (all symbols when empty) from {@code from} (exclusive
+     * when resuming after it) up to {@code to}, in timestamp order across symbols, from the archive
+     * and then a Mongo cursor on the {@code ts} index. The stream holds the cursor open and must be
+     * closed.
+     */
+    public Stream<StockTick> streamAllAscending(Collection<String> symbols, Instant from, boolean fromExclusive,
+                                                Instant to) {
+        Instant horizon = tickArchive.horizon();
+        if (horizon != null && (from == null || from.isBefore(horizon))) {
+            Stream<StockTick> archived = tickArchive.streamAll(symbols, from, fromExclusive, archivedUpTo(horizon, to, null));
+            return isBefore(to, null, horizon) ? archived : Stream.concat(
+                    archived, streamAllAscending(symbols, horizon, false, to));
+        }
+
+        Criteria criteria = new Criteria();
+        if (symbols != null && !symbols.isEmpty()) {
+            criteria.and("symbol").in(symbols);
+        }
+        Criteria ts = fromExclusive ? criteria.and("ts").gt(from) : criteria.and("ts").gte(from);
+        if (to != null) {
+            ts.lte(to);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "ts"))
+                .withHint(TickHistoryWriter.TS_INDEX);
+        return stream(query, 0);
+    }
+
+    /**
+     * The oldest tick timestamp still in Mongo, or null when the collection is empty.
+     */
+    public Instant oldestStored() {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "ts"))
+                .withHint(TickHistoryWriter.TS_INDEX)
+                .limit(1);
+        query.fields().include("ts");
+        StockTick oldest = mongoTemplate.findOne(query, StockTick.class, TickHistoryWriter.COLLECTION);
+        return oldest != null ? oldest.getTimestamp() : null;
+    }
+
+    /** The symbols with ticks stored in Mongo in {@code [from, to)}. */
+    public List<String> storedSymbols(Instant from, Instant to) {
+        Query query = new Query(Criteria.where("ts").gte(from).lt(to));
+        return mongoTemplate.findDistinct(query, "symbol", TickHistoryWriter.COLLECTION, String.class);
+    }
+
+    /**
+     * The ticks of a page query, newest first: from Mongo down to the archive horizon, then from
+     * the archive until {@code limit} (0 for all) is reached.
+     */
+    private List<StockTick> find(String symbol, Instant from, Instant to, Instant after, int limit,
+                                 List<String> fields) {
+        Instant horizon = tickArchive.horizon();
+        boolean archived = horizon != null && (from == null || from.isBefore(horizon));
+        List<StockTick> ticks = new ArrayList<>();
+        if (!archived || !isBefore(to, after, horizon)) {
+            Query query = query(symbol, archived ? horizon : from, to, after, fields, Sort.Direction.DESC);
+            if (limit > 0) {
+                query.limit(limit);
+            }
+            ticks.addAll(mongoTemplate.find(query, StockTick.class, TickHistoryWriter.COLLECTION));
+        }
+        if (archived && (limit == 0 || ticks.size() < limit)) {
+            try (Stream<StockTick> older = tickArchive.stream(symbol, from, archivedUpTo(horizon, to, after), true)) {
+                Stream<StockTick> remaining = limit > 0 ? older.limit(limit - ticks.size()) : older;
+                remaining.map(tick -> project(tick, fields)).forEach(ticks::add);
+            }
+        }
+        return ticks;
+    }
+
+    /** Whether the upper bound of a range, {@code to} or {@code after}, lies before the horizon. */
+    private static boolean isBefore(Instant to, Instant after, Instant horizon) {
+        return after != null && !after.isAfter(horizon) || to != null && to.isBefore(horizon);
+    }
+
+    /** The inclusive upper bound of the archived part of a range. */
+    private static Instant archivedUpTo(Instant horizon, Instant to, Instant after) {
+        Instant upper = horizon.minusMillis(1);
+        if (to != null && to.isBefore(upper)) {
+            upper = to;
+        }
+        if (after != null && after.minusMillis(1).isBefore(upper)) {
+            upper = after.minusMillis(1);
+        }
+        return upper;
+    }
+
+    /** Clears the fields an archived tick would not have carried under the projection. */
+    private static StockTick project(StockTick tick, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return tick;
+        }
+        for (String field : fields) {
+            if (!FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown tick field: " + field);
+            }
+        }
+        return new StockTick(tick.getTimestamp(),
+                fields.contains("symbol") ? tick.getSymbol() : null,
+                fields.contains("last") ? tick.getLastPrice() : null,
+                fields.contains("open") ? tick.getOpenPrice() : null,
+                fields.contains("high") ? tick.getHighPrice() : null,
+                fields.contains("low") ? tick.getLowPrice() : null,
+                fields.contains("volume") ? tick.getVolume() : null,
+                fields.contains("bid") ? tick.getBidPrice() : null,
+                fields.contains("ask") ? tick.getAskPrice() : null,
+                fields.contains("source") ? tick.getSource() : null);
+    }
+
+    private Stream<StockTick> stream(Query query, long limit) {
+        query.cursorBatchSize(streamBatchSize);
+        if (limit > 0) {
+            query.limit((int) Math.min(limit, Integer.MAX_VALUE));
+        }
+        return mongoTemplate.stream(query, StockTick.class, TickHistoryWriter.COLLECTION);
+    }
+
+    private static Query query(String symbol, Instant from, Instant to, Instant after, List<String> fields,
+                               Sort.Direction direction) {
+        Criteria criteria = Criteria.where("symbol").is(symbol);
+        if (from != null || to != null || after != null) {
+            Criteria ts = criteria.and("ts");
+            if (from != null) {
+                ts.gte(from);
+            }
+            if (after != null && (to == null || !after.isAfter(to))) {
+                ts.lt(after);
+            } else if (to != null) {
+                ts.lte(to);
+            }
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "ts"))
+                .withHint(TickHistoryWriter.SYMBOL_TS_INDEX);
+        if (fields != null && !fields.isEmpty()) {
+            query.fields().include("ts");
+            for (String field : fields) {
+                if (!FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Unknown tick field: " + field);
+                }
+                query.fields().include(field);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * A page of ticks, newest first, and the cursor of the next page (null on the last page).
+     */
+    public record TickPage(List<StockTick> ticks, Instant nextCursor) {}
+}
@@ -0,0 +1,280 @@
+package com.stockanalytics.marketdata.history;
+
+import com.stockanalytics.marketdata.archive.TickArchive;
+import com.stockanalytics.shared.model.StockTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind persistence of every generated tick into the {@code ticks_hist} time-series
+ * collection, which is created on startup together with its {@code {symbol, ts}} index. Ticks
+ * are queued in a bounded buffer and written by background writers as unordered bulk inserts,
+ * flushed when a batch is full or after the flush interval.
+ *
+ * <p>When the buffer is full, {@link #submit} blocks for up to the enqueue timeout, which slows the
+ * generator down; a tick that still does not fit is dropped and counted. The
+ * {@code ticks.history.persisted.ratio} gauge is persisted / (persisted + dropped + failed).
+ *
+ * <p>Ticks older than the {@link TickArchive} horizon, e.g. from a replayed export or a late
+ * backfill, are not written: reads serve that range from the archive only and the archiver never
+ * revisits it, so they would never be seen. Neither are ticks of a day the archiver has
+ * {@link #seal sealed} for archiving. They are counted in {@code ticks.history.archived}.
+ */
+@Component
+public class TickHistoryWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickHistoryWriter.class);
+
+    static final String COLLECTION = "ticks_hist";
+    // Key patterns, also used as query hints. The indexes keep Mongo's default names, so the ones
+    // scripts/mongo-setup.sh creates are the same indexes
+    static final Document SYMBOL_TS_INDEX = new Document("symbol", 1).append("ts", -1);
+    static final Document TS_INDEX = new Document("ts", 1);
+
+    @Value("${tick.history.queue-capacity:200000}")
+    private int queueCapacity;
+
+    @Value("${tick.history.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${tick.history.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${tick.history.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${tick.history.writers:2}")
+    private int writerCount;
+
+    private final MongoTemplate mongoTemplate;
+    private final TickArchive tickArchive;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<StockTick> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+    // Ticks before this are no longer written; the archive horizon or the day being archived
+    private volatile Instant sealedBefore;
+    private final ReadWriteLock sealLock = new ReentrantReadWriteLock();
+
+    private Counter persisted;
+    private Counter dropped;
+    private Counter failed;
+    private Counter belowHorizon;
+    private Timer insertTimer;
+
+    @Autowired
+    public TickHistoryWriter(MongoTemplate mongoTemplate, TickArchive tickArchive, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.tickArchive = tickArchive;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        prepareCollection();
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("ticks.history.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        persisted = Counter.builder("ticks.history.persisted").register(meterRegistry);
+        dropped = Counter.builder("ticks.history.dropped").register(meterRegistry);
+        failed = Counter.builder("ticks.history.failed").register(meterRegistry);
+        belowHorizon = Counter.builder("ticks.history.archived")
+                .description("Ticks not written because they are older than the archive horizon or a sealed day")
+                .register(meterRegistry);
+        Gauge.builder("ticks.history.persisted.ratio", this, TickHistoryWriter::persistedRatio)
+                .register(meterRegistry);
+        insertTimer = Timer.builder("ticks.history.insert.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < writerCount; i++) {
+            Thread writer = new Thread(this::runWriter, "tick-history-writer-" + (i + 1));
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    /**
+     * Queues a tick for persistence. Returns false when it was dropped because the buffer stayed
+     * full for the whole enqueue timeout, or because it is older than the archive horizon or a
+     * sealed day.
+     */
+    public boolean submit(StockTick tick) {
+        if (isArchived(tick, cutoff())) {
+            belowHorizon.increment();
+            return false;
+        }
+        try {
+            if (queue.offer(tick, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Stops writing ticks older than {@code cutoff} and returns once every batch already past that
+     * check is in Mongo, so the ticks before it stay as they are until they are deleted. The
+     * archiver seals a day before reading it; the seal only moves forward and lasts until restart,
+     * after which the archive horizon applies.
+     */
+    public void seal(Instant cutoff) {
+        sealLock.writeLock().lock();
+        try {
+            if (sealedBefore == null || cutoff.isAfter(sealedBefore)) {
+                sealedBefore = cutoff;
+            }
+        } finally {
+            sealLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the ticks in {@code [from, to)} once they have been archived and returns how many
+     * were removed; {@code from} is open-ended when null.
+     */
+    public long delete(Instant from, Instant to) {
+        Criteria ts = Criteria.where("ts").lt(to);
+        Query query = new Query(from != null ? ts.gte(from) : ts);
+        return mongoTemplate.remove(query, COLLECTION).getDeletedCount();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.interrupt();
+        }
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void prepareCollection() {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            try {
+                mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty().timeSeries(
+                        CollectionOptions.TimeSeriesOptions.timeSeries("ts")
+                                .metaField("symbol")
+                                .granularity(Granularity.SECONDS)));
+                logger.info("Created time-series collection: {}", COLLECTION);
+            } catch (Exception e) {
+                // Another instance created it first, or the server predates time-series collections
+                logger.warn("Could not create time-series collection: {}", COLLECTION, e);
+            }
+        }
+
+        // Serves the newest-first per-symbol history reads
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(new CompoundIndexDefinition(SYMBOL_TS_INDEX));
+        // Serves time-ordered reads across symbols, i.e. replays
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(new CompoundIndexDefinition(TS_INDEX));
+    }
+
+    private void runWriter() {
+        List<StockTick> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                StockTick first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Shutting down: flush whatever is left
+                queue.drainTo(batch, batchSize);
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void insert(List<StockTick> batch) {
+        // Held until the batch is written, so a seal waits for batches that passed the check
+        sealLock.readLock().lock();
+        try {
+            // The cutoff may have moved while the ticks were queued
+            Instant cutoff = cutoff();
+            int queued = batch.size();
+            if (cutoff != null && batch.removeIf(tick -> isArchived(tick, cutoff))) {
+                belowHorizon.increment(queued - batch.size());
+                if (batch.isEmpty()) {
+                    return;
+                }
+            }
+            write(batch);
+        } finally {
+            sealLock.readLock().unlock();
+        }
+    }
+
+    private void write(List<StockTick> batch) {
+        long start = System.nanoTime();
+        try {
+            // Unordered: the server may apply the batch in parallel and one bad document does not stop the rest
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StockTick.class, COLLECTION);
+            bulk.insert(batch);
+            persisted.increment(bulk.execute().getInsertedCount());
+        } catch (BulkOperationException e) {
+            int inserted = e.getResult().getInsertedCount();
+            persisted.increment(inserted);
+            failed.increment(batch.size() - inserted);
+            logger.error("Failed to persist {} of {} ticks to {}", batch.size() - inserted, batch.size(), COLLECTION, e);
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            logger.error("Failed to persist {} ticks to {}", batch.size(), COLLECTION, e);
+        }
+        insertTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Instant cutoff() {
+        Instant horizon = tickArchive.horizon();
+        Instant sealed = sealedBefore;
+        return sealed == null || horizon != null && horizon.isAfter(sealed) ? horizon : sealed;
+    }
+
+    private static boolean isArchived(StockTick tick, Instant cutoff) {
+        return cutoff != null && tick.getTimestamp() != null && tick.getTimestamp().isBefore(cutoff);
+    }
+
+    private double persistedRatio() {
+        double ok = persisted.count();
+        double total = ok + dropped.count() + failed.count();
+        return total == 0 ? 1.0 : ok / total;
+    }
+}
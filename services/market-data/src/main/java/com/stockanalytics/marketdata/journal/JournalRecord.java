@@ -0,0 +1,189 @@
+package com.stockanalytics.marketdata.journal;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Fixed-size journal record layout, and a flyweight view of one record in a mapped segment.
+ * Accessors read the mapped bytes in place; only {@link #symbol()} and {@link #toStockTick()}
+ * allocate.
+ *
+ * <pre>
+ *   0  long     timestamp (epoch millis), written last: 0 marks the end of the segment
+ *   8  byte[16] symbol (ASCII, zero padded)
+ *  24  byte     price scale
+ *  25  byte     presence flags, one bit per price and {@link #VOLUME_FLAG}
+ *  26  byte     symbol length
+ *  27  byte     source length
+ *  32  long[6]  last, open, high, low, bid, ask (fixed-point at the scale)
+ *  80  long     volume
+ *  88  byte[16] source (ASCII, zero padded)
+ * 104           reserved up to {@link #SIZE}
+ * </pre>
+ */
+public final class JournalRecord {
+
+    public static final int SIZE = 128;
+    public static final int MAX_SYMBOL_LENGTH = 16;
+    public static final int MAX_SOURCE_LENGTH = 16;
+
+    public static final int LAST = 0;
+    public static final int OPEN = 1;
+    public static final int HIGH = 2;
+    public static final int LOW = 3;
+    public static final int BID = 4;
+    public static final int ASK = 5;
+    static final int PRICES = 6;
+    static final int VOLUME_FLAG = 1 << PRICES;
+
+    static final int TIMESTAMP = 0;
+    static final int SYMBOL = 8;
+    static final int SCALE = 24;
+    static final int FLAGS = 25;
+    static final int SYMBOL_LENGTH = 26;
+    static final int SOURCE_LENGTH = 27;
+    static final int PRICE = 32;
+    static final int VOLUME = 80;
+    static final int SOURCE = 88;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    JournalRecord wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public long timestampMillis() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    /** Whether this record's symbol is {@code symbol}, given as ASCII bytes. */
+    public boolean isSymbol(byte[] symbol) {
+        if (buffer.get(offset + SYMBOL_LENGTH) != symbol.length) {
+            return false;
+        }
+        for (int i = 0; i < symbol.length; i++) {
+            if (buffer.get(offset + SYMBOL + i) != symbol[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String symbol() {
+        return ascii(SYMBOL, buffer.get(offset + SYMBOL_LENGTH));
+    }
+
+    public String source() {
+        return ascii(SOURCE, buffer.get(offset + SOURCE_LENGTH));
+    }
+
+    public int scale() {
+        return buffer.get(offset + SCALE);
+    }
+
+    public boolean hasPrice(int field) {
+        return (buffer.get(offset + FLAGS) & (1 << field)) != 0;
+    }
+
+    /** Price {@code field} in fixed-point ticks at {@link #scale()}. */
+    public long priceTicks(int field) {
+        return buffer.getLong(offset + PRICE + field * Long.BYTES);
+    }
+
+    public boolean hasVolume() {
+        return (buffer.get(offset + FLAGS) & VOLUME_FLAG) != 0;
+    }
+
+    public long volume() {
+        return buffer.getLong(offset + VOLUME);
+    }
+
+    public StockTick toStockTick() {
+        return new StockTick(
+                Instant.ofEpochMilli(timestampMillis()),
+                symbol(),
+                price(LAST),
+                price(OPEN),
+                price(HIGH),
+                price(LOW),
+                hasVolume() ? volume() : null,
+                price(BID),
+                price(ASK),
+                source());
+    }
+
+    private BigDecimal price(int field) {
+        return hasPrice(field) ? FixedPoint.toBigDecimal(priceTicks(field), scale()) : null;
+    }
+
+    private String ascii(int field, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset + field, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes {@code tick} at {@code offset}, timestamp last so a reader never sees a partly
+     * written record. Returns false, writing nothing, when the tick does not fit the layout.
+     */
+    static boolean write(ByteBuffer buffer, int offset, StockTick tick) {
+        String symbol = tick.getSymbol();
+        String source = tick.getSource() != null ? tick.getSource() : "";
+        if (tick.getTimestamp() == null || tick.getTimestamp().toEpochMilli() <= 0
+                || symbol == null || symbol.length() > MAX_SYMBOL_LENGTH || tick.getLastPrice() == null) {
+            return false;
+        }
+
+        BigDecimal[] prices = {tick.getLastPrice(), tick.getOpenPrice(), tick.getHighPrice(),
+                tick.getLowPrice(), tick.getBidPrice(), tick.getAskPrice()};
+        int scale = 0;
+        for (BigDecimal price : prices) {
+            if (price != null) {
+                scale = Math.max(scale, price.scale());
+            }
+        }
+        if (scale > FixedPoint.MAX_SCALE) {
+            return false;
+        }
+
+        int flags = 0;
+        for (int i = 0; i < PRICES; i++) {
+            long ticks = 0;
+            if (prices[i] != null) {
+                ticks = FixedPoint.toTicks(prices[i], scale);
+                flags |= 1 << i;
+            }
+            buffer.putLong(offset + PRICE + i * Long.BYTES, ticks);
+        }
+        if (tick.getVolume() != null) {
+            flags |= VOLUME_FLAG;
+        }
+        buffer.putLong(offset + VOLUME, tick.getVolume() != null ? tick.getVolume() : 0L);
+
+        putAscii(buffer, offset + SYMBOL, symbol, MAX_SYMBOL_LENGTH);
+        int sourceLength = Math.min(source.length(), MAX_SOURCE_LENGTH);
+        putAscii(buffer, offset + SOURCE, source, MAX_SOURCE_LENGTH);
+        buffer.put(offset + SCALE, (byte) scale);
+        buffer.put(offset + FLAGS, (byte) flags);
+        buffer.put(offset + SYMBOL_LENGTH, (byte) symbol.length());
+        buffer.put(offset + SOURCE_LENGTH, (byte) sourceLength);
+
+        buffer.putLong(offset + TIMESTAMP, tick.getTimestamp().toEpochMilli());
+        return true;
+    }
+
+    private static void putAscii(ByteBuffer buffer, int offset, String value, int width) {
+        int length = Math.min(value.length(), width);
+        for (int i = 0; i < width; i++) {
+            buffer.put(offset + i, i < length ? (byte) value.charAt(i) : 0);
+        }
+    }
+}
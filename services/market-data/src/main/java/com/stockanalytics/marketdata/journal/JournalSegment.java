@@ -0,0 +1,191 @@
+package com.stockanalytics.marketdata.journal;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One preallocated, memory-mapped journal file of fixed-size records, with its sparse time index:
+ * a side file holding, for every {@code indexInterval}-th record, the highest timestamp of all the
+ * records before it. Since that key only grows, a seek can skip every indexed block whose key is
+ * below the target even when ticks arrive slightly out of order.
+ *
+ * <p>Files are named {@code ticks-<yyyyMMdd>-<seq>.jnl} and {@code .idx}; the sequence rolls when a
+ * day outgrows one segment.
+ */
+final class JournalSegment {
+
+    static final String PREFIX = "ticks-";
+    static final String DATA_SUFFIX = ".jnl";
+    static final String INDEX_SUFFIX = ".idx";
+    static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Pattern NAME = Pattern.compile("ticks-(\\d{8})-(\\d{4})\\.jnl");
+
+    final Path path;
+    final LocalDate day;
+    final int sequence;
+    final MappedByteBuffer data;
+    final MappedByteBuffer index;
+    final int capacity;
+    final int indexInterval;
+
+    int count;
+    long maxTimestamp = Long.MIN_VALUE;
+
+    private JournalSegment(Path path, LocalDate day, int sequence, MappedByteBuffer data, MappedByteBuffer index,
+                           int indexInterval) {
+        this.path = path;
+        this.day = day;
+        this.sequence = sequence;
+        this.data = data;
+        this.index = index;
+        this.capacity = data.capacity() / JournalRecord.SIZE;
+        this.indexInterval = indexInterval;
+    }
+
+    static Path dataPath(Path dir, LocalDate day, int sequence) {
+        return dir.resolve(PREFIX + DAY.format(day) + "-" + String.format("%04d", sequence) + DATA_SUFFIX);
+    }
+
+    private static Path indexPath(Path dataPath) {
+        String name = dataPath.getFileName().toString();
+        return dataPath.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /** Day and sequence of a segment file name, or null when it is not one. */
+    static Matcher parseName(Path path) {
+        Matcher matcher = NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? matcher : null;
+    }
+
+    /**
+     * Opens (creating and preallocating if needed) a segment for appending and recovers its write
+     * position: records are contiguous, so the end is the first record whose timestamp is 0.
+     */
+    static JournalSegment openForWrite(Path dir, LocalDate day, int sequence, long segmentBytes,
+                                       int indexInterval) throws IOException {
+        Path path = dataPath(dir, day, sequence);
+        int records = (int) Math.min(segmentBytes / JournalRecord.SIZE, Integer.MAX_VALUE / JournalRecord.SIZE);
+        JournalSegment segment = new JournalSegment(path, day, sequence,
+                map(path, FileChannel.MapMode.READ_WRITE, (long) records * JournalRecord.SIZE),
+                map(indexPath(path), FileChannel.MapMode.READ_WRITE, indexBytes(records, indexInterval)),
+                indexInterval);
+        segment.recover();
+        return segment;
+    }
+
+    /** Maps an existing segment read-only, at its size on disk. */
+    static JournalSegment openForRead(Path path, int indexInterval) throws IOException {
+        Matcher name = parseName(path);
+        if (name == null) {
+            throw new IllegalArgumentException("Not a journal segment: " + path);
+        }
+        long size = Files.size(path);
+        int records = (int) (size / JournalRecord.SIZE);
+        Path indexPath = indexPath(path);
+        MappedByteBuffer index = Files.exists(indexPath)
+                ? map(indexPath, FileChannel.MapMode.READ_ONLY, Files.size(indexPath))
+                : null;
+        return new JournalSegment(path, LocalDate.parse(name.group(1), DAY), Integer.parseInt(name.group(2)),
+                map(path, FileChannel.MapMode.READ_ONLY, (long) records * JournalRecord.SIZE), index, indexInterval);
+    }
+
+    private static long indexBytes(int records, int indexInterval) {
+        return ((long) records / indexInterval + 1) * Long.BYTES;
+    }
+
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, long size) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private void recover() {
+        int low = 0;
+        int high = capacity;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        count = low;
+
+        // The highest timestamp so far is the last index key or a record after it
+        int lastIndexed = count == 0 ? 0 : ((count - 1) / indexInterval) * indexInterval;
+        maxTimestamp = count == 0 ? Long.MIN_VALUE : indexKey(lastIndexed / indexInterval);
+        for (int i = lastIndexed; i < count; i++) {
+            maxTimestamp = Math.max(maxTimestamp, timestampAt(i));
+        }
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /** Appends a record; the caller checks {@link #isFull()} first. */
+    boolean append(StockTick tick) {
+        if (count % indexInterval == 0) {
+            index.putLong((count / indexInterval) * Long.BYTES, maxTimestamp);
+        }
+        if (!JournalRecord.write(data, count * JournalRecord.SIZE, tick)) {
+            return false;
+        }
+        maxTimestamp = Math.max(maxTimestamp, tick.getTimestamp().toEpochMilli());
+        count++;
+        return true;
+    }
+
+    long timestampAt(int record) {
+        return data.getLong(record * JournalRecord.SIZE + JournalRecord.TIMESTAMP);
+    }
+
+    private long indexKey(int entry) {
+        return index.getLong(entry * Long.BYTES);
+    }
+
+    /**
+     * First record that may hold a timestamp at or after {@code timestampMillis}: the start of the
+     * last indexed block whose key (highest timestamp before it) is still below the target.
+     */
+    int seek(long timestampMillis) {
+        if (index == null) {
+            return 0;
+        }
+        int entries = Math.min(index.capacity() / Long.BYTES, (capacity + indexInterval - 1) / indexInterval);
+        int low = 0;
+        int high = entries - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            long key = indexKey(mid);
+            // Unwritten entries read 0 and belong to blocks past the end
+            if (key != 0 && key < timestampMillis) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low * indexInterval;
+    }
+
+    void force() {
+        data.force();
+        index.force();
+    }
+}
@@ -0,0 +1,175 @@
+package com.stockanalytics.marketdata.journal;
+
+import com.stockanalytics.shared.model.StockTick;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only, memory-mapped local journal of ticks: fixed-size {@link JournalRecord}s in
+ * preallocated segments rolled every UTC day (and when a day outgrows a segment), each with a
+ * sparse time index. Appending is a bounds check and a few stores into the mapping, so capture
+ * keeps up with the generator and feeds even while Mongo or Kafka are degraded, and what was
+ * appended survives a crash of the process. A flusher thread forces the mappings to disk every
+ * flush interval, bounding what an OS crash can lose; segments left behind by a day or sequence
+ * roll are forced once more on its next run.
+ *
+ * <p>Appends are serialized; forcing happens outside their lock, so an append never waits for an
+ * msync. {@link TickJournalReader} reads the segments independently.
+ */
+public class TickJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final int indexInterval;
+    private final Clock clock;
+
+    // Written under the lock, read by the flusher without it
+    private volatile JournalSegment active;
+    private long nextRollMillis;
+    // Segments rolled away from and not forced since
+    private final Queue<JournalSegment> retired = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean open = true;
+
+    public TickJournal(Path dir, long segmentBytes, int indexInterval, long flushIntervalMs) {
+        this(dir, segmentBytes, indexInterval, flushIntervalMs, Clock.systemUTC());
+    }
+
+    TickJournal(Path dir, long segmentBytes, int indexInterval, long flushIntervalMs, Clock clock) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+        this.clock = clock;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create tick journal directory " + dir, e);
+        }
+
+        if (flushIntervalMs > 0) {
+            flusher = new Thread(() -> {
+                while (open) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(flushIntervalMs);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    force();
+                }
+            }, "tick-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Appends {@code tick}. Returns false when it does not fit the record layout (e.g. a symbol
+     * over 16 characters) or the segment could not be opened; journal failures never reach the
+     * caller's tick path.
+     */
+    public synchronized boolean append(StockTick tick) {
+        if (!open) {
+            return false;
+        }
+        try {
+            JournalSegment segment = segmentForAppend();
+            if (segment.append(tick)) {
+                appended.incrementAndGet();
+                return true;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to open tick journal segment in {}", dir, e);
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    private JournalSegment segmentForAppend() throws IOException {
+        long now = clock.millis();
+        if (active == null || now >= nextRollMillis) {
+            LocalDate day = LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+            if (active != null) {
+                retire(active);
+            }
+            active = JournalSegment.openForWrite(dir, day, lastSequence(day), segmentBytes, indexInterval);
+            nextRollMillis = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            logger.info("Appending ticks to {} at record {}", active.path, active.count);
+        }
+        while (active.isFull()) {
+            JournalSegment full = active;
+            retire(full);
+            active = JournalSegment.openForWrite(dir, full.day, full.sequence + 1, segmentBytes, indexInterval);
+            logger.info("Rolled tick journal to {}", active.path);
+        }
+        return active;
+    }
+
+    /** Highest existing segment sequence of {@code day}, so a restart appends to it. */
+    private int lastSequence(LocalDate day) {
+        int sequence = 0;
+        while (Files.exists(JournalSegment.dataPath(dir, day, sequence + 1))) {
+            sequence++;
+        }
+        return sequence;
+    }
+
+    private void retire(JournalSegment segment) {
+        if (flusher != null) {
+            retired.add(segment);
+        } else {
+            segment.force();
+        }
+    }
+
+    /** Forces the segments rolled away from and the active one; does not block appends. */
+    public void force() {
+        JournalSegment segment;
+        while ((segment = retired.poll()) != null) {
+            segment.force();
+        }
+        segment = active;
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    public long getAppended() {
+        return appended.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        force();
+    }
+}
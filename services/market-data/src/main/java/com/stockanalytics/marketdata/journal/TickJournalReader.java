@@ -0,0 +1,133 @@
+package com.stockanalytics.marketdata.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
+
+/**
+ * Sequential reads of the tick journal: {@link #cursor} seeks to a timestamp through each
+ * segment's sparse index and iterates the records in append order, optionally of one symbol,
+ * through a reused {@link JournalRecord} view over the mapping, so a replay copies nothing.
+ *
+ * <p>Segments of days before {@code from} are skipped whole. Reads of the segment being appended
+ * to see the records appended so far.
+ */
+public class TickJournalReader {
+
+    private final Path dir;
+    private final int indexInterval;
+
+    public TickJournalReader(Path dir, int indexInterval) {
+        this.dir = dir;
+        this.indexInterval = indexInterval;
+    }
+
+    /** Segment files in append order. */
+    public List<Path> segments() {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> JournalSegment.parseName(path) != null)
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list tick journal " + dir, e);
+        }
+    }
+
+    /**
+     * Iterates the records with a timestamp in {@code [from, to]} (both optional), of
+     * {@code symbol} only when it is not null.
+     */
+    public Cursor cursor(Instant from, Instant to, String symbol) {
+        List<Path> selected = new ArrayList<>();
+        LocalDate fromDay = from != null ? LocalDate.ofInstant(from, ZoneOffset.UTC) : null;
+        LocalDate toDay = to != null ? LocalDate.ofInstant(to, ZoneOffset.UTC) : null;
+        for (Path path : segments()) {
+            Matcher name = JournalSegment.parseName(path);
+            LocalDate day = LocalDate.parse(name.group(1), JournalSegment.DAY);
+            // Segments roll on append time, so one can start with late ticks stamped the day before
+            if ((fromDay == null || !day.isBefore(fromDay))
+                    && (toDay == null || !day.isAfter(toDay.plusDays(1)))) {
+                selected.add(path);
+            }
+        }
+        return new Cursor(selected,
+                from != null ? from.toEpochMilli() : Long.MIN_VALUE,
+                to != null ? to.toEpochMilli() : Long.MAX_VALUE,
+                symbol != null ? symbol.getBytes(StandardCharsets.US_ASCII) : null);
+    }
+
+    /** Forward-only iteration over matching records. The record view is reused by {@link #next}. */
+    public final class Cursor {
+
+        private final List<Path> paths;
+        private final long from;
+        private final long to;
+        private final byte[] symbol;
+        private final JournalRecord record = new JournalRecord();
+
+        private int pathIndex = -1;
+        private JournalSegment segment;
+        private int position;
+
+        private Cursor(List<Path> paths, long from, long to, byte[] symbol) {
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+            this.symbol = symbol;
+        }
+
+        /** Advances to the next matching record; false once the journal is exhausted. */
+        public boolean next() {
+            while (true) {
+                if (segment == null || position >= segment.capacity) {
+                    if (!nextSegment()) {
+                        return false;
+                    }
+                }
+                int offset = position * JournalRecord.SIZE;
+                long ts = segment.data.getLong(offset + JournalRecord.TIMESTAMP);
+                if (ts == 0) {
+                    // End of this segment
+                    position = segment.capacity;
+                    continue;
+                }
+                position++;
+                record.wrap(segment.data, offset);
+                if (ts >= from && ts <= to && (symbol == null || record.isSymbol(symbol))) {
+                    return true;
+                }
+            }
+        }
+
+        public JournalRecord record() {
+            return record;
+        }
+
+        private boolean nextSegment() {
+            if (++pathIndex >= paths.size()) {
+                segment = null;
+                return false;
+            }
+            try {
+                segment = JournalSegment.openForRead(paths.get(pathIndex), indexInterval);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map tick journal segment " + paths.get(pathIndex), e);
+            }
+            position = from != Long.MIN_VALUE ? segment.seek(from) : 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.stockanalytics.marketdata.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A named replay of {@code ticks_hist} and how far it got. Every tick up to and including
+ * {@code position} has been sent, so a resumed replay continues strictly after it.
+ */
+@Document(collection = "replay_checkpoints")
+public class ReplayCheckpoint {
+
+    @Id
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("from")
+    @Field("from")
+    private Instant from;
+
+    @JsonProperty("to")
+    @Field("to")
+    private Instant to;
+
+    @JsonProperty("symbols")
+    @Field("symbols")
+    private List<String> symbols; // Empty for every symbol
+
+    @JsonProperty("speed")
+    @Field("speed")
+    private double speed; // Multiple of recorded time, 0 for as fast as possible
+
+    @JsonProperty("retime")
+    @Field("retime")
+    private boolean retime; // Re-stamp ticks with the replay's wall-clock time, or the send time at max speed
+
+    @JsonProperty("position")
+    @Field("position")
+    private Instant position;
+
+    @JsonProperty("replayed")
+    @Field("replayed")
+    private long replayed;
+
+    @JsonProperty("completed")
+    @Field("completed")
+    private boolean completed;
+
+    @JsonProperty("updatedAt")
+    @Field("updatedAt")
+    private Instant updatedAt;
+
+    // Constructors
+    public ReplayCheckpoint() {}
+
+    public ReplayCheckpoint(String name, Instant from, Instant to, List<String> symbols, double speed, boolean retime) {
+        this.name = name;
+        this.from = from;
+        this.to = to;
+        this.symbols = symbols;
+        this.speed = speed;
+        this.retime = retime;
+        this.updatedAt = Instant.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public void setSymbols(List<String> symbols) {
+        this.symbols = symbols;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public boolean isRetime() {
+        return retime;
+    }
+
+    public void setRetime(boolean retime) {
+        this.retime = retime;
+    }
+
+    public Instant getPosition() {
+        return position;
+    }
+
+    public void setPosition(Instant position) {
+        this.position = position;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(long replayed) {
+        this.replayed = replayed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
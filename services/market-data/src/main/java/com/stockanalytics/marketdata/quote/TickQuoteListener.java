@@ -0,0 +1,42 @@
+package com.stockanalytics.marketdata.quote;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Feeds the latest-quote table from {@code stocks.ticks}, for ticks this instance did not generate
+ * itself (other market-data instances or external producers). Each instance consumes every
+ * partition in its own group, named by {@code kafka.consumer.instance-id}: the first run starts
+ * from the latest offset and a restart resumes where it stopped. Off unless
+ * {@code quotes.consume-ticks} is set.
+ */
+@Component
+public class TickQuoteListener {
+
+    private final LatestQuoteTable latestQuoteTable;
+
+    @Autowired
+    public TickQuoteListener(LatestQuoteTable latestQuoteTable) {
+        this.latestQuoteTable = latestQuoteTable;
+    }
+
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}",
+            groupId = "market-data-quotes-${kafka.consumer.instance-id:local}",
+            batch = "true",
+            autoStartup = "${quotes.consume-ticks:false}",
+            properties = {
+                    "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+                    "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}",
+                    "auto.offset.reset=latest"
+            })
+    public void handleTicks(List<StockTick> ticks) {
+        for (StockTick tick : ticks) {
+            latestQuoteTable.update(tick);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.stockanalytics.marketdata.repository;
+
+import com.stockanalytics.marketdata.model.ReplayCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReplayCheckpointRepository extends MongoRepository<ReplayCheckpoint, String> {
+}
@@ -0,0 +1,87 @@
+package com.stockanalytics.marketdata.service;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Random-walk state of the generated symbols, held in primitive arrays indexed by symbol. Prices
+ * are fixed-point ticks at {@link #SCALE}; the session open, high and low are tracked per symbol.
+ * Not thread safe: owned by the generator's pacing thread.
+ */
+class SymbolWalk {
+
+    static final int SCALE = 2;
+
+    // Base prices of the well-known symbols, others start at a random level
+    private static final Map<String, Long> BASE_PRICES = Map.of(
+            "INFY", 1800_00L,
+            "TCS", 4000_00L,
+            "RELIANCE", 2500_00L,
+            "HDFC", 1600_00L,
+            "ICICIBANK", 950_00L);
+
+    // Per-tick volatility of the walk and the half spread, as fractions of the price
+    private static final double VOLATILITY = 0.001;
+    private static final long HALF_SPREAD_DIVISOR = 1000;
+
+    private final String[] symbols;
+    private final long[] last;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final SplittableRandom random;
+
+    SymbolWalk(List<String> symbols, long seed) {
+        this.symbols = symbols.toArray(new String[0]);
+        this.random = new SplittableRandom(seed);
+        int n = this.symbols.length;
+        this.last = new long[n];
+        this.open = new long[n];
+        this.high = new long[n];
+        this.low = new long[n];
+        for (int i = 0; i < n; i++) {
+            Long base = BASE_PRICES.get(this.symbols[i]);
+            long price = base != null ? base : 100_00L + random.nextLong(4900_00L);
+            last[i] = open[i] = high[i] = low[i] = price;
+        }
+    }
+
+    int size() {
+        return symbols.length;
+    }
+
+    /**
+     * Advances symbol {@code i} by one step and returns it as a tick stamped {@code timestamp}.
+     */
+    StockTick next(int i, Instant timestamp) {
+        long price = last[i];
+        long step = Math.round(price * VOLATILITY * random.nextGaussian());
+        price = Math.max(1, price + step);
+        last[i] = price;
+        if (price > high[i]) {
+            high[i] = price;
+        }
+        if (price < low[i]) {
+            low[i] = price;
+        }
+        long halfSpread = Math.max(1, price / HALF_SPREAD_DIVISOR);
+
+        return new StockTick(
+                timestamp,
+                symbols[i],
+                FixedPoint.toBigDecimal(price, SCALE),
+                FixedPoint.toBigDecimal(open[i], SCALE),
+                FixedPoint.toBigDecimal(high[i], SCALE),
+                FixedPoint.toBigDecimal(low[i], SCALE),
+                50_000L + random.nextInt(100_000),
+                FixedPoint.toBigDecimal(price - halfSpread, SCALE),
+                FixedPoint.toBigDecimal(price + halfSpread, SCALE),
+                "MOCK"
+        );
+    }
+}
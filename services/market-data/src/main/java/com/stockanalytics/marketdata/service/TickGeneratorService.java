@@ -1,26 +1,48 @@
 package com.stockanalytics.marketdata.service;
 
 import com.stockanalytics.shared.model.StockTick;
-import com.stockanalytics.marketdata.repository.StockTickRepository;
+import com.stockanalytics.marketdata.history.TickHistoryWriter;
+import com.stockanalytics.marketdata.journal.TickJournal;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Generates random-walk ticks for the requested symbols at the requested rate and produces them to
+ * {@code stocks.ticks}. A dedicated pacing thread owns the per-symbol state and sends whatever is
+ * due since the run started, so the rate holds at 100k+ ticks/s; when Kafka pushes back and the
+ * run falls more than a second behind, the backlog is skipped rather than replayed.
+ *
+ * <p>Target and achieved rate, sent/failed/skipped counts and send latency are exported under
+ * {@code ticks.generator.*}.
+ */
 @Service
 public class TickGeneratorService {
 
     private static final Logger logger = LoggerFactory.getLogger(TickGeneratorService.class);
-    private static final Random random = new Random();
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${kafka.topic.stocks.ticks:stocks.ticks}")
+    private String ticksTopic;
 
     @Value("${tick.generator.default.symbols:INFY,TCS,RELIANCE}")
     private String defaultSymbols;
@@ -28,104 +50,212 @@ public class TickGeneratorService {
     @Value("${tick.generator.default.rate:50}")
     private int defaultRate;
 
-    private final StockTickRepository stockTickRepository;
-    private final AtomicBoolean isRunning = new AtomicBoolean(false);
-    private final List<String> symbols = List.of("INFY", "TCS", "RELIANCE", "HDFC", "ICICIBANK");
+    @Value("${tick.generator.max-burst:10000}")
+    private int maxBurst;
+
+    private final TickHistoryWriter tickHistoryWriter;
+    private final TickJournal tickJournal;
+    private final LatestQuoteTable latestQuoteTable;
+    private final KafkaTemplate<String, StockTick> kafkaTemplate;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter skipped;
+    private final Timer sendLatency;
 
-    // Base prices for each symbol (simplified)
-    private final BigDecimal[] basePrices = {
-        BigDecimal.valueOf(1800), // INFY
-        BigDecimal.valueOf(4000), // TCS
-        BigDecimal.valueOf(2500), // RELIANCE
-        BigDecimal.valueOf(1600), // HDFC
-        BigDecimal.valueOf(950)   // ICICIBANK
-    };
+    private volatile Run run;
+    private volatile int targetRate;
+    private volatile double achievedRate;
 
     @Autowired
-    public TickGeneratorService(StockTickRepository stockTickRepository) {
-        this.stockTickRepository = stockTickRepository;
+    public TickGeneratorService(TickHistoryWriter tickHistoryWriter,
+                                ObjectProvider<TickJournal> tickJournal,
+                                LatestQuoteTable latestQuoteTable,
+                                KafkaTemplate<String, StockTick> kafkaTemplate,
+                                MeterRegistry meterRegistry) {
+        this.tickHistoryWriter = tickHistoryWriter;
+        this.tickJournal = tickJournal.getIfAvailable();
+        this.latestQuoteTable = latestQuoteTable;
+        this.kafkaTemplate = kafkaTemplate;
+
+        Gauge.builder("ticks.generator.rate.target", () -> targetRate).register(meterRegistry);
+        Gauge.builder("ticks.generator.rate.achieved", () -> achievedRate).register(meterRegistry);
+        this.sent = Counter.builder("ticks.generator.sent").register(meterRegistry);
+        this.failed = Counter.builder("ticks.generator.failed").register(meterRegistry);
+        this.skipped = Counter.builder("ticks.generator.skipped")
+                .description("Due ticks not sent because the generator fell over a second behind")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("ticks.generator.send.latency")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
     }
 
-    public void startTickGeneration(String symbols, int ratePerSecond) {
-        if (isRunning.compareAndSet(false, true)) {
-            logger.info("Starting tick generation for symbols: {} at rate: {}/s", symbols, ratePerSecond);
-            // The actual generation is handled by the scheduled method
-        } else {
+    /**
+     * Starts generating. {@code symbols} is a comma-separated list; {@code syntheticSymbols} more
+     * symbols named SYM00001.. are appended for load tests over large universes.
+     */
+    public synchronized void startTickGeneration(String symbols, int ratePerSecond, int syntheticSymbols) {
+        if (run != null) {
             logger.warn("Tick generation is already running");
+            return;
         }
+        List<String> universe = parseSymbols(symbols == null || symbols.isBlank() ? defaultSymbols : symbols,
+                syntheticSymbols);
+        int rate = ratePerSecond > 0 ? ratePerSecond : defaultRate;
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("No symbols to generate ticks for");
+        }
+
+        logger.info("Starting tick generation for {} symbols at rate: {}/s", universe.size(), rate);
+        run = new Run(universe, rate);
+        targetRate = rate;
+        run.thread.start();
+    }
+
+    public void startTickGeneration(String symbols, int ratePerSecond) {
+        startTickGeneration(symbols, ratePerSecond, 0);
     }
 
-    public void stopTickGeneration() {
-        if (isRunning.compareAndSet(true, false)) {
-            logger.info("Stopped tick generation");
-        } else {
+    public synchronized void stopTickGeneration() {
+        Run current = run;
+        if (current == null) {
             logger.warn("Tick generation is not running");
+            return;
+        }
+        current.running = false;
+        try {
+            current.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        run = null;
+        targetRate = 0;
+        achievedRate = 0;
+        kafkaTemplate.flush();
+        logger.info("Stopped tick generation");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (isRunning()) {
+            stopTickGeneration();
         }
     }
 
     public boolean isRunning() {
-        return isRunning.get();
+        return run != null;
     }
 
-    @Scheduled(fixedRate = 2000) // Run every 2 seconds
-    public void generateTicks() {
-        if (!isRunning.get()) {
-            return;
-        }
+    public int getTargetRate() {
+        return targetRate;
+    }
+
+    public double getAchievedRate() {
+        return achievedRate;
+    }
 
-        for (int i = 0; i < symbols.size(); i++) {
-            String symbol = symbols.get(i);
-            StockTick tick = generateTick(symbol, basePrices[i]);
-            
-            // Log the tick instead of sending to Kafka for now
-            logger.info("Generated tick: {} -> {}", symbol, tick.getLastPrice());
-
-            // Persist to MongoDB (every 5th tick to avoid overwhelming the database)
-            if (random.nextInt(5) == 0) {
-                try {
-                    stockTickRepository.save(tick);
-                    logger.debug("Saved tick to MongoDB: {}", tick.getId());
-                } catch (Exception e) {
-                    logger.error("Failed to save tick to MongoDB: {}", tick.getSymbol(), e);
+    public List<String> getAvailableSymbols() {
+        Run current = run;
+        return current != null ? current.symbols : parseSymbols(defaultSymbols, 0);
+    }
+
+    private void generate(Run current) {
+        SymbolWalk walk = new SymbolWalk(current.symbols, System.nanoTime());
+        int size = walk.size();
+        int next = 0;
+
+        long start = System.nanoTime();
+        long emitted = 0;
+        long produced = 0;
+        long windowStart = start;
+        long windowProduced = 0;
+
+        while (current.running) {
+            long now = System.nanoTime();
+            long due = (long) ((now - start) / (double) NANOS_PER_SECOND * current.rate);
+            if (due - emitted > current.rate) {
+                // More than a second behind: skip the backlog instead of bursting to catch up
+                skipped.increment(due - emitted - current.rate);
+                emitted = due - current.rate;
+            }
+            if (due <= emitted) {
+                long untilNext = (long) ((emitted + 1) * (double) NANOS_PER_SECOND / current.rate) - (now - start);
+                LockSupport.parkNanos(Math.min(Math.max(untilNext, 1), MAX_PARK_NANOS));
+                continue;
+            }
+
+            int burst = (int) Math.min(due - emitted, maxBurst);
+            Instant timestamp = Instant.now();
+            for (int i = 0; i < burst; i++) {
+                send(walk.next(next, timestamp));
+                if (++next == size) {
+                    next = 0;
                 }
             }
+            emitted += burst;
+            produced += burst;
+
+            if (now - windowStart >= NANOS_PER_SECOND) {
+                achievedRate = (produced - windowProduced) * (double) NANOS_PER_SECOND / (now - windowStart);
+                windowStart = now;
+                windowProduced = produced;
+            }
+        }
+    }
+
+    private void send(StockTick tick) {
+        latestQuoteTable.update(tick);
+        // Captured locally before Kafka or Mongo can push back
+        if (tickJournal != null) {
+            tickJournal.append(tick);
         }
+
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(ticksTopic, tick.getSymbol(), tick).whenComplete((result, e) -> {
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (e != null) {
+                    failed.increment();
+                    logger.debug("Failed to send tick for symbol: {}", tick.getSymbol(), e);
+                } else {
+                    sent.increment();
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Failed to send tick for symbol: {}", tick.getSymbol(), e);
+        }
+
+        // Every tick is persisted, in bulk, by the write-behind writer
+        tickHistoryWriter.submit(tick);
     }
 
-    private StockTick generateTick(String symbol, BigDecimal basePrice) {
-        // Generate random price variation (±5%)
-        double variation = (random.nextDouble() - 0.5) * 0.1; // ±5%
-        BigDecimal priceChange = basePrice.multiply(BigDecimal.valueOf(variation));
-        BigDecimal newPrice = basePrice.add(priceChange).setScale(2, RoundingMode.HALF_UP);
-        
-        // Generate random volume
-        int volume = random.nextInt(100000) + 50000; // 50k to 150k
-        
-        // Generate bid/ask spread
-        BigDecimal spread = newPrice.multiply(BigDecimal.valueOf(0.001)); // 0.1% spread
-        BigDecimal bidPrice = newPrice.subtract(spread).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal askPrice = newPrice.add(spread).setScale(2, RoundingMode.HALF_UP);
-        
-        // Generate OHLC (simplified - using same price for now)
-        BigDecimal openPrice = basePrice;
-        BigDecimal highPrice = newPrice.max(openPrice);
-        BigDecimal lowPrice = newPrice.min(openPrice);
-
-        return new StockTick(
-                Instant.now(),
-                symbol,
-                newPrice,
-                openPrice,
-                highPrice,
-                lowPrice,
-                (long) volume,
-                bidPrice,
-                askPrice,
-                "MOCK"
-        );
+    private static List<String> parseSymbols(String symbols, int syntheticSymbols) {
+        Set<String> universe = new LinkedHashSet<>();
+        for (String symbol : symbols.split(",")) {
+            String trimmed = symbol.trim().toUpperCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                universe.add(trimmed);
+            }
+        }
+        for (int i = 1; i <= syntheticSymbols; i++) {
+            universe.add(String.format("SYM%05d", i));
+        }
+        return List.copyOf(universe);
     }
 
-    public List<String> getAvailableSymbols() {
-        return symbols;
+    private final class Run {
+
+        final List<String> symbols;
+        final int rate;
+        final Thread thread;
+        volatile boolean running = true;
+
+        Run(List<String> symbols, int rate) {
+            this.symbols = symbols;
+            this.rate = rate;
+            this.thread = new Thread(() -> generate(this), "tick-generator");
+            this.thread.setDaemon(true);
+        }
     }
 }
@@ -0,0 +1,301 @@
+package com.stockanalytics.marketdata.service;
+
+import com.stockanalytics.marketdata.history.TickHistoryReader;
+import com.stockanalytics.marketdata.model.ReplayCheckpoint;
+import com.stockanalytics.marketdata.repository.ReplayCheckpointRepository;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.quote.LatestQuoteTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded ticks from {@code ticks_hist} into {@code stocks.ticks}, in timestamp order
+ * across symbols, at a multiple of recorded time or as fast as possible. Ticks come off a Mongo
+ * cursor and a dedicated pacing thread holds each one until its recorded offset from the first
+ * tick, divided by the speed, has elapsed, so the spacing between ticks is preserved and memory
+ * stays flat whatever the length of the range.
+ *
+ * <p>Progress is checkpointed by name in {@code replay_checkpoints}, only at timestamp boundaries
+ * and after the producer has flushed, so a resumed replay picks up strictly after the last
+ * timestamp whose ticks were all acknowledged. Ticks of the timestamp in flight at a crash are
+ * sent again. A send the broker rejects pauses the replay with the checkpoint held before the
+ * recorded timestamp of that tick, so resuming sends it again. Replayed ticks are not written
+ * back to {@code ticks_hist}.
+ */
+@Service
+public class TickReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickReplayService.class);
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${kafka.topic.stocks.ticks:stocks.ticks}")
+    private String ticksTopic;
+
+    @Value("${tick.replay.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMs;
+
+    private final TickHistoryReader tickHistoryReader;
+    private final ReplayCheckpointRepository checkpointRepository;
+    private final LatestQuoteTable latestQuoteTable;
+    private final KafkaTemplate<String, StockTick> kafkaTemplate;
+
+    private final Counter sent;
+    private final Counter failed;
+
+    private volatile Run run;
+    private volatile long lagMillis;
+
+    @Autowired
+    public TickReplayService(TickHistoryReader tickHistoryReader,
+                             ReplayCheckpointRepository checkpointRepository,
+                             LatestQuoteTable latestQuoteTable,
+                             KafkaTemplate<String, StockTick> kafkaTemplate,
+                             MeterRegistry meterRegistry) {
+        this.tickHistoryReader = tickHistoryReader;
+        this.checkpointRepository = checkpointRepository;
+        this.latestQuoteTable = latestQuoteTable;
+        this.kafkaTemplate = kafkaTemplate;
+
+        this.sent = Counter.builder("ticks.replay.sent").register(meterRegistry);
+        this.failed = Counter.builder("ticks.replay.failed").register(meterRegistry);
+        Gauge.builder("ticks.replay.lag", () -> lagMillis)
+                .description("How far the replay runs behind its schedule, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts replaying {@code [from, to]} of {@code symbols} (all when empty) at {@code speed} times
+     * recorded time, 0 for as fast as possible. With {@code resume}, the checkpoint saved under
+     * {@code name} is continued with its own range, symbols and speed instead.
+     */
+    public synchronized ReplayCheckpoint startReplay(String name, Instant from, Instant to, List<String> symbols,
+                                                     double speed, boolean retime, boolean resume) {
+        if (isRunning()) {
+            throw new IllegalStateException("A replay is already running: " + run.checkpoint.getName());
+        }
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must be positive, or 0 for max");
+        }
+
+        ReplayCheckpoint checkpoint = resume ? checkpointRepository.findById(name).orElse(null) : null;
+        if (checkpoint == null) {
+            if (from == null) {
+                throw new IllegalArgumentException("No checkpoint to resume; a replay needs a start time");
+            }
+            checkpoint = new ReplayCheckpoint(name, from, to, symbols != null ? symbols : List.of(), speed, retime);
+        } else if (checkpoint.isCompleted()) {
+            throw new IllegalStateException("Replay " + name + " has already completed");
+        }
+        checkpointRepository.save(checkpoint);
+
+        logger.info("Starting replay {} of {}..{} at speed {} from position {}", name, checkpoint.getFrom(),
+                checkpoint.getTo(), checkpoint.getSpeed() > 0 ? checkpoint.getSpeed() + "x" : "max",
+                checkpoint.getPosition());
+        run = new Run(checkpoint);
+        run.thread.start();
+        return checkpoint;
+    }
+
+    public synchronized void stopReplay() {
+        Run current = run;
+        if (current == null || !current.thread.isAlive()) {
+            logger.warn("No replay is running");
+            return;
+        }
+        current.running = false;
+        try {
+            current.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Stopped replay {} at position {}", current.checkpoint.getName(), current.checkpoint.getPosition());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (isRunning()) {
+            stopReplay();
+        }
+    }
+
+    public boolean isRunning() {
+        Run current = run;
+        return current != null && current.thread.isAlive();
+    }
+
+    /** The checkpoint of the current or last replay, null before the first one. */
+    public ReplayCheckpoint getCurrentReplay() {
+        Run current = run;
+        return current != null ? current.checkpoint : null;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    private void replay(Run current) {
+        ReplayCheckpoint checkpoint = current.checkpoint;
+        Instant position = checkpoint.getPosition();
+        double speed = checkpoint.getSpeed();
+
+        long wallStartNanos = 0;
+        long wallStartMillis = 0;
+        long firstTs = 0;
+        long currentTs = Long.MIN_VALUE;
+        long retimedMillis = 0;
+        long completedTs = Long.MIN_VALUE;
+        long replayed = checkpoint.getReplayed();
+        long nextCheckpoint = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs);
+        boolean exhausted = false;
+
+        try (Stream<StockTick> ticks = tickHistoryReader.streamAllAscending(checkpoint.getSymbols(),
+                position != null ? position : checkpoint.getFrom(), position != null, checkpoint.getTo())) {
+            Iterator<StockTick> iterator = ticks.iterator();
+            while (current.running) {
+                if (!iterator.hasNext()) {
+                    exhausted = true;
+                    break;
+                }
+                StockTick tick = iterator.next();
+                long ts = tick.getTimestamp().toEpochMilli();
+
+                if (ts != currentTs) {
+                    if (currentTs == Long.MIN_VALUE) {
+                        wallStartNanos = System.nanoTime();
+                        wallStartMillis = System.currentTimeMillis();
+                        firstTs = ts;
+                    } else {
+                        // Every tick up to currentTs has been sent
+                        completedTs = currentTs;
+                        if (System.nanoTime() >= nextCheckpoint) {
+                            if (!checkpoint(current, completedTs, replayed, false)) {
+                                break;
+                            }
+                            nextCheckpoint = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs);
+                        }
+                    }
+                    currentTs = ts;
+                    if (speed > 0) {
+                        pace(current, wallStartNanos + (long) ((ts - firstTs) * NANOS_PER_MILLI / speed));
+                        retimedMillis = wallStartMillis + (long) ((ts - firstTs) / speed);
+                    } else {
+                        // Unpaced: the recorded spacing is gone, so ticks are stamped when they are sent
+                        retimedMillis = System.currentTimeMillis();
+                    }
+                }
+
+                if (checkpoint.isRetime()) {
+                    tick.setTimestamp(Instant.ofEpochMilli(retimedMillis));
+                }
+                send(current, tick, ts);
+                replayed++;
+            }
+
+            // A stopped replay may be part-way through currentTs: resume after the last complete one
+            long endTs = exhausted ? currentTs : completedTs;
+            if (checkpoint(current, endTs != Long.MIN_VALUE ? endTs : null, replayed, exhausted)) {
+                logger.info("Replay {} {} after {} ticks", checkpoint.getName(), exhausted ? "completed" : "paused", replayed);
+            } else {
+                logger.error("Replay {} paused after {} ticks: a tick recorded at {} was not acknowledged, resume to send it again",
+                        checkpoint.getName(), replayed, Instant.ofEpochMilli(current.firstFailedTs.get()));
+            }
+        } catch (Exception e) {
+            logger.error("Replay {} failed after {} ticks", checkpoint.getName(), replayed, e);
+        } finally {
+            lagMillis = 0;
+        }
+    }
+
+    private void pace(Run current, long dueNanos) {
+        long remaining = dueNanos - System.nanoTime();
+        lagMillis = Math.max(0, -remaining / NANOS_PER_MILLI);
+        while (remaining > 0 && current.running) {
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+            remaining = dueNanos - System.nanoTime();
+        }
+    }
+
+    /**
+     * Saves the progress once every tick sent so far has completed. Returns false, holding the
+     * position before the earliest tick the broker rejected, when any send failed.
+     */
+    private boolean checkpoint(Run current, Long positionMillis, long replayed, boolean completed) {
+        ReplayCheckpoint checkpoint = current.checkpoint;
+        // Only move the checkpoint past ticks the broker has acknowledged
+        kafkaTemplate.flush();
+        long failedTs = current.firstFailedTs.get();
+        boolean acknowledged = failedTs == Long.MAX_VALUE;
+        if (!acknowledged) {
+            // Resuming picks up strictly after the position, i.e. from the failed timestamp
+            if (positionMillis != null && positionMillis >= failedTs) {
+                positionMillis = failedTs - 1;
+            }
+            if (positionMillis != null && positionMillis < checkpoint.getFrom().toEpochMilli()) {
+                positionMillis = null;
+            }
+            completed = false;
+            current.running = false;
+        }
+        if (positionMillis != null) {
+            checkpoint.setPosition(Instant.ofEpochMilli(positionMillis));
+        }
+        checkpoint.setReplayed(replayed);
+        checkpoint.setCompleted(completed);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        return acknowledged;
+    }
+
+    // recordedTs is the tick's timestamp in ticks_hist, before any retiming
+    private void send(Run current, StockTick tick, long recordedTs) {
+        latestQuoteTable.update(tick);
+        try {
+            kafkaTemplate.send(ticksTopic, tick.getSymbol(), tick).whenComplete((result, e) -> {
+                if (e != null) {
+                    failed.increment();
+                    current.firstFailedTs.accumulateAndGet(recordedTs, Math::min);
+                    logger.debug("Failed to replay tick for symbol: {}", tick.getSymbol(), e);
+                } else {
+                    sent.increment();
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            current.firstFailedTs.accumulateAndGet(recordedTs, Math::min);
+            logger.error("Failed to replay tick for symbol: {}", tick.getSymbol(), e);
+        }
+    }
+
+    private final class Run {
+
+        final ReplayCheckpoint checkpoint;
+        final Thread thread;
+        volatile boolean running = true;
+        // Recorded timestamp of the earliest tick whose send failed, MAX_VALUE while none has
+        final AtomicLong firstFailedTs = new AtomicLong(Long.MAX_VALUE);
+
+        Run(ReplayCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.thread = new Thread(() -> replay(this), "tick-replay");
+            this.thread.setDaemon(true);
+        }
+    }
+}
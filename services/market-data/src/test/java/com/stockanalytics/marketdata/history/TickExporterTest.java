@@ -0,0 +1,100 @@
+package com.stockanalytics.marketdata.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stockanalytics.shared.model.StockTick;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a generated stream of ticks ({@code -Dexport.rows}, 10M by default) in each format and
+ * checks that the heap in use after a GC stays flat while the rows are written. The stream is
+ * produced lazily, like the Mongo cursor behind the export endpoint.
+ */
+class TickExporterTest {
+
+    private static final String[] SYMBOLS = {"INFY", "TCS", "RELIANCE", "HDFC", "ICICIBANK"};
+    private static final Instant START = Instant.parse("2024-01-15T03:45:00Z");
+    private static final long SAMPLE_EVERY = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    private final TickExporter exporter = new TickExporter(new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    @ParameterizedTest
+    @EnumSource(TickExporter.Format.class)
+    void exportKeepsHeapFlat(TickExporter.Format format) throws IOException {
+        long rows = Long.getLong("export.rows", 10_000_000L);
+        long[] heap = {Long.MAX_VALUE, 0};
+
+        Stream<StockTick> ticks = LongStream.range(0, rows).mapToObj(i -> {
+            if (i % SAMPLE_EVERY == SAMPLE_EVERY / 2) {
+                long used = usedHeapAfterGc();
+                heap[0] = Math.min(heap[0], used);
+                heap[1] = Math.max(heap[1], used);
+            }
+            return tick(i);
+        });
+
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        long start = System.nanoTime();
+        long written = exporter.export(ticks, format, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Exported %,d %s rows (%,d bytes) in %.1f s, used heap %,d..%,d bytes%n",
+                written, format, out.bytes, seconds, heap[0], heap[1]);
+        assertEquals(rows, written);
+        assertEquals(format == TickExporter.Format.CSV ? rows + 1 : rows, out.lines);
+        assertTrue(heap[1] - heap[0] < MAX_HEAP_GROWTH,
+                "used heap grew by " + (heap[1] - heap[0]) + " bytes during the export");
+    }
+
+    private static StockTick tick(long i) {
+        String symbol = SYMBOLS[(int) (i % SYMBOLS.length)];
+        BigDecimal price = BigDecimal.valueOf(150_000 + i % 997, 2);
+        return new StockTick(START.plusMillis(i), symbol, price, price, price, price, 1 + i % 500,
+                price, price, "export-test");
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Discards what is written, counting bytes and lines. */
+    private static final class LineCountingOutputStream extends OutputStream {
+
+        long bytes;
+        long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.stockanalytics.portfolio.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    /**
+     * Orders are sharded by partition, so the partition count bounds how far order booking scales
+     * out. Adding partitions later moves accounts to other partitions; drain the topic first.
+     */
+    @Bean
+    public NewTopic ordersExecutedTopic(@Value("${kafka.topic.orders.executed:orders.executed}") String topic,
+                                        @Value("${kafka.topic.orders.partitions:12}") int partitions) {
+        return TopicBuilder.name(topic).partitions(partitions).build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.stockanalytics.portfolio.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Makes per-order booking in {@code PortfolioService} atomic across the orders, positions and
+ * accounts collections, through the {@code TransactionTemplate} Spring Boot registers for this
+ * transaction manager. Mongo transactions need a replica set, so this is off unless
+ * {@code portfolio.orders.transactional} is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "portfolio.orders.transactional", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -0,0 +1,148 @@
+package com.stockanalytics.portfolio.controller;
+
+import com.stockanalytics.portfolio.ledger.LedgerState;
+import com.stockanalytics.portfolio.ledger.PositionLedger;
+import com.stockanalytics.portfolio.model.Position;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/portfolio")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class LedgerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerController.class);
+
+    private final PositionLedger positionLedger;
+
+    @Autowired
+    public LedgerController(PositionLedger positionLedger) {
+        this.positionLedger = positionLedger;
+    }
+
+    /**
+     * The account's cash and positions as of {@code at} (default now), rebuilt from the order
+     * ledger. Closed positions are left out.
+     */
+    @GetMapping("/{accountId}/ledger")
+    public ResponseEntity<LedgerResponse> getLedger(
+            @PathVariable String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        try {
+            Instant time = at != null ? at : Instant.now();
+            LedgerState state = positionLedger.at(accountId, time);
+            if (state.snapshotAsOf() == null && state.replayed() == 0) {
+                return ResponseEntity.notFound().build();
+            }
+            List<Position> positions = new ArrayList<>();
+            for (Position position : state.positions()) {
+                if (position.getQuantity() > 0) {
+                    positions.add(position);
+                }
+            }
+            return ResponseEntity.ok(new LedgerResponse(accountId, time, state.account().getCash(), positions,
+                    state.snapshotAsOf(), state.replayed()));
+        } catch (Exception e) {
+            logger.error("Failed to rebuild ledger for account: {}", accountId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Runs a snapshot now instead of waiting for the schedule.
+     */
+    @PostMapping("/ledger/snapshot")
+    public ResponseEntity<Object> snapshot() {
+        logger.info("Received request to snapshot the order ledger");
+        try {
+            return ResponseEntity.ok(positionLedger.snapshot());
+        } catch (Exception e) {
+            logger.error("Failed to snapshot the order ledger", e);
+            return ResponseEntity.internalServerError().body("Failed to snapshot the order ledger: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/ledger/status")
+    public ResponseEntity<LedgerStatus> getStatus() {
+        return ResponseEntity.ok(new LedgerStatus(positionLedger.checkpoint(), positionLedger.getLastRun(),
+                positionLedger.getLastRestore()));
+    }
+
+    // Ledger response class
+    public static class LedgerResponse {
+        private final String accountId;
+        private final Instant at;
+        private final BigDecimal cash;
+        private final List<Position> positions;
+        private final Instant snapshotAsOf;
+        private final long replayedOrders;
+
+        public LedgerResponse(String accountId, Instant at, BigDecimal cash, List<Position> positions,
+                              Instant snapshotAsOf, long replayedOrders) {
+            this.accountId = accountId;
+            this.at = at;
+            this.cash = cash;
+            this.positions = positions;
+            this.snapshotAsOf = snapshotAsOf;
+            this.replayedOrders = replayedOrders;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public Instant getAt() {
+            return at;
+        }
+
+        public BigDecimal getCash() {
+            return cash;
+        }
+
+        public List<Position> getPositions() {
+            return positions;
+        }
+
+        public Instant getSnapshotAsOf() {
+            return snapshotAsOf;
+        }
+
+        public long getReplayedOrders() {
+            return replayedOrders;
+        }
+    }
+
+    // Status response class
+    public static class LedgerStatus {
+        private final Instant checkpoint;
+        private final PositionLedger.SnapshotRun lastRun;
+        private final PositionLedger.RestoreRun lastRestore;
+
+        public LedgerStatus(Instant checkpoint, PositionLedger.SnapshotRun lastRun, PositionLedger.RestoreRun lastRestore) {
+            this.checkpoint = checkpoint;
+            this.lastRun = lastRun;
+            this.lastRestore = lastRestore;
+        }
+
+        public Instant getCheckpoint() {
+            return checkpoint;
+        }
+
+        public PositionLedger.SnapshotRun getLastRun() {
+            return lastRun;
+        }
+
+        public PositionLedger.RestoreRun getLastRestore() {
+            return lastRestore;
+        }
+    }
+}
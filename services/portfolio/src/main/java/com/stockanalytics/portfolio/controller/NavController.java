@@ -0,0 +1,130 @@
+package com.stockanalytics.portfolio.controller;
+
+import com.stockanalytics.portfolio.model.NavPoint;
+import com.stockanalytics.portfolio.nav.NavHistoryReader;
+import com.stockanalytics.portfolio.nav.NavResolution;
+import com.stockanalytics.shared.price.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/portfolio")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class NavController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavController.class);
+
+    private static final Map<String, Duration> RANGES = Map.of(
+            "1d", Duration.ofDays(1),
+            "1w", Duration.ofDays(7),
+            "1m", Duration.ofDays(30),
+            "1y", Duration.ofDays(365));
+
+    private final NavHistoryReader navHistoryReader;
+
+    @Autowired
+    public NavController(NavHistoryReader navHistoryReader) {
+        this.navHistoryReader = navHistoryReader;
+    }
+
+    /**
+     * The account's NAV and P&L curve, oldest first: over the last {@code range} (1D, 1W, 1M or
+     * 1Y) or over {@code [from, to]}, at {@code resolution} (1s, 1m or 1h) or the finest one that
+     * fits the range.
+     */
+    @GetMapping("/{accountId}/nav")
+    public ResponseEntity<NavHistory> getNavHistory(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "1D") String range,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String resolution) {
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from;
+        if (start == null) {
+            Duration duration = RANGES.get(range.trim().toLowerCase(Locale.ROOT));
+            if (duration == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            start = end.minus(duration);
+        }
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        NavResolution navResolution;
+        try {
+            navResolution = resolution != null ? NavResolution.parse(resolution) : navHistoryReader.resolve(start, end);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            List<NavHistory.Point> points = new ArrayList<>();
+            for (NavPoint point : navHistoryReader.find(accountId, navResolution, start, end)) {
+                points.add(new NavHistory.Point(point.getTimestamp(), amount(point.getOpen()), amount(point.getHigh()),
+                        amount(point.getLow()), amount(point.getNav()), amount(point.getPnl())));
+            }
+            return ResponseEntity.ok(new NavHistory(accountId, navResolution.label(), start, end, points));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve NAV history for account: {}", accountId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private static BigDecimal amount(long ticks) {
+        return FixedPoint.toBigDecimal(ticks, NavPoint.SCALE);
+    }
+
+    // NAV history response class
+    public static class NavHistory {
+        private final String accountId;
+        private final String resolution;
+        private final Instant from;
+        private final Instant to;
+        private final List<Point> points;
+
+        public NavHistory(String accountId, String resolution, Instant from, Instant to, List<Point> points) {
+            this.accountId = accountId;
+            this.resolution = resolution;
+            this.from = from;
+            this.to = to;
+            this.points = points;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public String getResolution() {
+            return resolution;
+        }
+
+        public Instant getFrom() {
+            return from;
+        }
+
+        public Instant getTo() {
+            return to;
+        }
+
+        public List<Point> getPoints() {
+            return points;
+        }
+
+        public record Point(Instant ts, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal nav,
+                            BigDecimal pnl) {}
+    }
+}
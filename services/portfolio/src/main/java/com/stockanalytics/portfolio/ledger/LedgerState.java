@@ -0,0 +1,127 @@
+package com.stockanalytics.portfolio.ledger;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.AccountSnapshot;
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+import com.stockanalytics.portfolio.order.OrderBooking;
+import com.stockanalytics.portfolio.order.OrderStore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An account folded from its ledger: a snapshot, if any, with the orders booked after it applied
+ * in booking order through {@link OrderBooking}, exactly as they were when first booked.
+ */
+public final class LedgerState {
+
+    private final Account account;
+    private final Map<String, Position> positions = new TreeMap<>();
+    private final Instant snapshotAsOf;
+    private long orders;
+    private long replayed;
+
+    private LedgerState(Account account, Instant snapshotAsOf) {
+        this.account = account;
+        this.snapshotAsOf = snapshotAsOf;
+    }
+
+    /** An account with no orders booked yet. */
+    static LedgerState empty(String accountId) {
+        return new LedgerState(new Account(accountId, OrderStore.INITIAL_CASH, OrderStore.CURRENCY), null);
+    }
+
+    static LedgerState of(AccountSnapshot snapshot) {
+        Account account = new Account(snapshot.getAccountId(), snapshot.getCash(), snapshot.getCurrency());
+        account.setCreatedAt(snapshot.getCreatedAt());
+        account.setLastPartition(snapshot.getLastPartition());
+        account.setLastOffset(snapshot.getLastOffset());
+        LedgerState state = new LedgerState(account, snapshot.getAsOf());
+        state.orders = snapshot.getOrders();
+        for (AccountSnapshot.Holding holding : snapshot.getHoldings()) {
+            Position position = new Position(account.getUserId(), holding.getSymbol(),
+                    holding.getQuantity(), holding.getAveragePrice());
+            position.setUpdatedAt(holding.getUpdatedAt());
+            position.setLastPartition(holding.getLastPartition());
+            position.setLastOffset(holding.getLastOffset());
+            state.positions.put(holding.getSymbol(), position);
+        }
+        return state;
+    }
+
+    /**
+     * Applies the next ledger order. Returns false, changing nothing, for an order already folded
+     * into the snapshot or a sell the ledger holds no position for.
+     */
+    boolean apply(OrderExecuted order) {
+        if (snapshotAsOf != null && (order.getBookedAt() == null || !order.getBookedAt().isAfter(snapshotAsOf))) {
+            return false;
+        }
+        Position position = positions.get(order.getSymbol());
+        if (position == null) {
+            position = new Position(account.getUserId(), order.getSymbol(), 0, BigDecimal.ZERO);
+        }
+        try {
+            OrderBooking.apply(account, position, order);
+        } catch (IllegalStateException e) {
+            return false;
+        }
+        positions.put(order.getSymbol(), position);
+        position.setUpdatedAt(order.getExecutionTimestamp());
+        if (order.getPartition() != null) {
+            // The partition and offset the shard recorded, so redelivered orders stay skipped
+            account.setLastPartition(order.getPartition());
+            account.setLastOffset(order.getOffset());
+            position.setLastPartition(order.getPartition());
+            position.setLastOffset(order.getOffset());
+        }
+        orders++;
+        replayed++;
+        return true;
+    }
+
+    public Account account() {
+        return account;
+    }
+
+    public Collection<Position> positions() {
+        return positions.values();
+    }
+
+    /** The snapshot the state started from, null when it was folded from the first order. */
+    public Instant snapshotAsOf() {
+        return snapshotAsOf;
+    }
+
+    /** Orders applied on top of the snapshot. */
+    public long replayed() {
+        return replayed;
+    }
+
+    AccountSnapshot toSnapshot(Instant asOf) {
+        AccountSnapshot snapshot = new AccountSnapshot(account.getUserId(), asOf);
+        snapshot.setOrders(orders);
+        snapshot.setCash(account.getCash());
+        snapshot.setCurrency(account.getCurrency());
+        snapshot.setCreatedAt(account.getCreatedAt());
+        snapshot.setLastPartition(account.getLastPartition());
+        snapshot.setLastOffset(account.getLastOffset());
+        List<AccountSnapshot.Holding> holdings = new ArrayList<>(positions.size());
+        for (Position position : positions.values()) {
+            AccountSnapshot.Holding holding = new AccountSnapshot.Holding(position.getSymbol(),
+                    position.getQuantity(), position.getAveragePrice());
+            holding.setUpdatedAt(position.getUpdatedAt());
+            holding.setLastPartition(position.getLastPartition());
+            holding.setLastOffset(position.getLastOffset());
+            holdings.add(holding);
+        }
+        snapshot.setHoldings(holdings);
+        return snapshot;
+    }
+}
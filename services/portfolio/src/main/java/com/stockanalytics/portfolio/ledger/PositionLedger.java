@@ -0,0 +1,313 @@
+package com.stockanalytics.portfolio.ledger;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.AccountSnapshot;
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+import com.stockanalytics.portfolio.order.OrderStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Treats {@code orders_executed} as the append-only ledger of every account: the
+ * {@code accounts} and {@code positions} documents are a cache of it that can be rebuilt.
+ *
+ * <p>Every {@code portfolio.ledger.snapshot-interval-ms} the accounts that booked orders since
+ * the last run are folded into one {@link AccountSnapshot} each, up to a cutoff
+ * {@code settle-ms} in the past so orders still being written are left to the next run, and the
+ * checkpoint is advanced to the cutoff once every account is written. An account's state is then
+ * its latest snapshot plus the orders booked after it, so rebuilding it reads at most one
+ * interval of orders however long its history is. This serves point-in-time queries
+ * ({@link #at}) and, with {@code restore-on-startup}, rewrites every account and position before
+ * the Kafka listeners start.
+ */
+@Component
+public class PositionLedger implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionLedger.class);
+
+    private static final String CHECKPOINTS = "ledger_checkpoints";
+    private static final String SNAPSHOT_CHECKPOINT = "snapshots";
+
+    // Booking order: the shard flushes a poll with one bookedAt, in offset order
+    private static final Sort LEDGER_ORDER = Sort.by("bookedAt", "offset", "execTs");
+
+    @Value("${portfolio.ledger.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portfolio.ledger.settle-ms:60000}")
+    private long settleMs;
+
+    @Value("${portfolio.ledger.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${portfolio.ledger.restore-on-startup:false}")
+    private boolean restoreOnStartup;
+
+    @Value("${portfolio.ledger.restore-batch-size:1000}")
+    private int restoreBatchSize;
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderStore orderStore;
+    private final Counter snapshotsWritten;
+    private final Counter ordersReplayed;
+
+    private volatile SnapshotRun lastRun;
+    private volatile RestoreRun lastRestore;
+    private volatile boolean running;
+
+    @Autowired
+    public PositionLedger(MongoTemplate mongoTemplate, OrderStore orderStore, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.orderStore = orderStore;
+        this.snapshotsWritten = Counter.builder("portfolio.ledger.snapshots").register(meterRegistry);
+        this.ordersReplayed = Counter.builder("portfolio.ledger.replayed")
+                .description("Ledger orders applied on top of a snapshot")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        // Serves an account's tail after its snapshot, and the accounts booked since the checkpoint
+        mongoTemplate.indexOps(OrderExecuted.class).ensureIndex(new Index()
+                .on("accountId", Sort.Direction.ASC)
+                .on("bookedAt", Sort.Direction.ASC)
+                .named("accountId_bookedAt"));
+        mongoTemplate.indexOps(OrderExecuted.class).ensureIndex(new Index()
+                .on("bookedAt", Sort.Direction.ASC)
+                .named("bookedAt"));
+        mongoTemplate.indexOps(AccountSnapshot.class).ensureIndex(new Index()
+                .on("accountId", Sort.Direction.ASC)
+                .on("asOf", Sort.Direction.DESC)
+                .named("accountId_asOf"));
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${portfolio.ledger.snapshot-initial-delay-ms:60000}")
+    public void scheduledSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.error("Ledger snapshot run failed", e);
+        }
+    }
+
+    /**
+     * Snapshots every account that booked orders between the checkpoint and now minus
+     * {@code settle-ms}, then advances the checkpoint. A failed run leaves the checkpoint, so the
+     * next one covers its accounts again.
+     */
+    public synchronized SnapshotRun snapshot() {
+        long start = System.nanoTime();
+        Instant cutoff = Instant.now().minusMillis(settleMs);
+        Instant since = checkpoint();
+        if (since != null && !cutoff.isAfter(since)) {
+            return lastRun;
+        }
+
+        // Orders written before bookedAt was recorded are all in the first run
+        Criteria booked = since == null
+                ? Criteria.where("bookedAt").not().gt(cutoff)
+                : Criteria.where("bookedAt").gt(since).lte(cutoff);
+        List<String> accountIds = mongoTemplate.findDistinct(new Query(booked), "accountId",
+                OrderExecuted.class, String.class);
+
+        Instant expired = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+        long replayed = 0;
+        for (String accountId : accountIds) {
+            LedgerState state = fold(accountId, latestSnapshot(accountId, cutoff),
+                    Criteria.where("bookedAt").not().gt(cutoff));
+            mongoTemplate.insert(state.toSnapshot(cutoff));
+            mongoTemplate.remove(new Query(Criteria.where("accountId").is(accountId).and("asOf").lt(expired)),
+                    AccountSnapshot.class);
+            snapshotsWritten.increment();
+            replayed += state.replayed();
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(SNAPSHOT_CHECKPOINT)),
+                new Update().set("asOf", cutoff), CHECKPOINTS);
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRun = new SnapshotRun(Instant.now(), cutoff, accountIds.size(), replayed, durationMs);
+        logger.info("Snapshotted {} accounts as of {} ({} orders replayed) in {} ms",
+                accountIds.size(), cutoff, replayed, durationMs);
+        return lastRun;
+    }
+
+    /**
+     * The account as of {@code time}: its latest snapshot at or before {@code time} plus the orders
+     * executed by then and booked after the snapshot.
+     */
+    public LedgerState at(String accountId, Instant time) {
+        return fold(accountId, latestSnapshot(accountId, time), Criteria.where("execTs").lte(time));
+    }
+
+    /**
+     * Rewrites every account and its positions from the latest snapshots plus the orders booked
+     * since the checkpoint. Positions the ledger holds no order for are removed.
+     */
+    public synchronized RestoreRun restore() {
+        long start = System.nanoTime();
+        Instant checkpoint = checkpoint();
+
+        Map<String, LedgerState> states = new HashMap<>();
+        Aggregation latest = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by(Sort.Order.asc("accountId"), Sort.Order.desc("asOf"))),
+                Aggregation.group("accountId").first(Aggregation.ROOT).as("snapshot"),
+                Aggregation.replaceRoot("snapshot")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        try (Stream<AccountSnapshot> snapshots = mongoTemplate.aggregateStream(latest, AccountSnapshot.class, AccountSnapshot.class)) {
+            snapshots.forEach(snapshot -> states.put(snapshot.getAccountId(), LedgerState.of(snapshot)));
+        }
+        int snapshotCount = states.size();
+
+        // Every account's orders up to the checkpoint are in its latest snapshot
+        Query tail = checkpoint == null ? new Query() : new Query(Criteria.where("bookedAt").gt(checkpoint));
+        long replayed = 0;
+        try (Stream<OrderExecuted> orders = mongoTemplate.stream(tail.with(LEDGER_ORDER).allowDiskUse(true), OrderExecuted.class)) {
+            Iterator<OrderExecuted> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                OrderExecuted order = iterator.next();
+                if (states.computeIfAbsent(order.getAccountId(), LedgerState::empty).apply(order)) {
+                    replayed++;
+                }
+            }
+        }
+        ordersReplayed.increment(replayed);
+
+        List<LedgerState> batch = new ArrayList<>(restoreBatchSize);
+        for (LedgerState state : states.values()) {
+            batch.add(state);
+            if (batch.size() >= restoreBatchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        write(batch);
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRestore = new RestoreRun(Instant.now(), checkpoint, states.size(), snapshotCount, replayed, durationMs);
+        logger.info("Restored {} accounts from {} snapshots and {} orders booked since {} in {} ms",
+                states.size(), snapshotCount, replayed, checkpoint, durationMs);
+        return lastRestore;
+    }
+
+    /** The cutoff of the last complete snapshot run, null before the first. */
+    public Instant checkpoint() {
+        Document checkpoint = mongoTemplate.findById(SNAPSHOT_CHECKPOINT, Document.class, CHECKPOINTS);
+        return checkpoint == null ? null : checkpoint.getDate("asOf").toInstant();
+    }
+
+    public SnapshotRun getLastRun() {
+        return lastRun;
+    }
+
+    public RestoreRun getLastRestore() {
+        return lastRestore;
+    }
+
+    @Override
+    public void start() {
+        if (restoreOnStartup) {
+            restore();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the Kafka listener containers, so no order is booked while positions are restored.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+
+    private AccountSnapshot latestSnapshot(String accountId, Instant atOrBefore) {
+        return mongoTemplate.findOne(new Query(Criteria.where("accountId").is(accountId).and("asOf").lte(atOrBefore))
+                .with(Sort.by(Sort.Direction.DESC, "asOf")), AccountSnapshot.class);
+    }
+
+    private LedgerState fold(String accountId, AccountSnapshot snapshot, Criteria bound) {
+        LedgerState state;
+        Criteria criteria = Criteria.where("accountId").is(accountId);
+        if (snapshot == null) {
+            state = LedgerState.empty(accountId);
+            criteria.andOperator(bound);
+        } else {
+            state = LedgerState.of(snapshot);
+            criteria.andOperator(bound, Criteria.where("bookedAt").gt(snapshot.getAsOf()));
+        }
+        try (Stream<OrderExecuted> orders = mongoTemplate.stream(new Query(criteria).with(LEDGER_ORDER), OrderExecuted.class)) {
+            orders.forEach(state::apply);
+        }
+        ordersReplayed.increment(state.replayed());
+        return state;
+    }
+
+    private void write(List<LedgerState> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Account> accounts = new ArrayList<>(batch.size());
+        List<Position> positions = new ArrayList<>();
+        BulkOperations strays = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Position.class);
+        for (LedgerState state : batch) {
+            accounts.add(state.account());
+            List<String> symbols = new ArrayList<>();
+            for (Position position : state.positions()) {
+                positions.add(position);
+                symbols.add(position.getSymbol());
+            }
+            strays.remove(new Query(Criteria.where("accountId").is(state.account().getUserId()).and("symbol").nin(symbols)));
+        }
+        orderStore.write(List.of(), positions, accounts);
+        strays.execute();
+    }
+
+    /** The outcome of one snapshot run. */
+    public record SnapshotRun(Instant finishedAt, Instant asOf, int accounts, long replayed, long durationMs) {}
+
+    /** The outcome of a restore. */
+    public record RestoreRun(Instant finishedAt, Instant checkpoint, int accounts, int snapshots, long replayed,
+                             long durationMs) {}
+}
@@ -25,6 +25,13 @@ public class Account {
     @Field("createdAt")
     private Instant createdAt;
 
+    // Kafka partition and offset of the last executed order applied, so a redelivered order is not applied twice
+    @Field("lastPartition")
+    private Integer lastPartition;
+
+    @Field("lastOffset")
+    private Long lastOffset;
+
     // Constructors
     public Account() {}
 
@@ -76,6 +83,22 @@ public class Account {
         this.createdAt = createdAt;
     }
 
+    public Integer getLastPartition() {
+        return lastPartition;
+    }
+
+    public void setLastPartition(Integer lastPartition) {
+        this.lastPartition = lastPartition;
+    }
+
+    public Long getLastOffset() {
+        return lastOffset;
+    }
+
+    public void setLastOffset(Long lastOffset) {
+        this.lastOffset = lastOffset;
+    }
+
     @Override
     public String toString() {
         return "Account{" +
@@ -0,0 +1,219 @@
+package com.stockanalytics.portfolio.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An account's cash and positions after every executed order booked up to {@code asOf}, folded
+ * from the {@code orders_executed} ledger. One document holds the whole account.
+ */
+@Document(collection = "account_snapshots")
+public class AccountSnapshot {
+
+    @Id
+    private String id;
+
+    @Field("accountId")
+    private String accountId;
+
+    @Field("asOf")
+    private Instant asOf;
+
+    // Number of ledger orders folded into the snapshot
+    @Field("orders")
+    private long orders;
+
+    @Field("cash")
+    private BigDecimal cash;
+
+    @Field("currency")
+    private String currency;
+
+    @Field("createdAt")
+    private Instant createdAt;
+
+    @Field("lastPartition")
+    private Integer lastPartition;
+
+    @Field("lastOffset")
+    private Long lastOffset;
+
+    @Field("holdings")
+    private List<Holding> holdings = new ArrayList<>();
+
+    // Constructors
+    public AccountSnapshot() {}
+
+    public AccountSnapshot(String accountId, Instant asOf) {
+        this.accountId = accountId;
+        this.asOf = asOf;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(Instant asOf) {
+        this.asOf = asOf;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public BigDecimal getCash() {
+        return cash;
+    }
+
+    public void setCash(BigDecimal cash) {
+        this.cash = cash;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Integer getLastPartition() {
+        return lastPartition;
+    }
+
+    public void setLastPartition(Integer lastPartition) {
+        this.lastPartition = lastPartition;
+    }
+
+    public Long getLastOffset() {
+        return lastOffset;
+    }
+
+    public void setLastOffset(Long lastOffset) {
+        this.lastOffset = lastOffset;
+    }
+
+    public List<Holding> getHoldings() {
+        return holdings;
+    }
+
+    public void setHoldings(List<Holding> holdings) {
+        this.holdings = holdings;
+    }
+
+    /**
+     * A position in one symbol. Closed positions are kept, so their partition and offset survive
+     * a restore.
+     */
+    public static class Holding {
+
+        @Field("symbol")
+        private String symbol;
+
+        @Field("qty")
+        private Integer quantity;
+
+        @Field("avgPrice")
+        private BigDecimal averagePrice;
+
+        @Field("updatedAt")
+        private Instant updatedAt;
+
+        @Field("lastPartition")
+        private Integer lastPartition;
+
+        @Field("lastOffset")
+        private Long lastOffset;
+
+        public Holding() {}
+
+        public Holding(String symbol, Integer quantity, BigDecimal averagePrice) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.averagePrice = averagePrice;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public void setSymbol(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getAveragePrice() {
+            return averagePrice;
+        }
+
+        public void setAveragePrice(BigDecimal averagePrice) {
+            this.averagePrice = averagePrice;
+        }
+
+        public Instant getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Instant updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        public Integer getLastPartition() {
+            return lastPartition;
+        }
+
+        public void setLastPartition(Integer lastPartition) {
+            this.lastPartition = lastPartition;
+        }
+
+        public Long getLastOffset() {
+            return lastOffset;
+        }
+
+        public void setLastOffset(Long lastOffset) {
+            this.lastOffset = lastOffset;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.stockanalytics.portfolio.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * An account's NAV over one bucket of a NAV history resolution, with its unrealized plus realized
+ * P&L at the close. Amounts are fixed-point longs at {@link #SCALE}, which time-series
+ * collections compress far better than decimals.
+ */
+public class NavPoint {
+
+    public static final int SCALE = 4;
+
+    @Id
+    private String id;
+
+    @Field("ts")
+    private Instant timestamp;
+
+    @Field("accountId")
+    private String accountId;
+
+    @Field("open")
+    private long open;
+
+    @Field("high")
+    private long high;
+
+    @Field("low")
+    private long low;
+
+    @Field("nav")
+    private long nav;
+
+    @Field("pnl")
+    private long pnl;
+
+    // Constructors
+    public NavPoint() {}
+
+    public NavPoint(Instant timestamp, String accountId, long open, long high, long low, long nav, long pnl) {
+        this.timestamp = timestamp;
+        this.accountId = accountId;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.nav = nav;
+        this.pnl = pnl;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public void setOpen(long open) {
+        this.open = open;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public void setHigh(long high) {
+        this.high = high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public void setLow(long low) {
+        this.low = low;
+    }
+
+    public long getNav() {
+        return nav;
+    }
+
+    public void setNav(long nav) {
+        this.nav = nav;
+    }
+
+    public long getPnl() {
+        return pnl;
+    }
+
+    public void setPnl(long pnl) {
+        this.pnl = pnl;
+    }
+}
@@ -1,6 +1,7 @@
 package com.stockanalytics.portfolio.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -48,6 +49,19 @@ public class OrderExecuted {
     @Field("fees")
     private BigDecimal fees;
 
+    // When the order was written to the ledger, and the Kafka partition and offset it was booked from
+    @JsonIgnore
+    @Field("bookedAt")
+    private Instant bookedAt;
+
+    @JsonIgnore
+    @Field("partition")
+    private Integer partition;
+
+    @JsonIgnore
+    @Field("offset")
+    private Long offset;
+
     // Constructors
     public OrderExecuted() {}
 
@@ -136,6 +150,30 @@ public class OrderExecuted {
         this.fees = fees;
     }
 
+    public Instant getBookedAt() {
+        return bookedAt;
+    }
+
+    public void setBookedAt(Instant bookedAt) {
+        this.bookedAt = bookedAt;
+    }
+
+    public Integer getPartition() {
+        return partition;
+    }
+
+    public void setPartition(Integer partition) {
+        this.partition = partition;
+    }
+
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
     @Override
     public String toString() {
         return "OrderExecuted{" +
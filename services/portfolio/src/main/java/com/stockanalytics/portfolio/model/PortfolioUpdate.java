@@ -101,6 +101,15 @@ public class PortfolioUpdate {
         @JsonProperty("avgPrice")
         private BigDecimal averagePrice;
 
+        @JsonProperty("lastPrice")
+        private BigDecimal lastPrice;
+
+        @JsonProperty("marketValue")
+        private BigDecimal marketValue;
+
+        @JsonProperty("unrealized")
+        private BigDecimal unrealized;
+
         public PositionSummary() {}
 
         public PositionSummary(String symbol, Integer quantity, BigDecimal averagePrice) {
@@ -109,6 +118,14 @@ public class PortfolioUpdate {
             this.averagePrice = averagePrice;
         }
 
+        public PositionSummary(String symbol, Integer quantity, BigDecimal averagePrice, BigDecimal lastPrice,
+                               BigDecimal marketValue, BigDecimal unrealized) {
+            this(symbol, quantity, averagePrice);
+            this.lastPrice = lastPrice;
+            this.marketValue = marketValue;
+            this.unrealized = unrealized;
+        }
+
         public String getSymbol() {
             return symbol;
         }
@@ -132,6 +149,30 @@ public class PortfolioUpdate {
         public void setAveragePrice(BigDecimal averagePrice) {
             this.averagePrice = averagePrice;
         }
+
+        public BigDecimal getLastPrice() {
+            return lastPrice;
+        }
+
+        public void setLastPrice(BigDecimal lastPrice) {
+            this.lastPrice = lastPrice;
+        }
+
+        public BigDecimal getMarketValue() {
+            return marketValue;
+        }
+
+        public void setMarketValue(BigDecimal marketValue) {
+            this.marketValue = marketValue;
+        }
+
+        public BigDecimal getUnrealized() {
+            return unrealized;
+        }
+
+        public void setUnrealized(BigDecimal unrealized) {
+            this.unrealized = unrealized;
+        }
     }
 
     // P&L inner class
@@ -28,6 +28,13 @@ public class Position {
     @Field("updatedAt")
     private Instant updatedAt;
 
+    // Kafka partition and offset of the last executed order applied, so a redelivered order is not applied twice
+    @Field("lastPartition")
+    private Integer lastPartition;
+
+    @Field("lastOffset")
+    private Long lastOffset;
+
     // Constructors
     public Position() {}
 
@@ -88,6 +95,22 @@ public class Position {
         this.updatedAt = updatedAt;
     }
 
+    public Integer getLastPartition() {
+        return lastPartition;
+    }
+
+    public void setLastPartition(Integer lastPartition) {
+        this.lastPartition = lastPartition;
+    }
+
+    public Long getLastOffset() {
+        return lastOffset;
+    }
+
+    public void setLastOffset(Long lastOffset) {
+        this.lastOffset = lastOffset;
+    }
+
     @Override
     public String toString() {
         return "Position{" +
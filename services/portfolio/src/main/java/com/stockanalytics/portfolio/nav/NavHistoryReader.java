@@ -0,0 +1,71 @@
+package com.stockanalytics.portfolio.nav;
+
+import com.stockanalytics.portfolio.model.NavPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range reads of an account's NAV history from the pre-aggregated resolution that fits the range,
+ * so an equity curve never recomputes history from orders.
+ */
+@Component
+public class NavHistoryReader {
+
+    @Value("${portfolio.nav.max-points:2000}")
+    private int maxPoints;
+
+    private final MongoTemplate mongoTemplate;
+    private final NavRecorder navRecorder;
+
+    @Autowired
+    public NavHistoryReader(MongoTemplate mongoTemplate, NavRecorder navRecorder) {
+        this.mongoTemplate = mongoTemplate;
+        this.navRecorder = navRecorder;
+    }
+
+    /**
+     * The finest resolution still retained at {@code from} with at most {@code max-points} buckets
+     * in {@code [from, to]}, so 1D reads minutes and 1W or 1Y read hours.
+     */
+    public NavResolution resolve(Instant from, Instant to) {
+        Instant now = Instant.now();
+        long span = Duration.between(from, to).toMillis();
+        for (NavResolution resolution : NavResolution.values()) {
+            Duration retention = navRecorder.retention(resolution);
+            boolean retained = retention == null || !from.isBefore(now.minus(retention));
+            if (retained && span / resolution.millis() <= maxPoints) {
+                return resolution;
+            }
+        }
+        return NavResolution.H1;
+    }
+
+    /**
+     * The points of {@code resolution} in {@code [from, to]}, oldest first. Points recorded twice
+     * for one bucket, e.g. by two instances, are returned once.
+     */
+    public List<NavPoint> find(String accountId, NavResolution resolution, Instant from, Instant to) {
+        Query query = new Query(Criteria.where("accountId").is(accountId).and("ts").gte(from).lte(to))
+                .with(Sort.by(Sort.Direction.ASC, "ts"))
+                .withHint(NavRecorder.ACCOUNT_TS_INDEX);
+        List<NavPoint> points = mongoTemplate.find(query, NavPoint.class, resolution.collection());
+
+        List<NavPoint> distinct = new ArrayList<>(points.size());
+        for (NavPoint point : points) {
+            if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).getTimestamp().equals(point.getTimestamp())) {
+                distinct.add(point);
+            }
+        }
+        return distinct;
+    }
+}
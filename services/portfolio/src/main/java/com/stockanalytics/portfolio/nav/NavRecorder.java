@@ -0,0 +1,151 @@
+package com.stockanalytics.portfolio.nav;
+
+import com.stockanalytics.portfolio.model.NavPoint;
+import com.stockanalytics.portfolio.model.PortfolioUpdate;
+import com.stockanalytics.shared.price.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the NAV and P&L of every published portfolio update as a {@link NavResolution#S1} point
+ * and writes the points every {@code portfolio.nav.flush-interval-ms} as one bulk insert.
+ * Accounts are only published when their valuation changes, so a missing second means the NAV
+ * held. Each resolution lives in its own time-series collection and expires after its retention;
+ * {@link NavRollup} fills the coarser ones.
+ */
+@Component
+public class NavRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavRecorder.class);
+
+    static final String ACCOUNT_TS_INDEX = "accountId_ts";
+
+    @Value("${portfolio.nav.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portfolio.nav.second-retention-days:2}")
+    private int secondRetentionDays;
+
+    @Value("${portfolio.nav.minute-retention-days:35}")
+    private int minuteRetentionDays;
+
+    // 0 keeps the hourly points forever
+    @Value("${portfolio.nav.hour-retention-days:0}")
+    private int hourRetentionDays;
+
+    private final MongoTemplate mongoTemplate;
+    private final Queue<NavPoint> pending = new ConcurrentLinkedQueue<>();
+    private final Counter recorded;
+    private final Counter failed;
+
+    @Autowired
+    public NavRecorder(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.recorded = Counter.builder("portfolio.nav.recorded").register(meterRegistry);
+        this.failed = Counter.builder("portfolio.nav.failed").register(meterRegistry);
+        Gauge.builder("portfolio.nav.pending", pending, Queue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void prepareCollections() {
+        for (NavResolution resolution : NavResolution.values()) {
+            String collection = resolution.collection();
+            if (!mongoTemplate.collectionExists(collection)) {
+                try {
+                    mongoTemplate.createCollection(collection, CollectionOptions.empty().timeSeries(
+                            CollectionOptions.TimeSeriesOptions.timeSeries("ts")
+                                    .metaField("accountId")
+                                    .granularity(resolution.granularity())));
+                    logger.info("Created time-series collection: {}", collection);
+                } catch (Exception e) {
+                    // Another instance created it first
+                    logger.warn("Could not create time-series collection: {}", collection, e);
+                }
+            }
+
+            // Applied on every start, so a changed retention takes effect
+            Duration retention = retention(resolution);
+            mongoTemplate.executeCommand(new Document("collMod", collection)
+                    .append("expireAfterSeconds", retention == null ? "off" : retention.toSeconds()));
+
+            // Serves the per-account range reads
+            mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                    .on("accountId", Sort.Direction.ASC)
+                    .on("ts", Sort.Direction.DESC)
+                    .named(ACCOUNT_TS_INDEX));
+        }
+    }
+
+    /** Queues the update's NAV and P&L as the point of its second. */
+    public void record(PortfolioUpdate update) {
+        if (!enabled || update.getNav() == null) {
+            return;
+        }
+        BigDecimal pnl = BigDecimal.ZERO;
+        if (update.getPnl() != null) {
+            pnl = nullToZero(update.getPnl().getUnrealized()).add(nullToZero(update.getPnl().getRealized()));
+        }
+        long nav = FixedPoint.toTicks(update.getNav(), NavPoint.SCALE);
+        Instant second = update.getTimestamp().truncatedTo(ChronoUnit.SECONDS);
+        pending.add(new NavPoint(second, update.getAccountId(), nav, nav, nav, nav,
+                FixedPoint.toTicks(pnl, NavPoint.SCALE)));
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.nav.flush-interval-ms:1000}")
+    public void flush() {
+        List<NavPoint> points = new ArrayList<>();
+        for (NavPoint point = pending.poll(); point != null; point = pending.poll()) {
+            points.add(point);
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NavPoint.class,
+                    NavResolution.S1.collection());
+            bulk.insert(points);
+            recorded.increment(bulk.execute().getInsertedCount());
+        } catch (Exception e) {
+            // Dropped rather than retried, so an unavailable Mongo cannot grow the queue without bound
+            failed.increment(points.size());
+            logger.error("Failed to record {} NAV points", points.size(), e);
+        }
+    }
+
+    /** How long points of {@code resolution} are kept, null when forever. */
+    public Duration retention(NavResolution resolution) {
+        int days = switch (resolution) {
+            case S1 -> secondRetentionDays;
+            case M1 -> minuteRetentionDays;
+            case H1 -> hourRetentionDays;
+        };
+        return days > 0 ? Duration.ofDays(days) : null;
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
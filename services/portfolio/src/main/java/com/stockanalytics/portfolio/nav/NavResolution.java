@@ -0,0 +1,65 @@
+package com.stockanalytics.portfolio.nav;
+
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.util.Locale;
+
+/**
+ * Resolutions of the NAV history, finest first. Each is rolled up from the one before it, and
+ * buckets are aligned to the epoch.
+ */
+public enum NavResolution {
+
+    S1("1s", 1_000L, "second", Granularity.SECONDS),
+    M1("1m", 60_000L, "minute", Granularity.MINUTES),
+    H1("1h", 3_600_000L, "hour", Granularity.HOURS);
+
+    private final String label;
+    private final long millis;
+    private final String unit;
+    private final Granularity granularity;
+
+    NavResolution(String label, long millis, String unit, Granularity granularity) {
+        this.label = label;
+        this.millis = millis;
+        this.unit = unit;
+        this.granularity = granularity;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    /** The {@code $dateTrunc} unit of a bucket. */
+    String unit() {
+        return unit;
+    }
+
+    Granularity granularity() {
+        return granularity;
+    }
+
+    /** Start of the bucket holding {@code timestampMillis}. */
+    public long bucketStart(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, millis) * millis;
+    }
+
+    /** Mongo time-series collection holding the points of this resolution. */
+    public String collection() {
+        return "nav_" + label;
+    }
+
+    public static NavResolution parse(String label) {
+        String normalized = label.trim().toLowerCase(Locale.ROOT);
+        for (NavResolution resolution : values()) {
+            if (resolution.label.equals(normalized)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown NAV resolution: " + label);
+    }
+}
@@ -0,0 +1,155 @@
+package com.stockanalytics.portfolio.nav;
+
+import com.mongodb.client.MongoCursor;
+import com.stockanalytics.portfolio.model.NavPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Downsamples the NAV history level by level: closed minutes of {@link NavResolution#S1} points
+ * into {@link NavResolution#M1}, and closed hours of those into {@link NavResolution#H1}, each
+ * bucket keeping the open, high, low and close NAV and the closing P&L.
+ *
+ * <p>Each level rolls up from its watermark to the last bucket closed {@code rollup-settle-ms}
+ * ago and then advances the watermark. The range is cleared first, so a run interrupted before
+ * the watermark moved is simply redone. A level falls behind by at most one rollup interval plus
+ * one of its buckets.
+ *
+ * <p>Runs are not coordinated across instances, so two instances rolling up the same range would
+ * interleave their clears and inserts: enable {@code portfolio.nav.rollup-enabled} on one instance
+ * only.
+ */
+@Component
+public class NavRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavRollup.class);
+
+    private static final String WATERMARKS = "nav_rollups";
+    private static final int BATCH_SIZE = 1000;
+
+    @Value("${portfolio.nav.enabled:true}")
+    private boolean enabled;
+
+    @Value("${portfolio.nav.rollup-enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${portfolio.nav.rollup-settle-ms:5000}")
+    private long settleMs;
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter rolledUp;
+
+    @Autowired
+    public NavRollup(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.rolledUp = Counter.builder("portfolio.nav.rolledup")
+                .description("Downsampled NAV points written")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.nav.rollup-interval-ms:60000}")
+    public void scheduledRollup() {
+        if (!enabled || !rollupEnabled) {
+            return;
+        }
+        try {
+            rollup();
+        } catch (Exception e) {
+            logger.error("NAV rollup failed", e);
+        }
+    }
+
+    /** Rolls every level up to its last closed bucket, finest first. */
+    public synchronized void rollup() {
+        Instant settled = Instant.now().minusMillis(settleMs);
+        NavResolution[] resolutions = NavResolution.values();
+        for (int i = 1; i < resolutions.length; i++) {
+            rollup(resolutions[i - 1], resolutions[i], settled);
+        }
+    }
+
+    private void rollup(NavResolution source, NavResolution target, Instant settled) {
+        Instant from = watermark(target);
+        if (from == null) {
+            NavPoint first = mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.ASC, "ts")),
+                    NavPoint.class, source.collection());
+            if (first == null) {
+                return;
+            }
+            from = Instant.ofEpochMilli(target.bucketStart(first.getTimestamp().toEpochMilli()));
+        }
+        Instant to = Instant.ofEpochMilli(target.bucketStart(settled.toEpochMilli()));
+        if (!to.isAfter(from)) {
+            return;
+        }
+
+        mongoTemplate.remove(new Query(Criteria.where("ts").gte(from).lt(to)), target.collection());
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("ts", new Document("$gte", Date.from(from)).append("$lt", Date.from(to)))),
+                new Document("$sort", new Document("ts", 1)),
+                new Document("$group", new Document("_id", new Document("accountId", "$accountId")
+                        .append("ts", new Document("$dateTrunc", new Document("date", "$ts").append("unit", target.unit()))))
+                        .append("open", new Document("$first", "$open"))
+                        .append("high", new Document("$max", "$high"))
+                        .append("low", new Document("$min", "$low"))
+                        .append("nav", new Document("$last", "$nav"))
+                        .append("pnl", new Document("$last", "$pnl"))));
+
+        long written = 0;
+        List<NavPoint> batch = new ArrayList<>(BATCH_SIZE);
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(source.collection())
+                .aggregate(pipeline).allowDiskUse(true).iterator()) {
+            while (cursor.hasNext()) {
+                Document bucket = cursor.next();
+                Document key = bucket.get("_id", Document.class);
+                batch.add(new NavPoint(key.getDate("ts").toInstant(), key.getString("accountId"),
+                        bucket.getLong("open"), bucket.getLong("high"), bucket.getLong("low"),
+                        bucket.getLong("nav"), bucket.getLong("pnl")));
+                if (batch.size() == BATCH_SIZE) {
+                    written += insert(target, batch);
+                }
+            }
+        }
+        written += insert(target, batch);
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(target.label())),
+                new Update().set("upTo", to), WATERMARKS);
+        rolledUp.increment(written);
+        logger.debug("Rolled up {} {} NAV points for [{}, {})", written, target.label(), from, to);
+    }
+
+    private long insert(NavResolution target, List<NavPoint> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NavPoint.class, target.collection());
+        bulk.insert(batch);
+        int inserted = bulk.execute().getInsertedCount();
+        batch.clear();
+        return inserted;
+    }
+
+    private Instant watermark(NavResolution target) {
+        Document watermark = mongoTemplate.findById(target.label(), Document.class, WATERMARKS);
+        return watermark == null ? null : watermark.getDate("upTo").toInstant();
+    }
+}
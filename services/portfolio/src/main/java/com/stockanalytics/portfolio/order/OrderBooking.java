@@ -0,0 +1,105 @@
+package com.stockanalytics.portfolio.order;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * The effect of an executed order on an account's cash and its position in the symbol, shared by
+ * the per-order listener in {@code PortfolioService} and the sharded {@link OrderShard}s.
+ */
+public final class OrderBooking {
+
+    private OrderBooking() {}
+
+    /**
+     * Books {@code order} into {@code account} and {@code position}. A sell larger than the
+     * position is rejected with an {@link IllegalStateException} before anything changes.
+     */
+    public static void apply(Account account, Position position, OrderExecuted order) {
+        checkPosition(position, order);
+        applyCash(account, order);
+        applyPosition(position, order);
+    }
+
+    /**
+     * Books the order at {@code partition}/{@code offset} into whichever of {@code account} and
+     * {@code position} has not recorded it yet, and stamps them with it. Returns false, changing
+     * nothing, when both already had. Rejected like {@link #apply}.
+     */
+    public static boolean applyOnce(Account account, Position position, OrderExecuted order, int partition, long offset) {
+        boolean cashApplied = isApplied(account.getLastPartition(), account.getLastOffset(), partition, offset);
+        boolean positionApplied = isApplied(position.getLastPartition(), position.getLastOffset(), partition, offset);
+        if (cashApplied && positionApplied) {
+            return false;
+        }
+        if (!positionApplied) {
+            checkPosition(position, order);
+        }
+        if (!cashApplied) {
+            applyCash(account, order);
+            account.setLastPartition(partition);
+            account.setLastOffset(offset);
+        }
+        if (!positionApplied) {
+            applyPosition(position, order);
+            position.setLastPartition(partition);
+            position.setLastOffset(offset);
+        }
+        return true;
+    }
+
+    static void checkPosition(Position position, OrderExecuted order) {
+        if ("SELL".equals(order.getSide()) && position.getQuantity() < order.getQuantity()) {
+            throw new IllegalStateException("Insufficient position for sell order");
+        }
+    }
+
+    static void applyCash(Account account, OrderExecuted order) {
+        BigDecimal amount = order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()));
+        BigDecimal fees = order.getFees();
+        if ("BUY".equals(order.getSide())) {
+            account.setCash(account.getCash().subtract(amount).subtract(fees));
+        } else if ("SELL".equals(order.getSide())) {
+            account.setCash(account.getCash().add(amount).subtract(fees));
+        }
+    }
+
+    static void applyPosition(Position position, OrderExecuted order) {
+        if ("BUY".equals(order.getSide())) {
+            if (position.getQuantity() == 0) {
+                position.setQuantity(order.getQuantity());
+                position.setAveragePrice(order.getPrice());
+            } else {
+                // Calculate new average price
+                BigDecimal currentValue = position.getAveragePrice().multiply(BigDecimal.valueOf(position.getQuantity()));
+                BigDecimal newValue = order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()));
+                int totalQuantity = position.getQuantity() + order.getQuantity();
+                position.setQuantity(totalQuantity);
+                position.setAveragePrice(currentValue.add(newValue)
+                        .divide(BigDecimal.valueOf(totalQuantity), 2, RoundingMode.HALF_UP));
+            }
+        } else if ("SELL".equals(order.getSide())) {
+            position.setQuantity(position.getQuantity() - order.getQuantity());
+            if (position.getQuantity() == 0) {
+                position.setAveragePrice(BigDecimal.ZERO);
+            }
+        } else {
+            return;
+        }
+        position.setUpdatedAt(Instant.now());
+    }
+
+    /**
+     * Whether the order at {@code partition}/{@code offset} was already applied to a document that
+     * last recorded {@code lastPartition}/{@code lastOffset}. Offsets are only comparable within
+     * one partition; an account moved to another partition applies everything.
+     */
+    static boolean isApplied(Integer lastPartition, Long lastOffset, int partition, long offset) {
+        return lastPartition != null && lastOffset != null && lastPartition == partition && offset <= lastOffset;
+    }
+}
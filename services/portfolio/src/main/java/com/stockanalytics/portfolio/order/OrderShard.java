@@ -0,0 +1,184 @@
+package com.stockanalytics.portfolio.order;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The accounts of one {@code orders.executed} partition and the orders booked into them since the
+ * last flush. Only the consumer thread that owns the partition touches a shard, so orders are
+ * applied to in-memory state without locks or read-modify-write round trips; {@link #flush} then
+ * writes the orders, the changed positions and the changed accounts through
+ * {@link OrderStore#write}, three bulk operations however many orders the poll held.
+ *
+ * <p>Every written account and position records the partition and offset of the last order
+ * applied to it, so orders redelivered after a crash between the write and the offset commit are
+ * skipped rather than booked twice. Clean accounts beyond {@code maxAccounts} are evicted after a
+ * flush, least recently used first, and reloaded from Mongo when they trade again.
+ */
+final class OrderShard {
+
+    enum Outcome { APPLIED, DUPLICATE, REJECTED }
+
+    private final int partition;
+    private final int maxAccounts;
+    private final OrderStore orderStore;
+
+    private final LinkedHashMap<String, AccountState> accounts = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, AccountState> changed = new LinkedHashMap<>();
+    private final List<OrderExecuted> orders = new ArrayList<>();
+
+    OrderShard(int partition, int maxAccounts, OrderStore orderStore) {
+        this.partition = partition;
+        this.maxAccounts = maxAccounts;
+        this.orderStore = orderStore;
+    }
+
+    int partition() {
+        return partition;
+    }
+
+    int size() {
+        return accounts.size();
+    }
+
+    /** Books the order at {@code offset} into the in-memory state. */
+    Outcome apply(OrderExecuted order, long offset) {
+        AccountState state = state(order.getAccountId());
+        Account account = state.account;
+        Position position = state.positions.computeIfAbsent(order.getSymbol(),
+                symbol -> new Position(order.getAccountId(), symbol, 0, BigDecimal.ZERO));
+
+        boolean cashApplied = OrderBooking.isApplied(account.getLastPartition(), account.getLastOffset(), partition, offset);
+        boolean positionApplied = OrderBooking.isApplied(position.getLastPartition(), position.getLastOffset(), partition, offset);
+        if (cashApplied && positionApplied) {
+            return Outcome.DUPLICATE;
+        }
+        if (!positionApplied) {
+            try {
+                OrderBooking.checkPosition(position, order);
+            } catch (IllegalStateException e) {
+                return Outcome.REJECTED;
+            }
+        }
+
+        if (!cashApplied) {
+            OrderBooking.applyCash(account, order);
+            account.setLastPartition(partition);
+            account.setLastOffset(offset);
+            state.accountChanged = true;
+        }
+        if (!positionApplied) {
+            OrderBooking.applyPosition(position, order);
+            position.setLastPartition(partition);
+            position.setLastOffset(offset);
+            state.changedSymbols.add(position.getSymbol());
+        }
+        if (order.getId() == null) {
+            // Keyed on the order id, so a redelivered order is rejected as a duplicate
+            order.setId(order.getOrderId());
+        }
+        order.setPartition(partition);
+        order.setOffset(offset);
+        orders.add(order);
+        changed.put(account.getUserId(), state);
+        return Outcome.APPLIED;
+    }
+
+    /**
+     * Writes everything booked since the last flush and returns the changed accounts with their
+     * changed positions. On failure the shard is cleared, so the redelivered orders are booked
+     * against state reloaded from Mongo.
+     */
+    List<Change> flush() {
+        if (changed.isEmpty()) {
+            return List.of();
+        }
+        List<Change> result = new ArrayList<>(changed.size());
+        List<Position> positions = new ArrayList<>();
+        List<Account> accountsChanged = new ArrayList<>(changed.size());
+        for (AccountState state : changed.values()) {
+            List<Position> accountPositions = new ArrayList<>(state.changedSymbols.size());
+            for (String symbol : state.changedSymbols) {
+                accountPositions.add(state.positions.get(symbol));
+            }
+            positions.addAll(accountPositions);
+            if (state.accountChanged) {
+                accountsChanged.add(state.account);
+            }
+            result.add(new Change(state.account, accountPositions));
+        }
+        try {
+            orderStore.write(orders, positions, accountsChanged);
+        } catch (RuntimeException e) {
+            clear();
+            throw e;
+        }
+
+        for (AccountState state : changed.values()) {
+            state.accountChanged = false;
+            state.changedSymbols.clear();
+            state.positions.values().removeIf(position -> position.getQuantity() == 0 && position.getLastOffset() == null);
+        }
+        changed.clear();
+        orders.clear();
+        evict();
+        return result;
+    }
+
+    /** Drops all state, e.g. when the partition is revoked. */
+    void clear() {
+        accounts.clear();
+        changed.clear();
+        orders.clear();
+    }
+
+    private AccountState state(String accountId) {
+        AccountState state = accounts.get(accountId);
+        if (state == null) {
+            Account account = orderStore.findAccount(accountId);
+            if (account == null) {
+                // Written on the first flush together with the order that opened it
+                account = new Account(accountId, OrderStore.INITIAL_CASH, OrderStore.CURRENCY);
+            }
+            state = new AccountState(account);
+            for (Position position : orderStore.findPositions(accountId)) {
+                state.positions.put(position.getSymbol(), position);
+            }
+            accounts.put(accountId, state);
+        }
+        return state;
+    }
+
+    private void evict() {
+        Iterator<AccountState> eldest = accounts.values().iterator();
+        while (accounts.size() > maxAccounts && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /** An account and the positions a flush wrote for it. */
+    record Change(Account account, List<Position> positions) {}
+
+    private static final class AccountState {
+        private final Account account;
+        private final Map<String, Position> positions = new HashMap<>();
+        private final Set<String> changedSymbols = new LinkedHashSet<>();
+        private boolean accountChanged;
+
+        private AccountState(Account account) {
+            this.account = account;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.stockanalytics.portfolio.order;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mongo access of order booking, shaped to keep round trips per order constant: an account and
+ * one of its positions are read together in a single aggregation, and orders, positions and
+ * accounts are written as one unordered bulk operation per collection. Documents are upserted by
+ * their natural keys, so new accounts and positions need no insert-then-update.
+ *
+ * <p>Every operation goes through the {@link MongoTemplate}, including the raw aggregation and the
+ * bulk writes, so inside a Mongo transaction they all run on its session.
+ */
+@Component
+public class OrderStore {
+
+    public static final BigDecimal INITIAL_CASH = BigDecimal.valueOf(100000);
+    public static final String CURRENCY = "INR";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public OrderStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Reads the account of {@code order}, its position in the order's symbol and the order as
+     * stored under its id, in one round trip. The account and position are new (and unsaved) when
+     * they do not exist yet; the stored order is null when it was never booked.
+     */
+    public Booking load(OrderExecuted order) {
+        String accountId = order.getAccountId();
+        String symbol = order.getSymbol();
+        String accounts = mongoTemplate.getCollectionName(Account.class);
+        String positions = mongoTemplate.getCollectionName(Position.class);
+        String orders = mongoTemplate.getCollectionName(OrderExecuted.class);
+        Document found = mongoTemplate.getCollection(accounts).aggregate(List.of(
+                new Document("$match", new Document("userId", accountId)),
+                new Document("$limit", 1),
+                new Document("$lookup", new Document("from", positions)
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("accountId", accountId).append("symbol", symbol)),
+                                new Document("$limit", 1)))
+                        .append("as", "position")),
+                new Document("$lookup", new Document("from", orders)
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("_id", order.getOrderId())),
+                                new Document("$limit", 1)))
+                        .append("as", "order"))
+        )).first();
+
+        if (found == null) {
+            // Positions and orders are only ever written with their account
+            return new Booking(new Account(accountId, INITIAL_CASH, CURRENCY), newPosition(accountId, symbol), null);
+        }
+        Account account = mongoTemplate.getConverter().read(Account.class, found);
+        Position position = first(found, "position", Position.class);
+        OrderExecuted stored = first(found, "order", OrderExecuted.class);
+        return new Booking(account, position != null ? position : newPosition(accountId, symbol), stored);
+    }
+
+    /** Reads an account, null when it does not exist. */
+    Account findAccount(String accountId) {
+        return mongoTemplate.findOne(new Query(Criteria.where("userId").is(accountId)), Account.class);
+    }
+
+    /** Reads all positions of an account. */
+    List<Position> findPositions(String accountId) {
+        return mongoTemplate.find(new Query(Criteria.where("accountId").is(accountId)), Position.class);
+    }
+
+    /**
+     * Writes orders, then positions, then accounts, one unordered bulk operation each: the cash of
+     * an account is only written once its positions are. Orders are stamped with the time they
+     * were booked, and those already stored under their id are skipped.
+     */
+    public void write(List<OrderExecuted> orders, Collection<Position> positions, Collection<Account> accounts) {
+        insertOrders(orders);
+
+        if (!positions.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Position.class);
+            for (Position position : positions) {
+                bulk.upsert(
+                        new Query(Criteria.where("accountId").is(position.getAccountId()).and("symbol").is(position.getSymbol())),
+                        new Update()
+                                .set("qty", position.getQuantity())
+                                .set("avgPrice", position.getAveragePrice())
+                                .set("updatedAt", position.getUpdatedAt())
+                                .set("lastPartition", position.getLastPartition())
+                                .set("lastOffset", position.getLastOffset()));
+            }
+            bulk.execute();
+        }
+
+        if (!accounts.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+            for (Account account : accounts) {
+                bulk.upsert(new Query(Criteria.where("userId").is(account.getUserId())),
+                        new Update()
+                                .set("cash", account.getCash())
+                                .set("lastPartition", account.getLastPartition())
+                                .set("lastOffset", account.getLastOffset())
+                                .setOnInsert("currency", account.getCurrency())
+                                .setOnInsert("createdAt", account.getCreatedAt()));
+            }
+            bulk.execute();
+        }
+    }
+
+    private void insertOrders(List<OrderExecuted> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Instant bookedAt = Instant.now();
+        for (OrderExecuted order : orders) {
+            order.setBookedAt(bookedAt);
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderExecuted.class);
+            bulk.insert(orders);
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> T first(Document found, String field, Class<T> type) {
+        List<?> matches = found.getList(field, Object.class);
+        return matches.isEmpty() ? null : mongoTemplate.getConverter().read(type, (Document) matches.get(0));
+    }
+
+    private static Position newPosition(String accountId, String symbol) {
+        return new Position(accountId, symbol, 0, BigDecimal.ZERO);
+    }
+
+    /** An account, one of its positions and the order as already stored, as loaded for booking it. */
+    public record Booking(Account account, Position position, OrderExecuted stored) {}
+}
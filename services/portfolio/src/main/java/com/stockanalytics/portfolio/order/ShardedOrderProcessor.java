@@ -0,0 +1,142 @@
+package com.stockanalytics.portfolio.order;
+
+import com.stockanalytics.portfolio.model.OrderExecuted;
+import com.stockanalytics.portfolio.model.Position;
+import com.stockanalytics.portfolio.valuation.ValuationEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Books executed orders with one single-writer {@link OrderShard} per {@code orders.executed}
+ * partition. Producers key orders by account id, so all orders of an account land in one
+ * partition and are booked, in order, by the one consumer thread that owns it: no two threads or
+ * instances ever write the same account, and throughput grows with partitions and
+ * {@code portfolio.orders.concurrency}. Each poll is booked in memory and written back in one
+ * coalesced flush per partition before its offsets are committed. The {@link ValuationEngine}
+ * follows the assignment, so it values exactly the accounts booked here.
+ *
+ * <p>Used unless {@code portfolio.orders.sharded} is false, in which case
+ * {@code PortfolioService} books orders one at a time.
+ */
+@Component
+public class ShardedOrderProcessor implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedOrderProcessor.class);
+
+    @Value("${portfolio.orders.shard-max-accounts:100000}")
+    private int shardMaxAccounts;
+
+    private final OrderStore orderStore;
+    private final ValuationEngine valuationEngine;
+    private final Map<Integer, OrderShard> shards = new ConcurrentHashMap<>();
+
+    private final Counter applied;
+    private final Counter duplicates;
+    private final Counter rejected;
+    private final Counter unkeyed;
+    private final Timer flushTimer;
+
+    @Autowired
+    public ShardedOrderProcessor(OrderStore orderStore, ValuationEngine valuationEngine,
+                                 MeterRegistry meterRegistry) {
+        this.orderStore = orderStore;
+        this.valuationEngine = valuationEngine;
+        this.applied = Counter.builder("portfolio.orders.applied").register(meterRegistry);
+        this.duplicates = Counter.builder("portfolio.orders.duplicates")
+                .description("Redelivered orders already booked")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("portfolio.orders.rejected").register(meterRegistry);
+        this.unkeyed = Counter.builder("portfolio.orders.unkeyed")
+                .description("Orders not keyed by their account id, which may reach more than one shard")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("portfolio.orders.flush.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("portfolio.orders.accounts", shards,
+                s -> s.values().stream().mapToInt(OrderShard::size).sum()).register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "${kafka.topic.orders.executed:orders.executed}",
+            batch = "true",
+            concurrency = "${portfolio.orders.concurrency:1}",
+            autoStartup = "${portfolio.orders.sharded:true}",
+            properties = {"max.poll.records=${portfolio.orders.max-poll-records:2000}"})
+    public void processExecutedOrders(List<ConsumerRecord<String, OrderExecuted>> records) {
+        Map<Integer, List<ConsumerRecord<String, OrderExecuted>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, OrderExecuted> record : records) {
+            if (record.value() != null) {
+                byPartition.computeIfAbsent(record.partition(), p -> new ArrayList<>()).add(record);
+            }
+        }
+
+        for (Map.Entry<Integer, List<ConsumerRecord<String, OrderExecuted>>> entry : byPartition.entrySet()) {
+            OrderShard shard = shards.computeIfAbsent(entry.getKey(),
+                    partition -> new OrderShard(partition, shardMaxAccounts, orderStore));
+            for (ConsumerRecord<String, OrderExecuted> record : entry.getValue()) {
+                book(shard, record);
+            }
+
+            // A failed flush clears the shard and fails the poll, which is then redelivered
+            long start = System.nanoTime();
+            List<OrderShard.Change> changes = shard.flush();
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (OrderShard.Change change : changes) {
+                for (Position position : change.positions()) {
+                    valuationEngine.apply(change.account(), position);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        valuationEngine.assign(assignments.keySet().stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        // Another consumer may book these accounts from now on; reload them if the partition returns
+        for (TopicPartition partition : partitions) {
+            OrderShard shard = shards.remove(partition.partition());
+            if (shard != null) {
+                shard.clear();
+            }
+        }
+        valuationEngine.revoke(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    private void book(OrderShard shard, ConsumerRecord<String, OrderExecuted> record) {
+        OrderExecuted order = record.value();
+        if (!order.getAccountId().equals(record.key())) {
+            unkeyed.increment();
+        }
+        switch (shard.apply(order, record.offset())) {
+            case APPLIED -> applied.increment();
+            case DUPLICATE -> duplicates.increment();
+            case REJECTED -> {
+                rejected.increment();
+                logger.warn("Rejected executed order {} for account {}: insufficient position in {}",
+                        order.getOrderId(), order.getAccountId(), order.getSymbol());
+            }
+        }
+    }
+}
@@ -4,10 +4,14 @@ import com.stockanalytics.portfolio.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends MongoRepository<Account, String> {
 
     Optional<Account> findByUserId(String userId);
+
+    List<Account> findByLastPartitionIn(Collection<Integer> partitions);
 }
@@ -4,6 +4,7 @@ import com.stockanalytics.portfolio.model.Position;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +14,6 @@ public interface PositionRepository extends MongoRepository<Position, String> {
     List<Position> findByAccountId(String accountId);
     
     Optional<Position> findByAccountIdAndSymbol(String accountId, String symbol);
+
+    List<Position> findByAccountIdInAndQuantityGreaterThan(Collection<String> accountIds, int quantity);
 }
@@ -1,149 +1,130 @@
 package com.stockanalytics.portfolio.service;
 
 import com.stockanalytics.portfolio.model.*;
-import com.stockanalytics.portfolio.repository.AccountRepository;
-import com.stockanalytics.portfolio.repository.OrderExecutedRepository;
-import com.stockanalytics.portfolio.repository.PositionRepository;
+import com.stockanalytics.portfolio.order.OrderBooking;
+import com.stockanalytics.portfolio.order.OrderStore;
+import com.stockanalytics.portfolio.valuation.ValuationEngine;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
-public class PortfolioService {
+public class PortfolioService implements ConsumerSeekAware {
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioService.class);
 
     @Value("${kafka.topic.portfolio.updates:portfolio.updates}")
     private String portfolioUpdatesTopic;
 
-    private final AccountRepository accountRepository;
-    private final PositionRepository positionRepository;
-    private final OrderExecutedRepository orderExecutedRepository;
+    private final OrderStore orderStore;
     private final KafkaTemplate<String, PortfolioUpdate> kafkaTemplate;
+    private final ValuationEngine valuationEngine;
+    // Present when portfolio.orders.transactional registers a MongoTransactionManager
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public PortfolioService(AccountRepository accountRepository,
-                           PositionRepository positionRepository,
-                           OrderExecutedRepository orderExecutedRepository,
-                           KafkaTemplate<String, PortfolioUpdate> kafkaTemplate) {
-        this.accountRepository = accountRepository;
-        this.positionRepository = positionRepository;
-        this.orderExecutedRepository = orderExecutedRepository;
+    public PortfolioService(OrderStore orderStore,
+                           KafkaTemplate<String, PortfolioUpdate> kafkaTemplate,
+                           ValuationEngine valuationEngine,
+                           ObjectProvider<TransactionTemplate> transactionTemplate) {
+        this.orderStore = orderStore;
         this.kafkaTemplate = kafkaTemplate;
+        this.valuationEngine = valuationEngine;
+        this.transactionTemplate = transactionTemplate.getIfAvailable();
     }
 
-    @KafkaListener(topics = "${kafka.topic.orders.executed:orders.executed}")
-    public void processExecutedOrder(OrderExecuted order) {
+    /**
+     * Per-order processing, used when {@code portfolio.orders.sharded} is false; otherwise
+     * {@code ShardedOrderProcessor} consumes the topic.
+     */
+    @KafkaListener(topics = "${kafka.topic.orders.executed:orders.executed}",
+            autoStartup = "#{!${portfolio.orders.sharded:true}}")
+    public void processExecutedOrder(ConsumerRecord<String, OrderExecuted> record) {
+        OrderExecuted order = record.value();
         logger.info("Processing executed order: {} for account: {}", order.getOrderId(), order.getAccountId());
         
         try {
-            // Process the order and update portfolio
-            processOrder(order);
-            
-            // Calculate and publish portfolio update
-            publishPortfolioUpdate(order.getAccountId());
+            // Process the order and update portfolio; the valuation engine publishes the update
+            processOrder(order, record.partition(), record.offset());
             
         } catch (Exception e) {
             logger.error("Failed to process executed order: {}", order.getOrderId(), e);
         }
     }
 
-    @Transactional
-    public void processOrder(OrderExecuted order) {
-        String accountId = order.getAccountId();
-        String symbol = order.getSymbol();
-        
-        // Get or create account
-        Account account = getOrCreateAccount(accountId);
-        
-        // Get or create position
-        Position position = getOrCreatePosition(accountId, symbol);
-        
-        if ("BUY".equals(order.getSide())) {
-            processBuyOrder(account, position, order);
-        } else if ("SELL".equals(order.getSide())) {
-            processSellOrder(account, position, order);
-        }
-        
-        // Save order
-        orderExecutedRepository.save(order);
-        
-        // Update account and position
-        accountRepository.save(account);
-        positionRepository.save(position);
+    // Only called for the listener above, i.e. when orders are not sharded
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        valuationEngine.assign(assignments.keySet().stream().map(TopicPartition::partition).toList());
     }
 
-    private void processBuyOrder(Account account, Position position, OrderExecuted order) {
-        BigDecimal totalCost = order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()));
-        BigDecimal totalFees = order.getFees();
-        
-        // Update cash
-        account.setCash(account.getCash().subtract(totalCost).subtract(totalFees));
-        
-        // Update position
-        if (position.getQuantity() == 0) {
-            position.setQuantity(order.getQuantity());
-            position.setAveragePrice(order.getPrice());
-        } else {
-            // Calculate new average price
-            BigDecimal currentValue = position.getAveragePrice().multiply(BigDecimal.valueOf(position.getQuantity()));
-            BigDecimal newValue = order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()));
-            BigDecimal totalValue = currentValue.add(newValue);
-            int totalQuantity = position.getQuantity() + order.getQuantity();
-            
-            position.setQuantity(totalQuantity);
-            position.setAveragePrice(totalValue.divide(BigDecimal.valueOf(totalQuantity), 2, RoundingMode.HALF_UP));
-        }
-        
-        position.setUpdatedAt(Instant.now());
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        valuationEngine.revoke(partitions.stream().map(TopicPartition::partition).toList());
     }
 
-    private void processSellOrder(Account account, Position position, OrderExecuted order) {
-        BigDecimal totalProceeds = order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity()));
-        BigDecimal totalFees = order.getFees();
-        
-        // Update cash
-        account.setCash(account.getCash().add(totalProceeds).subtract(totalFees));
-        
-        // Update position
-        if (position.getQuantity() < order.getQuantity()) {
-            throw new IllegalStateException("Insufficient position for sell order");
-        }
-        
-        position.setQuantity(position.getQuantity() - order.getQuantity());
-        if (position.getQuantity() == 0) {
-            position.setAveragePrice(BigDecimal.ZERO);
+    /**
+     * Books the order at {@code partition}/{@code offset} in four round trips: the account, the
+     * position and any order already stored under the order id are read in one aggregation, then
+     * the order, position and account are written as one bulk operation each. The update is
+     * published from the booked state, without reading it back.
+     *
+     * <p>Orders are stored under their order id and the account and position record the
+     * partition/offset of the last order applied, as in {@code OrderShard}: a redelivered record
+     * only completes what an interrupted booking left out, and an order id already booked from
+     * another record is skipped. When
+     * {@code portfolio.orders.transactional} is set, the read and the writes run in one Mongo
+     * transaction, which every {@link OrderStore} call joins through the MongoTemplate, and the
+     * valuation is only updated once it has committed.
+     */
+    public void processOrder(OrderExecuted order, int partition, long offset) {
+        // A TransactionTemplate rather than @Transactional, which calls from the listener above would bypass
+        OrderStore.Booking booking = transactionTemplate != null
+                ? transactionTemplate.execute(status -> book(order, partition, offset))
+                : book(order, partition, offset);
+
+        if (booking == null) {
+            logger.info("Skipping executed order {} for account {}: already booked", order.getOrderId(), order.getAccountId());
+            return;
         }
-        
-        position.setUpdatedAt(Instant.now());
+        valuationEngine.apply(booking.account(), booking.position());
     }
 
-    private Account getOrCreateAccount(String accountId) {
-        return accountRepository.findByUserId(accountId)
-                .orElseGet(() -> {
-                    Account newAccount = new Account(accountId, BigDecimal.valueOf(100000), "INR");
-                    return accountRepository.save(newAccount);
-                });
-    }
+    // Null when the order was already booked
+    private OrderStore.Booking book(OrderExecuted order, int partition, long offset) {
+        OrderStore.Booking booking = orderStore.load(order);
+        OrderExecuted stored = booking.stored();
+        if (stored != null && !(Objects.equals(stored.getPartition(), partition) && Objects.equals(stored.getOffset(), offset))) {
+            // The same order id from another record, e.g. a producer retry
+            return null;
+        }
+        Account account = booking.account();
+        Position position = booking.position();
+        if (!OrderBooking.applyOnce(account, position, order, partition, offset)) {
+            return null;
+        }
 
-    private Position getOrCreatePosition(String accountId, String symbol) {
-        return positionRepository.findByAccountIdAndSymbol(accountId, symbol)
-                .orElseGet(() -> {
-                    Position newPosition = new Position(accountId, symbol, 0, BigDecimal.ZERO);
-                    return positionRepository.save(newPosition);
-                });
+        order.setId(order.getOrderId());
+        order.setPartition(partition);
+        order.setOffset(offset);
+        // A stored order is this record's, kept from an interrupted booking; inserting it again
+        // would fail, and abort the transaction
+        orderStore.write(stored == null ? List.of(order) : List.of(), List.of(position), List.of(account));
+        return booking;
     }
 
     public void publishPortfolioUpdate(String accountId) {
@@ -156,29 +137,11 @@ public class PortfolioService {
         }
     }
 
-    private PortfolioUpdate calculatePortfolioUpdate(String accountId) {
-        Account account = accountRepository.findByUserId(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found: " + accountId));
-        
-        List<Position> positions = positionRepository.findByAccountId(accountId);
-        
-        List<PortfolioUpdate.PositionSummary> positionSummaries = positions.stream()
-                .filter(p -> p.getQuantity() > 0)
-                .map(p -> new PortfolioUpdate.PositionSummary(
-                        p.getSymbol(), p.getQuantity(), p.getAveragePrice()))
-                .collect(Collectors.toList());
-        
-        // Calculate NAV (simplified - in real scenario, you'd get current prices)
-        BigDecimal positionsValue = positionSummaries.stream()
-                .map(p -> p.getAveragePrice().multiply(BigDecimal.valueOf(p.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal nav = account.getCash().add(positionsValue);
-        
-        // Calculate P&L (simplified - in real scenario, you'd get current prices)
-        PortfolioUpdate.PnL pnl = new PortfolioUpdate.PnL(BigDecimal.ZERO, BigDecimal.ZERO);
-        
-        return new PortfolioUpdate(Instant.now(), accountId, positionSummaries, account.getCash(), pnl, nav);
+    /**
+     * The account's portfolio marked to the latest prices, from the in-memory valuation.
+     */
+    public PortfolioUpdate calculatePortfolioUpdate(String accountId) {
+        return valuationEngine.snapshot(accountId);
     }
 
     public PortfolioUpdate getPortfolio(String accountId) {
@@ -0,0 +1,127 @@
+package com.stockanalytics.portfolio.valuation;
+
+import com.stockanalytics.portfolio.model.PortfolioUpdate;
+import com.stockanalytics.shared.price.FixedPoint;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The in-memory valuation of one account: cash and the open holdings, each marked to the last
+ * traded price of its symbol. Every amount is fixed-point at {@link #SCALE}. Market value and cost
+ * basis are kept as running totals, so a tick changes them by {@code qty × Δprice} without
+ * revisiting the other holdings.
+ *
+ * <p>Not thread-safe: {@link ValuationEngine} locks the book around every access.
+ */
+final class AccountBook {
+
+    static final int SCALE = 4;
+
+    private final String accountId;
+    private final Map<String, Holding> holdings = new HashMap<>();
+    private long cash;
+    private long marketValue;
+    private long costBasis;
+    private long lastPublishedNanos;
+
+    AccountBook(String accountId) {
+        this.accountId = accountId;
+    }
+
+    String accountId() {
+        return accountId;
+    }
+
+    /** The symbols held, as a copy. */
+    List<String> symbols() {
+        return List.copyOf(holdings.keySet());
+    }
+
+    void setCash(BigDecimal cash) {
+        this.cash = FixedPoint.toTicks(cash, SCALE);
+    }
+
+    /**
+     * Replaces the holding of {@code symbol}; a zero quantity closes it. {@code lastPrice} (at
+     * {@link #SCALE}) marks a new holding, or its average price when no tick has been seen yet.
+     * Returns whether the account now holds the symbol.
+     */
+    boolean setHolding(String symbol, int quantity, BigDecimal averagePrice, Long lastPrice) {
+        Holding holding = holdings.get(symbol);
+        if (holding != null) {
+            marketValue -= holding.quantity * holding.lastPrice;
+            costBasis -= holding.quantity * holding.averagePrice;
+        }
+        if (quantity == 0) {
+            holdings.remove(symbol);
+            return false;
+        }
+        if (holding == null) {
+            holding = new Holding(symbol);
+            holdings.put(symbol, holding);
+        }
+        holding.quantity = quantity;
+        holding.averagePriceValue = averagePrice;
+        holding.averagePrice = FixedPoint.toTicks(averagePrice, SCALE);
+        if (lastPrice != null) {
+            holding.lastPrice = lastPrice;
+        } else if (holding.lastPrice == 0) {
+            holding.lastPrice = holding.averagePrice;
+        }
+        marketValue += quantity * holding.lastPrice;
+        costBasis += quantity * holding.averagePrice;
+        return true;
+    }
+
+    /** Marks the holding of {@code symbol} to {@code price}; false when nothing changed. */
+    boolean mark(String symbol, long price) {
+        Holding holding = holdings.get(symbol);
+        if (holding == null || holding.lastPrice == price) {
+            return false;
+        }
+        marketValue += holding.quantity * (price - holding.lastPrice);
+        holding.lastPrice = price;
+        return true;
+    }
+
+    long lastPublishedNanos() {
+        return lastPublishedNanos;
+    }
+
+    void published(long nanos) {
+        lastPublishedNanos = nanos;
+    }
+
+    PortfolioUpdate toUpdate(Instant timestamp) {
+        List<PortfolioUpdate.PositionSummary> positions = new ArrayList<>(holdings.size());
+        for (Holding holding : holdings.values()) {
+            long value = holding.quantity * holding.lastPrice;
+            positions.add(new PortfolioUpdate.PositionSummary(holding.symbol, holding.quantity,
+                    holding.averagePriceValue,
+                    FixedPoint.toBigDecimal(holding.lastPrice, SCALE),
+                    FixedPoint.toBigDecimal(value, SCALE),
+                    FixedPoint.toBigDecimal(value - holding.quantity * holding.averagePrice, SCALE)));
+        }
+        PortfolioUpdate.PnL pnl = new PortfolioUpdate.PnL(
+                FixedPoint.toBigDecimal(marketValue - costBasis, SCALE), BigDecimal.ZERO);
+        return new PortfolioUpdate(timestamp, accountId, positions, FixedPoint.toBigDecimal(cash, SCALE), pnl,
+                FixedPoint.toBigDecimal(cash + marketValue, SCALE));
+    }
+
+    private static final class Holding {
+        private final String symbol;
+        private int quantity;
+        private BigDecimal averagePriceValue;
+        private long averagePrice;
+        private long lastPrice;
+
+        private Holding(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+}
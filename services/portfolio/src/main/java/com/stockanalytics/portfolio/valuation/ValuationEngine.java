@@ -0,0 +1,322 @@
+package com.stockanalytics.portfolio.valuation;
+
+import com.stockanalytics.portfolio.model.Account;
+import com.stockanalytics.portfolio.model.PortfolioUpdate;
+import com.stockanalytics.portfolio.model.Position;
+import com.stockanalytics.portfolio.nav.NavRecorder;
+import com.stockanalytics.portfolio.repository.AccountRepository;
+import com.stockanalytics.portfolio.repository.PositionRepository;
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks every open position to market as ticks arrive. Accounts are held in memory as
+ * {@link AccountBook}s, indexed by the symbols they hold, so a tick only touches the accounts
+ * holding its symbol and changes their unrealized P&L and NAV by {@code qty × Δprice}; Mongo is
+ * read when an account is taken over and for accounts not seen since.
+ *
+ * <p>An instance only holds the accounts whose orders it books, i.e. those keyed to the
+ * {@code orders.executed} partitions assigned to it (see {@link #assign}); any other account would
+ * go stale as soon as another instance booked an order for it. So each account is valued, published
+ * and recorded by exactly one instance.
+ *
+ * <p>Changed accounts are published to {@code portfolio.updates} by {@link #flush}, at most once
+ * per {@code portfolio.valuation.min-publish-interval-ms} per account: however many ticks move an
+ * account in between, its subscribers get one update with the latest valuation. Every published
+ * update is also recorded in the NAV history.
+ */
+@Component
+public class ValuationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationEngine.class);
+
+    @Value("${kafka.topic.portfolio.updates:portfolio.updates}")
+    private String portfolioUpdatesTopic;
+
+    @Value("${kafka.topic.orders.executed:orders.executed}")
+    private String ordersExecutedTopic;
+
+    @Value("${portfolio.valuation.min-publish-interval-ms:1000}")
+    private long minPublishIntervalMs;
+
+    private final AccountRepository accountRepository;
+    private final PositionRepository positionRepository;
+    private final KafkaTemplate<String, PortfolioUpdate> kafkaTemplate;
+    private final NavRecorder navRecorder;
+
+    private final Map<String, AccountBook> books = new ConcurrentHashMap<>();
+    private final Map<String, Set<AccountBook>> holders = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPrices = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    // orders.executed partitions this instance books, and so values and publishes
+    private final Set<Integer> owned = ConcurrentHashMap.newKeySet();
+    private volatile int orderPartitions;
+
+    private final Counter marked;
+    private final Counter published;
+
+    @Autowired
+    public ValuationEngine(AccountRepository accountRepository,
+                           PositionRepository positionRepository,
+                           KafkaTemplate<String, PortfolioUpdate> kafkaTemplate,
+                           NavRecorder navRecorder,
+                           MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.positionRepository = positionRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.navRecorder = navRecorder;
+        this.marked = Counter.builder("portfolio.valuation.marked")
+                .description("Account valuations changed by a tick")
+                .register(meterRegistry);
+        this.published = Counter.builder("portfolio.valuation.published").register(meterRegistry);
+        Gauge.builder("portfolio.valuation.accounts", books, Map::size).register(meterRegistry);
+        Gauge.builder("portfolio.valuation.pending", changed, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Takes over the accounts of newly assigned {@code orders.executed} partitions. Called by the
+     * order listener on every rebalance, before it books their orders, so only the accounts stamped
+     * with one of those partitions and their open positions are read; an account that never had an
+     * order booked is loaded on first use by {@link #snapshot} or {@link #apply}.
+     */
+    public void assign(Collection<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        if (orderPartitions == 0) {
+            orderPartitions = kafkaTemplate.partitionsFor(ordersExecutedTopic).size();
+        }
+        owned.addAll(partitions);
+
+        List<Account> accounts = new ArrayList<>();
+        for (Account account : accountRepository.findByLastPartitionIn(partitions)) {
+            // The stamp may predate a change in the topic's partition count
+            if (partitions.contains(partitionOf(account.getUserId()))) {
+                accounts.add(account);
+            }
+        }
+        Map<String, List<Position>> positions = new HashMap<>();
+        if (!accounts.isEmpty()) {
+            List<String> accountIds = accounts.stream().map(Account::getUserId).toList();
+            for (Position position : positionRepository.findByAccountIdInAndQuantityGreaterThan(accountIds, 0)) {
+                positions.computeIfAbsent(position.getAccountId(), id -> new ArrayList<>()).add(position);
+            }
+        }
+        for (Account account : accounts) {
+            hold(build(account, positions.getOrDefault(account.getUserId(), List.of())));
+        }
+        logger.info("Valuation engine took over {} accounts of orders partitions {}", accounts.size(), partitions);
+    }
+
+    /**
+     * Drops the accounts of revoked {@code orders.executed} partitions: their orders are booked,
+     * and their valuations published, by another instance from now on.
+     */
+    public void revoke(Collection<Integer> partitions) {
+        if (partitions.isEmpty() || !owned.removeAll(partitions)) {
+            return;
+        }
+        Set<AccountBook> dropped = new HashSet<>();
+        for (AccountBook book : books.values()) {
+            if (partitions.contains(partitionOf(book.accountId())) && books.remove(book.accountId(), book)) {
+                changed.remove(book.accountId());
+                dropped.add(book);
+            }
+        }
+        holders.values().forEach(accounts -> accounts.removeAll(dropped));
+        logger.info("Valuation engine released {} accounts of orders partitions {}", dropped.size(), partitions);
+    }
+
+    /**
+     * Any symbol may be held by the accounts of any instance, so each consumes all partitions in
+     * its own group, named by {@code kafka.consumer.instance-id}: the first run starts from the
+     * latest offset and a restart resumes where it stopped. Only the newest price of each symbol in
+     * a poll is applied.
+     */
+    @KafkaListener(topics = "${kafka.topic.stocks.ticks:stocks.ticks}",
+            groupId = "portfolio-valuation-${kafka.consumer.instance-id:local}",
+            batch = "true",
+            properties = {
+                    "value.deserializer=com.stockanalytics.shared.serde.StockTickDeserializer",
+                    "stocktick.serde.symbols=${kafka.serde.stock-tick.symbols:}",
+                    "auto.offset.reset=latest"
+            })
+    public void onTicks(List<StockTick> ticks) {
+        Map<String, StockTick> latest = new HashMap<>();
+        for (StockTick tick : ticks) {
+            if (tick != null && tick.getLastPrice() != null) {
+                latest.merge(tick.getSymbol(), tick,
+                        (current, next) -> next.getTimestamp().isBefore(current.getTimestamp()) ? current : next);
+            }
+        }
+        for (StockTick tick : latest.values()) {
+            try {
+                mark(tick.getSymbol(), tick.getLastPrice());
+            } catch (Exception e) {
+                logger.error("Failed to mark positions in {}", tick.getSymbol(), e);
+            }
+        }
+    }
+
+    /** Marks every holding of {@code symbol} to {@code price}. */
+    public void mark(String symbol, BigDecimal price) {
+        long ticks = FixedPoint.toTicks(price, AccountBook.SCALE);
+        lastPrices.put(symbol, ticks);
+        Set<AccountBook> accounts = holders.get(symbol);
+        if (accounts == null) {
+            return;
+        }
+        for (AccountBook book : accounts) {
+            boolean moved;
+            synchronized (book) {
+                moved = book.mark(symbol, ticks);
+            }
+            if (moved) {
+                marked.increment();
+                changed.add(book.accountId());
+            }
+        }
+    }
+
+    /**
+     * Applies an account's cash and one of its positions after an order was booked.
+     */
+    public void apply(Account account, Position position) {
+        AccountBook book = books.computeIfAbsent(account.getUserId(), AccountBook::new);
+        synchronized (book) {
+            book.setCash(account.getCash());
+        }
+        setHolding(book, position);
+        changed.add(book.accountId());
+    }
+
+    /**
+     * The current valuation of an account, loading it from Mongo when it is not held yet. Accounts
+     * of partitions this instance does not own are valued from Mongo on every call and not kept.
+     */
+    public PortfolioUpdate snapshot(String accountId) {
+        AccountBook book = books.get(accountId);
+        if (book == null) {
+            book = owns(accountId) ? hold(load(accountId)) : load(accountId);
+        }
+        synchronized (book) {
+            return book.toUpdate(Instant.now());
+        }
+    }
+
+    /**
+     * Publishes the accounts whose valuation changed and whose last update is at least the
+     * minimum interval old; the others stay pending for a later flush.
+     */
+    @Scheduled(fixedDelayString = "${portfolio.valuation.flush-interval-ms:100}")
+    public void flush() {
+        long now = System.nanoTime();
+        long minInterval = TimeUnit.MILLISECONDS.toNanos(minPublishIntervalMs);
+        for (String accountId : changed) {
+            AccountBook book = books.get(accountId);
+            if (book == null || !owns(accountId)) {
+                changed.remove(accountId);
+                continue;
+            }
+            PortfolioUpdate update;
+            synchronized (book) {
+                if (book.lastPublishedNanos() != 0 && now - book.lastPublishedNanos() < minInterval) {
+                    continue;
+                }
+                changed.remove(accountId);
+                book.published(now);
+                update = book.toUpdate(Instant.now());
+            }
+            try {
+                kafkaTemplate.send(portfolioUpdatesTopic, accountId, update);
+                published.increment();
+                navRecorder.record(update);
+            } catch (Exception e) {
+                logger.error("Failed to publish portfolio update for account: {}", accountId, e);
+            }
+        }
+    }
+
+    private AccountBook load(String accountId) {
+        Account account = accountRepository.findByUserId(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found: " + accountId));
+        List<Position> positions = positionRepository.findByAccountId(accountId).stream()
+                .filter(position -> position.getQuantity() != null && position.getQuantity() > 0)
+                .toList();
+        return build(account, positions);
+    }
+
+    // Built before it is shared, so readers never see a partly loaded account
+    private AccountBook build(Account account, List<Position> positions) {
+        AccountBook book = new AccountBook(account.getUserId());
+        book.setCash(account.getCash());
+        for (Position position : positions) {
+            String symbol = position.getSymbol();
+            book.setHolding(symbol, position.getQuantity(), position.getAveragePrice(), lastPrices.get(symbol));
+        }
+        return book;
+    }
+
+    private AccountBook hold(AccountBook book) {
+        AccountBook existing = books.putIfAbsent(book.accountId(), book);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (book) {
+            for (String symbol : book.symbols()) {
+                holders.computeIfAbsent(symbol, s -> ConcurrentHashMap.newKeySet()).add(book);
+            }
+        }
+        return book;
+    }
+
+    private boolean owns(String accountId) {
+        return orderPartitions > 0 && owned.contains(partitionOf(accountId));
+    }
+
+    // The partition the producer's default partitioner picks for orders keyed by accountId
+    private int partitionOf(String accountId) {
+        return Utils.toPositive(Utils.murmur2(accountId.getBytes(StandardCharsets.UTF_8))) % orderPartitions;
+    }
+
+    private void setHolding(AccountBook book, Position position) {
+        String symbol = position.getSymbol();
+        boolean holds;
+        synchronized (book) {
+            holds = book.setHolding(symbol, position.getQuantity(), position.getAveragePrice(), lastPrices.get(symbol));
+        }
+        if (holds) {
+            holders.computeIfAbsent(symbol, s -> ConcurrentHashMap.newKeySet()).add(book);
+        } else {
+            Set<AccountBook> accounts = holders.get(symbol);
+            if (accounts != null) {
+                accounts.remove(book);
+            }
+        }
+    }
+}
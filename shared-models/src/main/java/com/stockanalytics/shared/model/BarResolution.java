@@ -0,0 +1,52 @@
+package com.stockanalytics.shared.model;
+
+import java.util.Locale;
+
+/**
+ * Bar resolutions, finest first. Each resolution divides the next coarser one, so closed bars
+ * roll up level by level. Buckets are aligned to the epoch, i.e. daily bars are UTC days.
+ */
+public enum BarResolution {
+
+    S1("1s", 1_000L),
+    M1("1m", 60_000L),
+    M5("5m", 300_000L),
+    H1("1h", 3_600_000L),
+    D1("1d", 86_400_000L);
+
+    private final String label;
+    private final long millis;
+
+    BarResolution(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    /** Start of the bucket holding {@code timestampMillis}. */
+    public long bucketStart(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, millis) * millis;
+    }
+
+    /** Mongo collection holding the closed bars of this resolution. */
+    public String collection() {
+        return "bars_" + label;
+    }
+
+    public static BarResolution parse(String label) {
+        String normalized = label.trim().toLowerCase(Locale.ROOT);
+        for (BarResolution resolution : values()) {
+            if (resolution.label.equals(normalized)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bar resolution: " + label);
+    }
+}
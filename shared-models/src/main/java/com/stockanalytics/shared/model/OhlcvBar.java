@@ -0,0 +1,171 @@
+package com.stockanalytics.shared.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A closed OHLCV bar of one symbol. Bars are stored in one collection per resolution (see
+ * {@link BarResolution#collection()}); the id is derived from symbol and start so a bar written
+ * twice is only stored once.
+ */
+public class OhlcvBar {
+
+    @Id
+    @JsonProperty("id")
+    private String id;
+
+    @Field("symbol")
+    @JsonProperty("symbol")
+    private String symbol;
+
+    @Field("res")
+    @JsonProperty("res")
+    private String resolution;
+
+    @Field("ts")
+    @JsonProperty("ts")
+    @JsonFormat(shape = JsonFormat.Shape.NUMBER)
+    private Instant start;
+
+    @Field("open")
+    @JsonProperty("open")
+    private BigDecimal open;
+
+    @Field("high")
+    @JsonProperty("high")
+    private BigDecimal high;
+
+    @Field("low")
+    @JsonProperty("low")
+    private BigDecimal low;
+
+    @Field("close")
+    @JsonProperty("close")
+    private BigDecimal close;
+
+    @Field("volume")
+    @JsonProperty("volume")
+    private long volume;
+
+    @Field("ticks")
+    @JsonProperty("ticks")
+    private long tickCount;
+
+    // Constructors
+    public OhlcvBar() {}
+
+    public OhlcvBar(String symbol, BarResolution resolution, Instant start, BigDecimal open, BigDecimal high,
+                    BigDecimal low, BigDecimal close, long volume, long tickCount) {
+        this.id = symbol + ":" + start.toEpochMilli();
+        this.symbol = symbol;
+        this.resolution = resolution.label();
+        this.start = start;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.tickCount = tickCount;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    public void setOpen(BigDecimal open) {
+        this.open = open;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public void setHigh(BigDecimal high) {
+        this.high = high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public void setLow(BigDecimal low) {
+        this.low = low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public void setClose(BigDecimal close) {
+        this.close = close;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(long volume) {
+        this.volume = volume;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public void setTickCount(long tickCount) {
+        this.tickCount = tickCount;
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcvBar{" +
+                "symbol='" + symbol + '\'' +
+                ", resolution='" + resolution + '\'' +
+                ", start=" + start +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                ", tickCount=" + tickCount +
+                '}';
+    }
+}
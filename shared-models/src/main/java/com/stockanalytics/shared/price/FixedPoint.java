@@ -0,0 +1,64 @@
+package com.stockanalytics.shared.price;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point price arithmetic. A price is held as a long number of ticks, where one tick is
+ * 10^-scale of the quote currency (e.g. 1800.55 at scale 2 is 180055 ticks). Hot paths compute
+ * on ticks and only convert back to {@link BigDecimal} at the serialization boundary.
+ */
+public final class FixedPoint {
+
+    public static final int MAX_SCALE = 9;
+
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    // Below 2^49 the two roundings of doubleValue() and the multiply stay under 1/8 of a tick,
+    // so rounding the double product recovers a whole number of ticks exactly
+    private static final double EXACT_DOUBLE_LIMIT = 1L << 49;
+
+    private FixedPoint() {}
+
+    public static long pow10(int scale) {
+        return POW10[scale];
+    }
+
+    /**
+     * Converts a price to ticks, rounding HALF_UP when it has more decimals than {@code scale}.
+     */
+    public static long toTicks(BigDecimal price, int scale) {
+        // A price with at most scale decimals is a whole number of ticks, so the double product
+        // is within far less than half a tick of it and rounding recovers it exactly.
+        // doubleValue() on compact BigDecimals does not allocate
+        if (price.scale() <= scale && price.precision() <= 15) {
+            double scaled = price.doubleValue() * POW10[scale];
+            if (Math.abs(scaled) < EXACT_DOUBLE_LIMIT) {
+                return Math.round(scaled);
+            }
+        }
+        return price.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long toTicks(double price, int scale) {
+        return Math.round(price * POW10[scale]);
+    }
+
+    public static double toDouble(long ticks, int scale) {
+        return (double) ticks / POW10[scale];
+    }
+
+    public static BigDecimal toBigDecimal(long ticks, int scale) {
+        return BigDecimal.valueOf(ticks, scale);
+    }
+
+    /**
+     * Converts a fractional tick value (e.g. an average) keeping {@code extraDigits} digits
+     * beyond the price scale.
+     */
+    public static BigDecimal toBigDecimal(double ticks, int scale, int extraDigits) {
+        return BigDecimal.valueOf(Math.round(ticks * POW10[extraDigits]), scale + extraDigits);
+    }
+}
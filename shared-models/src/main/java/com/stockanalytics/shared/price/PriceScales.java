@@ -0,0 +1,60 @@
+package com.stockanalytics.shared.price;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-symbol fixed-point scale, i.e. the number of decimal places a symbol is quoted in.
+ */
+public class PriceScales {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private final int defaultScale;
+    private final Map<String, Integer> overrides;
+
+    public PriceScales(int defaultScale, Map<String, Integer> overrides) {
+        checkScale(defaultScale);
+        overrides.values().forEach(PriceScales::checkScale);
+        this.defaultScale = defaultScale;
+        this.overrides = Map.copyOf(overrides);
+    }
+
+    public static PriceScales defaults() {
+        return new PriceScales(DEFAULT_SCALE, Map.of());
+    }
+
+    /**
+     * Parses overrides of the form {@code "BTCINR:4,USDINR:4"}.
+     */
+    public static PriceScales parse(int defaultScale, String overrideSpec) {
+        Map<String, Integer> overrides = new HashMap<>();
+        if (overrideSpec != null && !overrideSpec.isBlank()) {
+            for (String entry : overrideSpec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid price scale override: " + entry);
+                }
+                overrides.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return new PriceScales(defaultScale, overrides);
+    }
+
+    public int scaleOf(String symbol) {
+        if (symbol == null || overrides.isEmpty()) {
+            return defaultScale;
+        }
+        return overrides.getOrDefault(symbol, defaultScale);
+    }
+
+    public int getDefaultScale() {
+        return defaultScale;
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > FixedPoint.MAX_SCALE) {
+            throw new IllegalArgumentException("Price scale must be between 0 and " + FixedPoint.MAX_SCALE);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.stockanalytics.shared.quote;
+
+import com.stockanalytics.shared.model.StockTick;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the latest tick per symbol. Reads are a single hash lookup with no locking,
+ * so quote endpoints can serve from it at any polling rate.
+ *
+ * <p>A tick replaces the stored one unless it is older, so ticks arriving out of order (or twice,
+ * when a service both generates and consumes them) never roll a quote back. Stored ticks are
+ * shared with readers and must not be modified afterwards.
+ */
+public class LatestQuoteTable {
+
+    private final ConcurrentHashMap<String, StockTick> quotes = new ConcurrentHashMap<>();
+
+    public void update(StockTick tick) {
+        if (tick == null || tick.getSymbol() == null) {
+            return;
+        }
+        quotes.merge(tick.getSymbol(), tick, (current, candidate) -> isOlder(candidate, current) ? current : candidate);
+    }
+
+    /** The latest tick of {@code symbol}, or null when none has been seen. */
+    public StockTick get(String symbol) {
+        return quotes.get(symbol);
+    }
+
+    public Map<String, StockTick> snapshot() {
+        return Map.copyOf(quotes);
+    }
+
+    public int size() {
+        return quotes.size();
+    }
+
+    private static boolean isOlder(StockTick candidate, StockTick current) {
+        return candidate.getTimestamp() != null && current.getTimestamp() != null
+                && candidate.getTimestamp().isBefore(current.getTimestamp());
+    }
+}
@@ -0,0 +1,262 @@
+package com.stockanalytics.shared.serde;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.FixedPoint;
+import com.stockanalytics.shared.price.PriceScales;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Compact, versioned binary encoding of {@link StockTick}.
+ *
+ * <pre>
+ *  0  byte   magic (0xB5)
+ *  1  byte   version
+ *  2  short  writer dictionary size
+ *  4  int    writer dictionary fingerprint
+ *  8  byte   presence flags (bit 0 timestamp, bits 1-6 last/open/high/low/bid/ask, bit 7 volume)
+ *  9  byte   price scale: the symbol's, or more when a price has more decimals (up to 9)
+ * 10  short  symbol id, or -1 when the symbol is written inline
+ * 12  long   epoch second
+ * 20  int    nano adjustment
+ * 24  long   last, open, high, low, bid, ask as scaled ticks
+ * 72  long   volume
+ * 80  [byte length + UTF-8 symbol, only when inline] [byte length (-1 for null) + UTF-8 source]
+ * </pre>
+ *
+ * The Mongo id is not part of the wire format.
+ */
+public class StockTickBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+
+    static final int FIXED_SIZE = 80;
+
+    private static final int FLAG_TIMESTAMP = 1;
+    private static final int FLAG_VOLUME = 1 << 7;
+    private static final int MAX_STRING_BYTES = Byte.MAX_VALUE;
+
+    private final SymbolDictionary dictionary;
+    private final PriceScales priceScales;
+
+    // Sources are a handful of constants, so remember the last one seen on each side
+    private volatile StringBytes lastEncodedSource;
+    private volatile StringBytes lastDecodedSource;
+
+    public StockTickBinaryCodec(SymbolDictionary dictionary, PriceScales priceScales) {
+        this.dictionary = dictionary;
+        this.priceScales = priceScales;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= FIXED_SIZE && data[0] == MAGIC;
+    }
+
+    public byte[] encode(StockTick tick) {
+        short symbolId = tick.getSymbol() != null ? dictionary.idOf(tick.getSymbol()) : SymbolDictionary.NOT_FOUND;
+        byte[] inlineSymbol = symbolId == SymbolDictionary.NOT_FOUND ? utf8(tick.getSymbol()) : null;
+        byte[] source = sourceBytes(tick.getSource());
+
+        int size = FIXED_SIZE + (symbolId == SymbolDictionary.NOT_FOUND ? stringSize(inlineSymbol) : 0)
+                + stringSize(source);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        int scale = scaleOf(tick);
+
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.putShort((short) dictionary.size());
+        buffer.putInt(dictionary.fingerprint());
+        buffer.put((byte) flags(tick));
+        buffer.put((byte) scale);
+        buffer.putShort(symbolId);
+
+        Instant timestamp = tick.getTimestamp();
+        buffer.putLong(timestamp != null ? timestamp.getEpochSecond() : 0L);
+        buffer.putInt(timestamp != null ? timestamp.getNano() : 0);
+
+        putPrice(buffer, tick.getLastPrice(), scale);
+        putPrice(buffer, tick.getOpenPrice(), scale);
+        putPrice(buffer, tick.getHighPrice(), scale);
+        putPrice(buffer, tick.getLowPrice(), scale);
+        putPrice(buffer, tick.getBidPrice(), scale);
+        putPrice(buffer, tick.getAskPrice(), scale);
+        buffer.putLong(tick.getVolume() != null ? tick.getVolume() : 0L);
+
+        if (symbolId == SymbolDictionary.NOT_FOUND) {
+            putString(buffer, inlineSymbol);
+        }
+        putString(buffer, source);
+        return buffer.array();
+    }
+
+    public StockTick decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    public StockTick decode(ByteBuffer buffer) {
+        if (buffer.remaining() < FIXED_SIZE || buffer.get() != MAGIC) {
+            throw new SerializationException("Not a binary StockTick record");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported StockTick encoding version: " + version);
+        }
+        int dictionarySize = buffer.getShort();
+        int fingerprint = buffer.getInt();
+        int flags = buffer.get() & 0xFF;
+        int scale = buffer.get();
+        short symbolId = buffer.getShort();
+        if (symbolId != SymbolDictionary.NOT_FOUND && !dictionary.isCompatible(dictionarySize, fingerprint)) {
+            throw new SerializationException("StockTick was written with an incompatible symbol dictionary ("
+                    + dictionarySize + " entries); the consumer dictionary must extend the producer's");
+        }
+
+        StockTick tick = new StockTick();
+        long epochSecond = buffer.getLong();
+        int nanos = buffer.getInt();
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            tick.setTimestamp(Instant.ofEpochSecond(epochSecond, nanos));
+        }
+        tick.setLastPrice(getPrice(buffer, flags, 0, scale));
+        tick.setOpenPrice(getPrice(buffer, flags, 1, scale));
+        tick.setHighPrice(getPrice(buffer, flags, 2, scale));
+        tick.setLowPrice(getPrice(buffer, flags, 3, scale));
+        tick.setBidPrice(getPrice(buffer, flags, 4, scale));
+        tick.setAskPrice(getPrice(buffer, flags, 5, scale));
+        long volume = buffer.getLong();
+        if ((flags & FLAG_VOLUME) != 0) {
+            tick.setVolume(volume);
+        }
+
+        tick.setSymbol(symbolId == SymbolDictionary.NOT_FOUND
+                ? getString(buffer)
+                : dictionary.symbolOf(symbolId));
+        tick.setSource(getSource(buffer));
+        return tick;
+    }
+
+    // The symbol's scale, widened to the most decimals of any price so none is rounded away
+    private int scaleOf(StockTick tick) {
+        int scale = priceScales.scaleOf(tick.getSymbol());
+        scale = widen(scale, tick.getLastPrice());
+        scale = widen(scale, tick.getOpenPrice());
+        scale = widen(scale, tick.getHighPrice());
+        scale = widen(scale, tick.getLowPrice());
+        scale = widen(scale, tick.getBidPrice());
+        scale = widen(scale, tick.getAskPrice());
+        return Math.min(scale, FixedPoint.MAX_SCALE);
+    }
+
+    private static int widen(int scale, BigDecimal price) {
+        return price != null ? Math.max(scale, price.scale()) : scale;
+    }
+
+    private static int flags(StockTick tick) {
+        int flags = 0;
+        if (tick.getTimestamp() != null) flags |= FLAG_TIMESTAMP;
+        if (tick.getLastPrice() != null) flags |= priceFlag(0);
+        if (tick.getOpenPrice() != null) flags |= priceFlag(1);
+        if (tick.getHighPrice() != null) flags |= priceFlag(2);
+        if (tick.getLowPrice() != null) flags |= priceFlag(3);
+        if (tick.getBidPrice() != null) flags |= priceFlag(4);
+        if (tick.getAskPrice() != null) flags |= priceFlag(5);
+        if (tick.getVolume() != null) flags |= FLAG_VOLUME;
+        return flags;
+    }
+
+    private static int priceFlag(int index) {
+        return 1 << (index + 1);
+    }
+
+    private static void putPrice(ByteBuffer buffer, BigDecimal price, int scale) {
+        buffer.putLong(price != null ? FixedPoint.toTicks(price, scale) : 0L);
+    }
+
+    private static BigDecimal getPrice(ByteBuffer buffer, int flags, int index, int scale) {
+        long ticks = buffer.getLong();
+        return (flags & priceFlag(index)) != 0 ? FixedPoint.toBigDecimal(ticks, scale) : null;
+    }
+
+    private byte[] sourceBytes(String source) {
+        if (source == null) {
+            return null;
+        }
+        StringBytes last = lastEncodedSource;
+        if (last != null && last.value.equals(source)) {
+            return last.bytes;
+        }
+        byte[] bytes = utf8(source);
+        lastEncodedSource = new StringBytes(source, bytes);
+        return bytes;
+    }
+
+    private String getSource(ByteBuffer buffer) {
+        int length = buffer.get();
+        if (length < 0) {
+            return null;
+        }
+        StringBytes last = lastDecodedSource;
+        if (last != null && buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            if (Arrays.equals(last.bytes, 0, last.bytes.length, buffer.array(), start, start + length)) {
+                buffer.position(buffer.position() + length);
+                return last.value;
+            }
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        String source = new String(bytes, StandardCharsets.UTF_8);
+        lastDecodedSource = new StringBytes(source, bytes);
+        return source;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new SerializationException("String too long for StockTick encoding: " + value);
+        }
+        return bytes;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 1 + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.put((byte) -1);
+        } else {
+            buffer.put((byte) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.get();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class StringBytes {
+        private final String value;
+        private final byte[] bytes;
+
+        private StringBytes(String value, byte[] bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.stockanalytics.shared.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockanalytics.shared.model.StockTick;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Reads {@link StockTick} records in either wire format: binary records are recognised by their
+ * magic byte, anything else is parsed as JSON. Consumers can therefore switch to this
+ * deserializer before producers start writing binary.
+ */
+public class StockTickDeserializer implements Deserializer<StockTick> {
+
+    private StockTickBinaryCodec codec;
+    private final ObjectMapper objectMapper = StockTickSerdeConfig.objectMapper();
+
+    public StockTickDeserializer() {
+        this(StockTickSerdeConfig.codec(Map.of()));
+    }
+
+    public StockTickDeserializer(StockTickBinaryCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.codec = StockTickSerdeConfig.codec(configs);
+    }
+
+    @Override
+    public StockTick deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (StockTickBinaryCodec.isBinary(data)) {
+            return codec.decode(data);
+        }
+        try {
+            return objectMapper.readValue(data, StockTick.class);
+        } catch (Exception e) {
+            throw new SerializationException("Failed to deserialize StockTick from JSON", e);
+        }
+    }
+}
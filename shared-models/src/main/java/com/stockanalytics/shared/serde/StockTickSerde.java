@@ -0,0 +1,40 @@
+package com.stockanalytics.shared.serde;
+
+import com.stockanalytics.shared.model.StockTick;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+public class StockTickSerde implements Serde<StockTick> {
+
+    private final StockTickSerializer serializer;
+    private final StockTickDeserializer deserializer;
+
+    public StockTickSerde() {
+        this.serializer = new StockTickSerializer();
+        this.deserializer = new StockTickDeserializer();
+    }
+
+    public StockTickSerde(StockTickBinaryCodec codec, StockTickSerdeConfig.Format format) {
+        this.serializer = new StockTickSerializer(codec, format);
+        this.deserializer = new StockTickDeserializer(codec);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        serializer.configure(configs, isKey);
+        deserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<StockTick> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<StockTick> deserializer() {
+        return deserializer;
+    }
+}
@@ -0,0 +1,53 @@
+package com.stockanalytics.shared.serde;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockanalytics.shared.price.PriceScales;
+
+import java.util.Map;
+
+/**
+ * Configuration keys understood by the StockTick serializer, deserializer and serde. They can be
+ * set per topic, e.g. through a listener's {@code properties} or a producer factory.
+ */
+public final class StockTickSerdeConfig {
+
+    /** Wire format written by the serializer: {@code binary} (default) or {@code json}. */
+    public static final String FORMAT = "stocktick.serde.format";
+
+    /** Ordered, append-only symbol dictionary, e.g. {@code INFY,TCS,RELIANCE}. */
+    public static final String SYMBOLS = "stocktick.serde.symbols";
+
+    /** Default fixed-point scale for prices. */
+    public static final String SCALE_DEFAULT = "stocktick.serde.scale.default";
+
+    /** Per-symbol scale overrides, e.g. {@code BTCINR:4}. */
+    public static final String SCALE_OVERRIDES = "stocktick.serde.scale.overrides";
+
+    public enum Format {
+        BINARY, JSON;
+
+        public static Format parse(Object value) {
+            return value == null ? BINARY : Format.valueOf(value.toString().trim().toUpperCase());
+        }
+    }
+
+    private StockTickSerdeConfig() {}
+
+    static StockTickBinaryCodec codec(Map<String, ?> configs) {
+        Object scale = configs.get(SCALE_DEFAULT);
+        Object overrides = configs.get(SCALE_OVERRIDES);
+        Object symbols = configs.get(SYMBOLS);
+        PriceScales priceScales = PriceScales.parse(
+                scale != null ? Integer.parseInt(scale.toString()) : PriceScales.DEFAULT_SCALE,
+                overrides != null ? overrides.toString() : null);
+        return new StockTickBinaryCodec(
+                SymbolDictionary.parse(symbols != null ? symbols.toString() : null), priceScales);
+    }
+
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -0,0 +1,49 @@
+package com.stockanalytics.shared.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockanalytics.shared.model.StockTick;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Writes {@link StockTick} in the binary encoding, or as JSON while consumers are still being
+ * migrated ({@code stocktick.serde.format=json}).
+ */
+public class StockTickSerializer implements Serializer<StockTick> {
+
+    private StockTickBinaryCodec codec;
+    private StockTickSerdeConfig.Format format;
+    private final ObjectMapper objectMapper = StockTickSerdeConfig.objectMapper();
+
+    public StockTickSerializer() {
+        this(StockTickSerdeConfig.codec(Map.of()), StockTickSerdeConfig.Format.BINARY);
+    }
+
+    public StockTickSerializer(StockTickBinaryCodec codec, StockTickSerdeConfig.Format format) {
+        this.codec = codec;
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.codec = StockTickSerdeConfig.codec(configs);
+        this.format = StockTickSerdeConfig.Format.parse(configs.get(StockTickSerdeConfig.FORMAT));
+    }
+
+    @Override
+    public byte[] serialize(String topic, StockTick tick) {
+        if (tick == null) {
+            return null;
+        }
+        if (format == StockTickSerdeConfig.Format.BINARY) {
+            return codec.encode(tick);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(tick);
+        } catch (Exception e) {
+            throw new SerializationException("Failed to serialize StockTick as JSON", e);
+        }
+    }
+}
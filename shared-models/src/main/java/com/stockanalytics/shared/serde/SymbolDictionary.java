@@ -0,0 +1,77 @@
+package com.stockanalytics.shared.serde;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered symbol dictionary used to encode symbols as 2-byte ids. The dictionary is append-only:
+ * a reader accepts a record as long as the writer's dictionary is a prefix of its own, which is
+ * verified through a per-prefix fingerprint carried in every record.
+ */
+public class SymbolDictionary {
+
+    public static final short NOT_FOUND = -1;
+    public static final int MAX_SIZE = Short.MAX_VALUE;
+
+    private final String[] symbols;
+    private final Map<String, Short> ids;
+    private final int[] prefixFingerprints;
+
+    public SymbolDictionary(List<String> symbols) {
+        if (symbols.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("Symbol dictionary is limited to " + MAX_SIZE + " entries");
+        }
+        this.symbols = new String[symbols.size()];
+        this.ids = new HashMap<>(symbols.size() * 2);
+        this.prefixFingerprints = new int[symbols.size() + 1];
+
+        int fingerprint = 1;
+        prefixFingerprints[0] = fingerprint;
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i).trim();
+            if (ids.putIfAbsent(symbol, (short) i) != null) {
+                throw new IllegalArgumentException("Duplicate symbol in dictionary: " + symbol);
+            }
+            this.symbols[i] = symbol;
+            fingerprint = 31 * fingerprint + symbol.hashCode();
+            prefixFingerprints[i + 1] = fingerprint;
+        }
+    }
+
+    public static SymbolDictionary empty() {
+        return new SymbolDictionary(List.of());
+    }
+
+    public static SymbolDictionary parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return empty();
+        }
+        return new SymbolDictionary(List.of(spec.split(",")));
+    }
+
+    public short idOf(String symbol) {
+        Short id = ids.get(symbol);
+        return id != null ? id : NOT_FOUND;
+    }
+
+    public String symbolOf(int id) {
+        return symbols[id];
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public int fingerprint() {
+        return prefixFingerprints[symbols.length];
+    }
+
+    /**
+     * Whether a record written with a dictionary of {@code size} entries and the given
+     * fingerprint can be decoded with this dictionary.
+     */
+    public boolean isCompatible(int size, int fingerprint) {
+        return size <= symbols.length && prefixFingerprints[size] == fingerprint;
+    }
+}
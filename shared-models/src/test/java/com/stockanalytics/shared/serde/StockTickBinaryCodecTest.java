@@ -0,0 +1,83 @@
+package com.stockanalytics.shared.serde;
+
+import com.stockanalytics.shared.model.StockTick;
+import com.stockanalytics.shared.price.PriceScales;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Round trips ticks through the binary encoding, with prices at and beyond the symbol's scale.
+ */
+class StockTickBinaryCodecTest {
+
+    private static final Instant TS = Instant.parse("2024-01-15T03:45:00.123456789Z");
+
+    private final StockTickBinaryCodec codec = new StockTickBinaryCodec(
+            new SymbolDictionary(List.of("INFY", "TCS")), PriceScales.defaults());
+
+    @Test
+    void pricesAtTheSymbolScaleRoundTrip() {
+        StockTick tick = tick("INFY", "1500.25", "1499.50", "1501.00", "1498.75");
+
+        assertRoundTrip(tick, codec.decode(codec.encode(tick)));
+    }
+
+    @Test
+    void pricesWithMoreDecimalsThanTheSymbolScaleKeepThem() {
+        // Scale 2 is configured; a replayed or fed tick may carry more decimals
+        StockTick tick = tick("TCS", "3500.1234", "3500.005", "3501.1", "3499.999999");
+
+        assertRoundTrip(tick, codec.decode(codec.encode(tick)));
+    }
+
+    @Test
+    void inlineSymbolsAndMissingFieldsRoundTrip() {
+        StockTick tick = tick("WIPRO", "450.125", null, null, null);
+        tick.setVolume(null);
+        tick.setSource(null);
+
+        StockTick decoded = codec.decode(codec.encode(tick));
+
+        assertRoundTrip(tick, decoded);
+        assertNull(decoded.getOpenPrice());
+        assertNull(decoded.getVolume());
+        assertNull(decoded.getSource());
+    }
+
+    private static StockTick tick(String symbol, String last, String open, String bid, String ask) {
+        BigDecimal lastPrice = new BigDecimal(last);
+        return new StockTick(TS, symbol, lastPrice, price(open), lastPrice, lastPrice, 1200L,
+                price(bid), price(ask), "test");
+    }
+
+    private static BigDecimal price(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static void assertRoundTrip(StockTick expected, StockTick actual) {
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertPrice(expected.getLastPrice(), actual.getLastPrice());
+        assertPrice(expected.getOpenPrice(), actual.getOpenPrice());
+        assertPrice(expected.getHighPrice(), actual.getHighPrice());
+        assertPrice(expected.getLowPrice(), actual.getLowPrice());
+        assertPrice(expected.getBidPrice(), actual.getBidPrice());
+        assertPrice(expected.getAskPrice(), actual.getAskPrice());
+        assertEquals(expected.getVolume(), actual.getVolume());
+        assertEquals(expected.getSource(), actual.getSource());
+    }
+
+    private static void assertPrice(BigDecimal expected, BigDecimal actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(0, expected.compareTo(actual), "expected " + expected + " but was " + actual);
+        }
+    }
+}